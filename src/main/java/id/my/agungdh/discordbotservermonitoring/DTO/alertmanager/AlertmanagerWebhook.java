@@ -0,0 +1,31 @@
+package id.my.agungdh.discordbotservermonitoring.DTO.alertmanager;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Payload webhook Alertmanager (version 4); field lain (groupKey, externalURL, ...) diabaikan.
+ */
+public record AlertmanagerWebhook(
+        String status,
+        List<Alert> alerts
+) {
+    public record Alert(
+            String status,                   // "firing" | "resolved"
+            Map<String, String> labels,
+            Map<String, String> annotations,
+            String fingerprint
+    ) {
+        public boolean firing() {
+            return "firing".equalsIgnoreCase(status);
+        }
+
+        public String label(String name) {
+            return labels == null ? null : labels.get(name);
+        }
+
+        public String annotation(String name) {
+            return annotations == null ? null : annotations.get(name);
+        }
+    }
+}
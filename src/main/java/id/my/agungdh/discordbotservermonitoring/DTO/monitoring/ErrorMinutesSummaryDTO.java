@@ -18,5 +18,7 @@ public class ErrorMinutesSummaryDTO {
     private Instant end;            // epoch end (UTC / now)
     private long totalMinutes;      // total semua target
     private List<TargetErrorDTO> results; // per target
+    private String mode;            // sumber/strategi: BITMAP, ROLLUP, RECORDING_RULE, EXACT_SUBQUERY, RAW_RANGE, COARSE
+    private String precision;       // "exact" atau keterangan aproksimasi
 }
 
@@ -0,0 +1,15 @@
+package id.my.agungdh.discordbotservermonitoring.DTO.monitoring;
+
+public record HttpHostStatsDTO(
+        String host,
+        long requests,
+        long errors,
+        int inFlight,
+        int peakInFlight,
+        int maxInFlight,            // 0 = tanpa batas
+        long waitedForSlot,
+        long rejected,
+        double avgLatencyMillis,
+        String lastError
+) {
+}
@@ -12,6 +12,11 @@ public record MetricsDTO(
         MemoryDTO memory,
         SwapDTO swap,
         List<StorageDTO> storage,
-        List<NetworkDTO> networks
+        List<NetworkDTO> networks,
+        // umur data saat dikirim (ms), dihitung dari timestamp scrape
+        long ageMillis
 ) {
+    public MetricsDTO withAgeMillis(long ageMillis) {
+        return new MetricsDTO(timestamp, hostname, os, uptimeSeconds, cpu, memory, swap, storage, networks, ageMillis);
+    }
 }
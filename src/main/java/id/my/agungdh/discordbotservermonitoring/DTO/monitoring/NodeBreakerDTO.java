@@ -0,0 +1,14 @@
+package id.my.agungdh.discordbotservermonitoring.DTO.monitoring;
+
+import java.time.Instant;
+
+public record NodeBreakerDTO(
+        String node,
+        String state,               // CLOSED / OPEN / HALF_OPEN
+        int consecutiveFailures,
+        String lastError,
+        Instant openedAt,           // null kalau CLOSED
+        Instant nextProbeAt,        // null kalau CLOSED
+        long backoffMillis
+) {
+}
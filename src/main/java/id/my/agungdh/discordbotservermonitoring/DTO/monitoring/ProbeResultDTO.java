@@ -0,0 +1,18 @@
+package id.my.agungdh.discordbotservermonitoring.DTO.monitoring;
+
+import jakarta.validation.constraints.NotBlank;
+
+/**
+ * Satu hasil probe yang di-push ke POST /alerts/probes.
+ *
+ * @param instance  target (label instance)
+ * @param success   sama dengan probe_success == 1
+ * @param timestamp epoch ms saat probe; null = waktu diterima
+ */
+public record ProbeResultDTO(
+        @NotBlank String instance,
+        String alias,
+        boolean success,
+        Long timestamp
+) {
+}
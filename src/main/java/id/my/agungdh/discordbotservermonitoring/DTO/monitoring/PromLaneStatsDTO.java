@@ -0,0 +1,21 @@
+package id.my.agungdh.discordbotservermonitoring.DTO.monitoring;
+
+/**
+ * Statistik bulkhead satu lane query Prometheus.
+ *
+ * @param inUse         query yang sedang jalan di lane ini
+ * @param waiting       query yang sedang antre slot
+ * @param rejected      query yang ditolak karena antre lebih lama dari maxWaitMillis
+ * @param avgWaitMillis rata-rata waktu antre slot (query yang dapat slot)
+ */
+public record PromLaneStatsDTO(
+        String lane,
+        int maxConcurrent,
+        int inUse,
+        int waiting,
+        long acquired,
+        long rejected,
+        double avgWaitMillis,
+        double maxWaitMillis
+) {
+}
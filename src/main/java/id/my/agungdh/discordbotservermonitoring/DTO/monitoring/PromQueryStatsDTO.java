@@ -0,0 +1,17 @@
+package id.my.agungdh.discordbotservermonitoring.DTO.monitoring;
+
+/**
+ * Statistik single-flight PrometheusClient.
+ *
+ * @param hitRatio    porsi request yang numpang hasil request lain (coalesced / requests)
+ * @param dedupFactor rata-rata request per HTTP call (requests / httpCalls)
+ */
+public record PromQueryStatsDTO(
+        long requests,
+        long httpCalls,
+        long coalesced,
+        int inFlight,
+        double hitRatio,
+        double dedupFactor
+) {
+}
@@ -9,19 +9,24 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Duration;
+import java.time.ZoneId;
 import java.util.TimeZone;
 
 @SpringBootApplication
 @EnableScheduling
 public class DiscordBotServerMonitoringApplication {
 
+    // satu-satunya sumber zona waktu: default JVM, batas hari rollup, dan cron harian
+    public static final String ZONE_ID = "Asia/Jakarta";
+    public static final ZoneId ZONE = ZoneId.of(ZONE_ID);
+
     public static void main(String[] args) {
         SpringApplication.run(DiscordBotServerMonitoringApplication.class, args);
     }
 
     @PostConstruct
     public void init() {
-        TimeZone.setDefault(TimeZone.getTimeZone("Asia/Jakarta"));
+        TimeZone.setDefault(TimeZone.getTimeZone(ZONE));
         System.out.println("Default timezone set to " + TimeZone.getDefault().getID());
     }
 
@@ -0,0 +1,61 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import id.my.agungdh.discordbotservermonitoring.config.HttpTransportProps;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * Probe langsung ke blackbox_exporter (/probe?module=..&target=..), tanpa lewat Prometheus.
+ * Dari output probe hanya probe_success yang di-parse.
+ */
+@Component
+public class BlackboxProbeClient {
+
+    private static final Set<String> FAMILIES = Set.of("probe_success");
+    // header yang sama dengan scrape Prometheus; tanpa ini blackbox_exporter memakai timeout modul (default ~120 s)
+    private static final String SCRAPE_TIMEOUT_HEADER = "X-Prometheus-Scrape-Timeout-Seconds";
+    // sisa waktu read timeout supaya jawaban probe gagal (probe_success 0) masih sempat terbaca
+    private static final long TIMEOUT_MARGIN_MILLIS = 1_000;
+
+    private final RestClient http;
+    private final String scrapeTimeout;
+
+    public BlackboxProbeClient(RestClient.Builder builder, HttpTransport transport, HttpTransportProps httpProps) {
+        this.http = transport.configure(builder, httpProps.getBlackbox()).build();
+        long millis = Math.max(1_000, httpProps.getBlackbox().getReadTimeoutMillis() - TIMEOUT_MARGIN_MILLIS);
+        this.scrapeTimeout = String.format(Locale.ROOT, "%.3f", millis / 1000.0);
+    }
+
+    /**
+     * @return true kalau probe_success == 1
+     * @throws RestClientException kalau blackbox_exporter error / output tanpa probe_success
+     */
+    public boolean probe(String baseUrl, String module, String target) {
+        String url = baseUrl.endsWith("/") ? baseUrl + "probe" : baseUrl + "/probe";
+        URI uri = UriComponentsBuilder.fromUriString(url)
+                .queryParam("module", module)
+                .queryParam("target", target)
+                .build().encode().toUri();
+        Boolean success = http.get().uri(uri)
+                .header(SCRAPE_TIMEOUT_HEADER, scrapeTimeout)
+                .exchange((req, resp) -> {
+                    if (resp.getStatusCode().isError()) {
+                        throw new RestClientException("blackbox_exporter " + uri + " -> HTTP " + resp.getStatusCode().value());
+                    }
+                    double[] value = {Double.NaN};
+                    try (InputStream body = resp.getBody()) {
+                        TextFormatParser.parse(body, FAMILIES, (name, labels, v) -> value[0] = v);
+                    }
+                    return Double.isNaN(value[0]) ? null : value[0] == 1.0;
+                });
+        if (success == null) throw new RestClientException("blackbox_exporter " + uri + " -> tanpa probe_success");
+        return success;
+    }
+}
@@ -0,0 +1,172 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Pool Inflater + buffer untuk dekompresi gzip (RFC 1952) langsung dari response stream.
+ * Beda dengan GZIPInputStream: Inflater, CRC32 dan buffer input dipakai ulang antar scrape.
+ */
+final class GzipInflaterPool {
+
+    private static final int IN_BUFFER = 8192;
+
+    private static final int FHCRC = 2;
+    private static final int FEXTRA = 4;
+    private static final int FNAME = 8;
+    private static final int FCOMMENT = 16;
+
+    private final BlockingQueue<Slot> idle;
+
+    GzipInflaterPool(int maxIdle) {
+        this.idle = new ArrayBlockingQueue<>(Math.max(1, maxIdle));
+    }
+
+    /**
+     * Bungkus stream gzip mentah. Header dibaca saat ini juga; close() mengembalikan slot ke pool.
+     */
+    InputStream wrap(InputStream raw) throws IOException {
+        Slot slot = idle.poll();
+        if (slot == null) slot = new Slot();
+        PooledGzipInputStream s = new PooledGzipInputStream(raw, slot);
+        try {
+            s.readHeader();
+        } catch (IOException | RuntimeException e) {
+            s.close();
+            throw e;
+        }
+        return s;
+    }
+
+    private void release(Slot slot) {
+        slot.inflater.reset();
+        slot.crc.reset();
+        if (!idle.offer(slot)) slot.inflater.end();
+    }
+
+    private static final class Slot {
+        final Inflater inflater = new Inflater(true); // raw deflate, header gzip kita parse sendiri
+        final CRC32 crc = new CRC32();
+        final byte[] in = new byte[IN_BUFFER];
+        final byte[] single = new byte[1];
+    }
+
+    private final class PooledGzipInputStream extends InputStream {
+        private final InputStream raw;
+        private Slot slot;
+        private int inPos;
+        private int inLen;
+        private long written;
+        private boolean eof;
+
+        PooledGzipInputStream(InputStream raw, Slot slot) {
+            this.raw = raw;
+            this.slot = slot;
+        }
+
+        private int readUByte() throws IOException {
+            if (inPos >= inLen) {
+                inLen = raw.read(slot.in, 0, slot.in.length);
+                inPos = 0;
+                if (inLen <= 0) {
+                    inLen = 0;
+                    throw new EOFException("Unexpected end of gzip stream");
+                }
+            }
+            return slot.in[inPos++] & 0xFF;
+        }
+
+        private int readUShort() throws IOException {
+            return readUByte() | (readUByte() << 8);
+        }
+
+        private long readUInt() throws IOException {
+            return (long) readUShort() | ((long) readUShort() << 16);
+        }
+
+        void readHeader() throws IOException {
+            if (readUShort() != 0x8b1f) throw new ZipException("Not in GZIP format");
+            if (readUByte() != 8) throw new ZipException("Unsupported compression method");
+            int flg = readUByte();
+            for (int i = 0; i < 6; i++) readUByte(); // MTIME, XFL, OS
+            if ((flg & FEXTRA) != 0) {
+                int xlen = readUShort();
+                for (int i = 0; i < xlen; i++) readUByte();
+            }
+            if ((flg & FNAME) != 0) {
+                while (readUByte() != 0) ;
+            }
+            if ((flg & FCOMMENT) != 0) {
+                while (readUByte() != 0) ;
+            }
+            if ((flg & FHCRC) != 0) readUShort();
+            // sisa buffer setelah header = awal data deflate
+            slot.inflater.setInput(slot.in, inPos, inLen - inPos);
+        }
+
+        @Override
+        public int read() throws IOException {
+            return read(slot.single, 0, 1) == -1 ? -1 : slot.single[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (slot == null) throw new IOException("Stream closed");
+            if (eof) return -1;
+            if (len == 0) return 0;
+            Inflater inf = slot.inflater;
+            while (true) {
+                int n;
+                try {
+                    n = inf.inflate(b, off, len);
+                } catch (DataFormatException e) {
+                    throw new ZipException(e.getMessage() != null ? e.getMessage() : "Invalid deflate data");
+                }
+                if (n > 0) {
+                    slot.crc.update(b, off, n);
+                    written += n;
+                    return n;
+                }
+                if (inf.finished()) {
+                    readTrailer();
+                    eof = true;
+                    return -1;
+                }
+                if (inf.needsDictionary()) throw new ZipException("Unexpected preset dictionary");
+                if (inf.needsInput()) {
+                    inLen = raw.read(slot.in, 0, slot.in.length);
+                    inPos = 0;
+                    if (inLen <= 0) {
+                        inLen = 0;
+                        throw new EOFException("Unexpected end of gzip stream");
+                    }
+                    inf.setInput(slot.in, 0, inLen);
+                }
+            }
+        }
+
+        private void readTrailer() throws IOException {
+            inPos = inLen - slot.inflater.getRemaining();
+            long crc = readUInt();
+            long isize = readUInt();
+            if (crc != slot.crc.getValue()) throw new ZipException("Corrupt GZIP trailer (CRC)");
+            if (isize != (written & 0xFFFFFFFFL)) throw new ZipException("Corrupt GZIP trailer (size)");
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (slot == null) return;
+            Slot s = slot;
+            slot = null;
+            release(s);
+            raw.close();
+        }
+    }
+}
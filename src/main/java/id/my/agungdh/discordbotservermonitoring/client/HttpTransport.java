@@ -0,0 +1,271 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.HttpHostStatsDTO;
+import id.my.agungdh.discordbotservermonitoring.config.HttpTransportProps;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Satu HttpClient JDK untuk semua request keluar: connection pool + keep-alive per host,
+ * HTTP/2 kalau server mendukung, read timeout per target, batas in-flight per host, dan statistik per host.
+ * <p>
+ * Lama idle connection di pool diatur JVM-wide lewat flag startup
+ * {@code -Djdk.httpclient.keepalive.timeout=<detik>} (default JDK 30 s), bukan dari sini.
+ */
+@Component
+public class HttpTransport {
+
+    private final HttpTransportProps props;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final HttpClient client;
+    private final Map<String, Host> hosts = new ConcurrentHashMap<>();
+
+    public HttpTransport(HttpTransportProps props) {
+        this.props = props;
+        this.client = HttpClient.newBuilder()
+                .version(props.isHttp2() ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(props.getConnectTimeoutMillis()))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .executor(executor)
+                .build();
+    }
+
+    private static String hostKey(URI uri) {
+        int port = uri.getPort();
+        if (port < 0) port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        return uri.getHost() + ":" + port;
+    }
+
+    /**
+     * HttpClient bersama (untuk pemakai java.net.http langsung, mis. WAHA).
+     */
+    public HttpClient client() {
+        return client;
+    }
+
+    /**
+     * Pasang transport bersama ke RestClient.Builder: request factory JDK dengan read timeout target
+     * + interceptor batas in-flight & statistik per host.
+     */
+    public RestClient.Builder configure(RestClient.Builder builder, HttpTransportProps.Target target) {
+        return configure(builder, target, 0);
+    }
+
+    /**
+     * @param minInFlight batas in-flight host minimal (mis. total slot bulkhead Prometheus), kecuali tanpa batas
+     */
+    public RestClient.Builder configure(RestClient.Builder builder, HttpTransportProps.Target target, int minInFlight) {
+        JdkClientHttpRequestFactory factory = new JdkClientHttpRequestFactory(client, executor);
+        factory.setReadTimeout(Duration.ofMillis(target.getReadTimeoutMillis()));
+        int max = target.getMaxInFlightPerHost() != null ? target.getMaxInFlightPerHost() : props.getMaxInFlightPerHost();
+        int cap = max <= 0 ? 0 : Math.max(max, minInFlight);
+        return builder
+                .requestFactory(factory)
+                .requestInterceptor((request, body, execution) -> intercept(request, body, execution, cap));
+    }
+
+    private ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                         ClientHttpRequestExecution execution, int cap) throws IOException {
+        Host h = host(request.getURI(), cap);
+        boolean holdsSlot = h.acquire(props.getAcquireTimeoutMillis());
+        Ticket t = new Ticket(h, holdsSlot, System.nanoTime());
+        try {
+            ClientHttpResponse resp = execution.execute(request, body);
+            // slot dilepas saat body ditutup (respons streaming tetap terhitung in-flight)
+            return new TrackedResponse(resp, t);
+        } catch (IOException | RuntimeException e) {
+            t.end(-1, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Catat request yang tidak lewat RestClient (async, tanpa menunggu slot).
+     */
+    public Ticket begin(URI uri) {
+        Host h = host(uri, props.getMaxInFlightPerHost());
+        h.enter();
+        return new Ticket(h, false, System.nanoTime());
+    }
+
+    // batas dari pemakai pertama host tsb (satu host = satu target di konfigurasi ini)
+    private Host host(URI uri, int cap) {
+        return hosts.computeIfAbsent(hostKey(uri), k -> new Host(k, cap));
+    }
+
+    /**
+     * Statistik per host (untuk endpoint diagnostics).
+     */
+    public Map<String, HttpHostStatsDTO> stats() {
+        Map<String, HttpHostStatsDTO> out = new TreeMap<>();
+        for (Host h : hosts.values()) out.put(h.key, h.snapshot());
+        return out;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Satu request yang sedang jalan; end() idempotent.
+     */
+    public static final class Ticket {
+        private final Host host;
+        private final boolean holdsSlot;
+        private final long startNanos;
+        private final AtomicBoolean done = new AtomicBoolean();
+
+        private Ticket(Host host, boolean holdsSlot, long startNanos) {
+            this.host = host;
+            this.holdsSlot = holdsSlot;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * @param status kode HTTP, -1 kalau gagal sebelum ada respons
+         */
+        public void end(int status, Throwable error) {
+            if (!done.compareAndSet(false, true)) return;
+            host.exit(holdsSlot, System.nanoTime() - startNanos, status, error);
+        }
+    }
+
+    private static final class Host {
+        final String key;
+        final int maxInFlight;
+        final Semaphore slots;
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger peakInFlight = new AtomicInteger();
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final AtomicLong waited = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong totalNanos = new AtomicLong();
+        volatile String lastError;
+
+        // maxInFlight <= 0 → tanpa batas (hanya statistik)
+        Host(String key, int maxInFlight) {
+            this.key = key;
+            this.maxInFlight = Math.max(0, maxInFlight);
+            this.slots = this.maxInFlight == 0 ? null : new Semaphore(this.maxInFlight);
+        }
+
+        /**
+         * @return true kalau slot diambil (harus dilepas di exit)
+         */
+        boolean acquire(long timeoutMillis) throws IOException {
+            if (slots == null) {
+                enter();
+                return false;
+            }
+            if (!slots.tryAcquire()) {
+                waited.incrementAndGet();
+                boolean ok;
+                try {
+                    ok = slots.tryAcquire(timeoutMillis, TimeUnit.MILLISECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("interrupted menunggu slot " + key, e);
+                }
+                if (!ok) {
+                    rejected.incrementAndGet();
+                    throw new IOException(key + ": " + maxInFlight + " request in-flight, slot tidak tersedia");
+                }
+            }
+            enter();
+            return true;
+        }
+
+        void enter() {
+            int now = inFlight.incrementAndGet();
+            peakInFlight.accumulateAndGet(now, Math::max);
+        }
+
+        // dipanggil sekali per request
+        void exit(boolean holdsSlot, long nanos, int status, Throwable error) {
+            inFlight.decrementAndGet();
+            if (holdsSlot) slots.release();
+            requests.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            if (error != null || status >= 500) {
+                errors.incrementAndGet();
+                lastError = error != null ? error.getMessage() : "HTTP " + status;
+            }
+        }
+
+        HttpHostStatsDTO snapshot() {
+            long n = requests.get();
+            double avg = n == 0 ? 0 : Math.round(totalNanos.get() / (double) n / 10_000.0) / 100.0;
+            return new HttpHostStatsDTO(key, n, errors.get(), inFlight.get(), peakInFlight.get(), maxInFlight,
+                    waited.get(), rejected.get(), avg, lastError);
+        }
+    }
+
+    private static final class TrackedResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Ticket ticket;
+
+        TrackedResponse(ClientHttpResponse delegate, Ticket ticket) {
+            this.delegate = delegate;
+            this.ticket = ticket;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            int status = -1;
+            try {
+                status = delegate.getStatusCode().value();
+            } catch (IOException ignored) {
+            }
+            try {
+                delegate.close();
+            } finally {
+                ticket.end(status, null);
+            }
+        }
+    }
+}
@@ -1,91 +1,96 @@
-// client/NodeExporterClient.java
 package id.my.agungdh.discordbotservermonitoring.client;
 
-import org.springframework.http.ResponseEntity;
+import id.my.agungdh.discordbotservermonitoring.config.HttpTransportProps;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.util.UriComponentsBuilder;
 
+import java.io.InputStream;
+import java.net.URI;
 import java.util.ArrayList;
-import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.Set;
 
 @Component
 public class NodeExporterClient {
 
-    // ---- parser Prometheus text exposition (minimal & cepat) ----
-    private static final Pattern LINE = Pattern.compile(
-            "^([a-zA-Z_:][a-zA-Z0-9_:]*)(\\{([^}]*)})?\\s+([-+]?[0-9]*\\.?[0-9]+([eE][-+]?[0-9]+)?)"
-    );
     private final RestClient http;
+    // Inflater + buffer dipakai ulang antar scrape (payload gzip dari node_exporter)
+    private final GzipInflaterPool gzipPool = new GzipInflaterPool(16);
 
-    public NodeExporterClient(RestClient.Builder builder) {
-        this.http = builder.build();
+    public NodeExporterClient(RestClient.Builder builder, HttpTransport transport, HttpTransportProps httpProps) {
+        this.http = transport.configure(builder, httpProps.getNodeExporter()).build();
     }
 
-    private static List<Sample> parseTextFormat(String text) {
-        List<Sample> out = new ArrayList<>(2048);
-        for (String raw : text.split("\\r?\\n")) {
-            if (raw.isEmpty() || raw.charAt(0) == '#') continue;
-            Matcher m = LINE.matcher(raw);
-            if (!m.find()) continue;
-            String name = m.group(1);
-            String lbls = m.group(3);
-            String valStr = m.group(4);
-            double value;
-            try {
-                value = Double.parseDouble(valStr);
-            } catch (Exception e) {
-                continue;
+    /**
+     * URL /metrics, plus collect[]=... kalau collector dipilih (filter sisi node_exporter).
+     */
+    private static URI metricsUri(String baseUrl, List<String> collectors) {
+        String url = baseUrl.endsWith("/") ? baseUrl + "metrics" : baseUrl + "/metrics";
+        UriComponentsBuilder b = UriComponentsBuilder.fromUriString(url);
+        if (collectors != null) {
+            for (String c : collectors) {
+                if (c != null && !c.isBlank()) b.queryParam("collect[]", c.trim());
             }
-            Map<String, String> labels = (lbls == null) ? Map.of() : parseLabels(lbls);
-            out.add(new Sample(name, labels, value));
         }
+        return b.build().encode().toUri();
+    }
+
+    public List<Sample> scrape(String baseUrl) {
+        return scrape(baseUrl, (Set<String>) null);
+    }
+
+    /**
+     * Scrape selektif: hanya family di {@code families} yang di-parse (null = semua).
+     */
+    public List<Sample> scrape(String baseUrl, Set<String> families) {
+        return scrape(baseUrl, List.of(), families);
+    }
+
+    /**
+     * Scrape dengan pilihan collector (collect[]) + allow-list family.
+     */
+    public List<Sample> scrape(String baseUrl, List<String> collectors, Set<String> families) {
+        List<Sample> out = new ArrayList<>(families == null ? 2048 : 256);
+        scrape(baseUrl, collectors, families, (name, labels, value) -> out.add(new Sample(name, labels, value)));
         return out;
     }
 
-    private static Map<String, String> parseLabels(String s) {
-        Map<String, String> map = new LinkedHashMap<>();
-        int i = 0, n = s.length();
-        while (i < n) {
-            int startKey = i;
-            while (i < n && s.charAt(i) != '=') i++;
-            if (i >= n) break;
-            String key = s.substring(startKey, i).trim();
-            i++; // '='
-            if (i >= n || s.charAt(i) != '"') break;
-            i++; // opening "
-            StringBuilder val = new StringBuilder();
-            while (i < n) {
-                char c = s.charAt(i++);
-                if (c == '\\' && i < n) {
-                    char esc = s.charAt(i++);
-                    val.append(switch (esc) {
-                        case 'n' -> '\n';
-                        case 't' -> '\t';
-                        case '\\' -> '\\';
-                        case '"' -> '"';
-                        default -> esc;
-                    });
-                } else if (c == '"') break;
-                else val.append(c);
-            }
-            map.put(key, val.toString());
-            while (i < n && s.charAt(i) == ' ') i++;
-            if (i < n && s.charAt(i) == ',') i++;
-            while (i < n && s.charAt(i) == ' ') i++;
-        }
-        return map;
+    /**
+     * Scrape ke bentuk columnar (ScrapeFrame) — string di-intern, nilai di double[].
+     */
+    public ScrapeFrame scrapeFrame(String baseUrl, List<String> collectors, Set<String> families) {
+        ScrapeFrame.Builder b = ScrapeFrame.builder();
+        scrape(baseUrl, collectors, families, b);
+        return b.build();
     }
 
-    public List<Sample> scrape(String baseUrl) {
-        String url = baseUrl.endsWith("/") ? baseUrl + "metrics" : baseUrl + "/metrics";
-        ResponseEntity<String> resp = http.get().uri(url).retrieve().toEntity(String.class);
-        String body = resp.getBody();
-        if (body == null || body.isBlank()) return List.of();
-        return parseTextFormat(body);
+    /**
+     * Scrape streaming: body langsung di-parse dari InputStream, sample dikirim ke sink satu per satu.
+     */
+    public void scrape(String baseUrl, TextFormatParser.SampleSink sink) {
+        scrape(baseUrl, List.of(), null, sink);
+    }
+
+    public void scrape(String baseUrl, List<String> collectors, Set<String> families,
+                       TextFormatParser.SampleSink sink) {
+        URI url = metricsUri(baseUrl, collectors);
+        http.get().uri(url)
+                .header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+                .exchange((req, resp) -> {
+                    if (resp.getStatusCode().isError()) {
+                        throw new RestClientException("node_exporter " + url + " -> HTTP " + resp.getStatusCode().value());
+                    }
+                    // request factory tidak selalu decompress otomatis → cek Content-Encoding sendiri
+                    boolean gzip = "gzip".equalsIgnoreCase(resp.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+                    try (InputStream body = gzip ? gzipPool.wrap(resp.getBody()) : resp.getBody()) {
+                        TextFormatParser.parse(body, families, sink);
+                    }
+                    return null;
+                });
     }
 
     public record Sample(String name, Map<String, String> labels, double value) {
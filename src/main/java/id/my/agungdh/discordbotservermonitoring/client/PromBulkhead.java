@@ -0,0 +1,111 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.PromLaneStatsDTO;
+import id.my.agungdh.discordbotservermonitoring.config.PrometheusBulkheadProps;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead per lane: tiap lane punya semaphore (fair → antre FIFO) sendiri, jadi query user
+ * sebanyak apa pun tidak bisa memakai slot milik lane ALERT.
+ * Satu instance dipakai bersama PrometheusClient dan PromRemoteReadClient (slot per lane berlaku untuk keduanya).
+ */
+@Component
+final class PromBulkhead {
+
+    private final boolean enabled;
+    private final Map<PromLane, Lane> lanes = new EnumMap<>(PromLane.class);
+
+    PromBulkhead(PrometheusBulkheadProps props) {
+        this.enabled = props.isEnabled();
+        lanes.put(PromLane.ALERT, new Lane(props.getAlert()));
+        lanes.put(PromLane.INTERACTIVE, new Lane(props.getInteractive()));
+        lanes.put(PromLane.REST, new Lane(props.getRest()));
+    }
+
+    // total slot semua lane; 0 kalau bulkhead mati
+    int totalSlots() {
+        if (!enabled) return 0;
+        int n = 0;
+        for (Lane l : lanes.values()) n += l.max;
+        return n;
+    }
+
+    <T> T call(Supplier<T> task) {
+        if (!enabled) return task.get();
+        PromLane lane = PromLane.current();
+        Lane l = lanes.get(lane);
+        l.acquire(lane);
+        try {
+            return task.get();
+        } finally {
+            l.permits.release();
+        }
+    }
+
+    Map<String, PromLaneStatsDTO> stats() {
+        Map<String, PromLaneStatsDTO> out = new LinkedHashMap<>();
+        lanes.forEach((lane, l) -> {
+            long n = l.acquired.get();
+            out.put(lane.name(), new PromLaneStatsDTO(
+                    lane.name(),
+                    l.max,
+                    l.max - l.permits.availablePermits(),
+                    l.waiting.get(),
+                    n,
+                    l.rejected.get(),
+                    n == 0 ? 0 : Math.round(l.waitNanos.get() / (double) n / 1_000.0) / 1_000.0,
+                    Math.round(l.maxWaitNanos.get() / 1_000.0) / 1_000.0
+            ));
+        });
+        return out;
+    }
+
+    private static final class Lane {
+        final int max;
+        final long maxWaitMillis;
+        final Semaphore permits;
+        final AtomicInteger waiting = new AtomicInteger();
+        final AtomicLong acquired = new AtomicLong();
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong waitNanos = new AtomicLong();
+        final AtomicLong maxWaitNanos = new AtomicLong();
+
+        Lane(PrometheusBulkheadProps.Lane cfg) {
+            this.max = Math.max(1, cfg.getMaxConcurrent());
+            this.maxWaitMillis = cfg.getMaxWaitMillis();
+            this.permits = new Semaphore(max, true);
+        }
+
+        void acquire(PromLane lane) {
+            long t0 = System.nanoTime();
+            boolean ok;
+            waiting.incrementAndGet();
+            try {
+                ok = permits.tryAcquire(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RestClientException("Antre slot Prometheus lane " + lane + " di-interrupt");
+            } finally {
+                waiting.decrementAndGet();
+            }
+            if (!ok) {
+                rejected.incrementAndGet();
+                throw new RestClientException("Slot Prometheus lane " + lane + " penuh (> " + maxWaitMillis + " ms antre)");
+            }
+            long waited = System.nanoTime() - t0;
+            acquired.incrementAndGet();
+            waitNanos.addAndGet(waited);
+            maxWaitNanos.accumulateAndGet(waited, Math::max);
+        }
+    }
+}
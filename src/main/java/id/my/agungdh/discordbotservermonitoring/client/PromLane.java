@@ -0,0 +1,39 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import java.util.function.Supplier;
+
+/**
+ * Lane prioritas query Prometheus. Pemanggil menandai thread-nya lewat {@link #call(Supplier)};
+ * PrometheusClient memilih bulkhead sesuai lane. Thread tanpa tanda (REST, job background) = REST.
+ */
+public enum PromLane {
+    ALERT, INTERACTIVE, REST;
+
+    private static final ThreadLocal<PromLane> CURRENT = new ThreadLocal<>();
+
+    public static PromLane current() {
+        PromLane lane = CURRENT.get();
+        return lane == null ? REST : lane;
+    }
+
+    /**
+     * Jalankan {@code task} di thread ini dengan lane ini (lane sebelumnya dipulihkan setelahnya).
+     */
+    public <T> T call(Supplier<T> task) {
+        PromLane prev = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return task.get();
+        } finally {
+            if (prev == null) CURRENT.remove();
+            else CURRENT.set(prev);
+        }
+    }
+
+    public void run(Runnable task) {
+        call(() -> {
+            task.run();
+            return null;
+        });
+    }
+}
@@ -0,0 +1,161 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.springframework.web.client.RestClientException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+/**
+ * Decoder streaming response /api/v1/query_range (matrix) pakai JsonParser Jackson.
+ * Sample ditulis langsung ke {@code long[]} (epoch ms) + {@code double[]} per series — tanpa List&lt;Object&gt;,
+ * tanpa boxing. Series yang tidak lolos {@code keep} di-skip tanpa dimaterialisasi
+ * (kalau "values" datang sebelum "metric", sample terpaksa di-buffer dulu lalu dibuang).
+ */
+final class PromMatrixDecoder {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private PromMatrixDecoder() {
+    }
+
+    static List<PrometheusClient.Series> decode(InputStream in,
+                                                Predicate<Map<String, String>> keep) throws IOException {
+        List<PrometheusClient.Series> out = new ArrayList<>();
+        String status = null;
+        String error = null;
+        try (JsonParser p = JSON.createParser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) throw new IOException("response Prometheus bukan object JSON");
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                p.nextToken();
+                switch (field) {
+                    case "status" -> status = p.getText();
+                    case "error" -> error = p.getText();
+                    case "data" -> readData(p, keep, out);
+                    default -> p.skipChildren();
+                }
+            }
+        }
+        if (status != null && !"success".equals(status)) {
+            throw new RestClientException("Prometheus query_range: " + status + (error == null ? "" : " — " + error));
+        }
+        return out;
+    }
+
+    private static void readData(JsonParser p, Predicate<Map<String, String>> keep,
+                                 List<PrometheusClient.Series> out) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return;
+        }
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("result".equals(field) && p.currentToken() == JsonToken.START_ARRAY) {
+                while (p.nextToken() == JsonToken.START_OBJECT) {
+                    PrometheusClient.Series s = readSeries(p, keep);
+                    if (s != null) out.add(s);
+                }
+            } else {
+                p.skipChildren();
+            }
+        }
+    }
+
+    // parser di START_OBJECT satu series; null kalau tidak lolos filter
+    private static PrometheusClient.Series readSeries(JsonParser p, Predicate<Map<String, String>> keep)
+            throws IOException {
+        Map<String, String> metric = null;
+        Boolean kept = null; // null = metric belum terbaca
+        SampleBuffer samples = null;
+
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String field = p.currentName();
+            p.nextToken();
+            if ("metric".equals(field)) {
+                metric = readLabels(p);
+                kept = keep.test(metric);
+                if (!kept) samples = null; // buffer dari "values" yang datang duluan dibuang
+            } else if ("values".equals(field) && !Boolean.FALSE.equals(kept)) {
+                samples = readValues(p);
+            } else {
+                p.skipChildren();
+            }
+        }
+        if (metric == null) {
+            metric = Map.of();
+            kept = keep.test(metric);
+        }
+        if (!kept) return null;
+        if (samples == null) samples = new SampleBuffer(0);
+        return new PrometheusClient.Series(metric, samples.timestamps(), samples.values());
+    }
+
+    private static Map<String, String> readLabels(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            p.skipChildren();
+            return Map.of();
+        }
+        Map<String, String> labels = new HashMap<>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String k = p.currentName();
+            p.nextToken();
+            labels.put(k, p.getText());
+        }
+        return labels;
+    }
+
+    // "values": [[ts, "v"], ...]
+    private static SampleBuffer readValues(JsonParser p) throws IOException {
+        SampleBuffer s = new SampleBuffer(64);
+        if (p.currentToken() != JsonToken.START_ARRAY) {
+            p.skipChildren();
+            return s;
+        }
+        while (p.nextToken() == JsonToken.START_ARRAY) {
+            if (p.nextToken() == JsonToken.END_ARRAY) continue;
+            long tsMillis = readTimestampMillis(p);
+            if (p.nextToken() == JsonToken.END_ARRAY) continue;
+            double v = readValue(p);
+            s.add(tsMillis, v);
+            // abaikan elemen tambahan (tidak ada di format resmi)
+            while (p.nextToken() != JsonToken.END_ARRAY) p.skipChildren();
+        }
+        return s;
+    }
+
+    private static long readTimestampMillis(JsonParser p) throws IOException {
+        return switch (p.currentToken()) {
+            case VALUE_NUMBER_INT -> p.getLongValue() * 1000L;
+            case VALUE_NUMBER_FLOAT -> Math.round(p.getDoubleValue() * 1000.0);
+            default -> Math.round(Double.parseDouble(p.getText()) * 1000.0);
+        };
+    }
+
+    private static double readValue(JsonParser p) throws IOException {
+        if (p.currentToken() != JsonToken.VALUE_STRING) return p.getDoubleValue();
+        // fast path "0"/"1" (probe_success, up, dst.) tanpa bikin String
+        if (p.getTextLength() == 1) {
+            char c = p.getTextCharacters()[p.getTextOffset()];
+            if (c >= '0' && c <= '9') return c - '0';
+        }
+        return parseValue(p.getText());
+    }
+
+    // format Prometheus: "NaN", "+Inf", "-Inf" (Double.parseDouble tidak kenal "Inf")
+    static double parseValue(String s) {
+        return switch (s) {
+            case "+Inf", "Inf" -> Double.POSITIVE_INFINITY;
+            case "-Inf" -> Double.NEGATIVE_INFINITY;
+            default -> Double.parseDouble(s);
+        };
+    }
+}
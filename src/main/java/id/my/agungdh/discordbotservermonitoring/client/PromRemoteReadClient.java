@@ -0,0 +1,104 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import id.my.agungdh.discordbotservermonitoring.config.HttpTransportProps;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Client remote-read Prometheus (/api/v1/read): request protobuf ter-snappy, response STREAMED_XOR_CHUNKS
+ * (chunk XOR per frame, di-decode sambil streaming) atau SAMPLES untuk Prometheus yang belum mendukung streaming.
+ * Untuk tarikan sample mentah massal (probe_success, probe_duration_seconds) — jauh lebih hemat CPU & memori
+ * daripada JSON query_range, di sisi bot maupun Prometheus.
+ */
+@Component
+public class PromRemoteReadClient {
+
+    private static final MediaType PROTOBUF = MediaType.parseMediaType("application/x-protobuf");
+    private static final String STREAMED_CONTENT_TYPE = "application/x-streamed-protobuf";
+
+    private final RestClient http;
+    // bulkhead yang sama dengan PrometheusClient → remote read ikut antre di lane pemanggil (PromLane)
+    private final PromBulkhead bulkhead;
+
+    public PromRemoteReadClient(
+            @Value("${prometheus.baseUrl}") String baseUrl,
+            RestClient.Builder builder,
+            HttpTransport transport,
+            HttpTransportProps httpProps,
+            PromBulkhead bulkhead
+    ) {
+        this.bulkhead = bulkhead;
+        this.http = transport.configure(builder, httpProps.getPrometheus(), bulkhead.totalSlots())
+                .baseUrl(baseUrl)
+                .build();
+    }
+
+    /**
+     * Sample mentah semua series yang cocok dengan {@code matchers} di [start, end] (inklusif, resolusi ms).
+     * Stale marker tidak ikut. Slot diambil dari lane {@link PromLane#current()}, sama seperti PrometheusClient.
+     */
+    public List<PrometheusClient.Series> read(Instant start, Instant end, List<Matcher> matchers) {
+        long startMs = start.toEpochMilli();
+        long endMs = end.toEpochMilli();
+        byte[] body = Snappy.compress(PromRemoteReadCodec.encodeRequest(startMs, endMs, matchers));
+
+        return bulkhead.call(() -> doRead(body, startMs, endMs));
+    }
+
+    private List<PrometheusClient.Series> doRead(byte[] body, long startMs, long endMs) {
+        return http.post()
+                .uri("/api/v1/read")
+                .contentType(PROTOBUF)
+                .header(HttpHeaders.CONTENT_ENCODING, "snappy")
+                .header("X-Prometheus-Remote-Read-Version", "0.1.0")
+                .header(HttpHeaders.ACCEPT,
+                        STREAMED_CONTENT_TYPE + "; proto=prometheus.ChunkedReadResponse, application/x-protobuf")
+                .body(body)
+                .exchange((req, resp) -> {
+                    try (InputStream in = resp.getBody()) {
+                        if (resp.getStatusCode().isError()) {
+                            // Prometheus kirim pesan error plain text
+                            String msg = new String(in.readNBytes(512), StandardCharsets.UTF_8).trim();
+                            throw new RestClientException("Prometheus remote read -> HTTP "
+                                    + resp.getStatusCode().value() + (msg.isEmpty() ? "" : " — " + msg));
+                        }
+                        String ct = resp.getHeaders().getFirst(HttpHeaders.CONTENT_TYPE);
+                        if (ct != null && ct.startsWith(STREAMED_CONTENT_TYPE)) {
+                            return PromRemoteReadCodec.decodeStream(in, startMs, endMs);
+                        }
+                        return PromRemoteReadCodec.decodeSamples(Snappy.uncompress(in.readAllBytes()), startMs, endMs);
+                    }
+                });
+    }
+
+    /**
+     * Sample mentah probe untuk satu job blackbox, mis. {@code probe("blackbox_ping", "probe_success", ...)}.
+     */
+    public List<PrometheusClient.Series> probe(String job, String metric, Instant start, Instant end) {
+        return read(start, end, List.of(Matcher.eq("__name__", metric), Matcher.eq("job", job)));
+    }
+
+    /**
+     * Label matcher prompb; urutan enum = nilai wire (EQ=0, NEQ=1, RE=2, NRE=3).
+     */
+    public record Matcher(Type type, String name, String value) {
+        public static Matcher eq(String name, String value) {
+            return new Matcher(Type.EQ, name, value);
+        }
+
+        public static Matcher re(String name, String regex) {
+            return new Matcher(Type.RE, name, regex);
+        }
+
+        public enum Type {EQ, NEQ, RE, NRE}
+    }
+}
@@ -0,0 +1,219 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Encode ReadRequest dan decode response remote-read Prometheus (prompb):
+ * <ul>
+ *     <li>STREAMED_XOR_CHUNKS: frame [uvarint panjang][CRC32C BE 4 byte][ChunkedReadResponse], chunk XOR
+ *     di-decode langsung ke array primitif per series</li>
+ *     <li>SAMPLES (fallback, Prometheus lama): ReadResponse ter-snappy sekaligus</li>
+ * </ul>
+ */
+final class PromRemoteReadCodec {
+
+    static final int RESPONSE_SAMPLES = 0, RESPONSE_STREAMED_XOR_CHUNKS = 1;
+    private static final int CHUNK_ENCODING_XOR = 1;
+    // frame Prometheus default ~1 MB; batas ini cuma pengaman dari stream rusak
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private PromRemoteReadCodec() {
+    }
+
+    /**
+     * ReadRequest{queries: [Query{start, end, matchers}], accepted_response_types: [STREAMED_XOR_CHUNKS, SAMPLES]}
+     * (belum di-snappy).
+     */
+    static byte[] encodeRequest(long startMs, long endMs, List<PromRemoteReadClient.Matcher> matchers) {
+        Proto.Writer query = new Proto.Writer()
+                .int64(1, startMs)
+                .int64(2, endMs);
+        for (var m : matchers) {
+            query.message(3, new Proto.Writer()
+                    .int64(1, m.type().ordinal())
+                    .string(2, m.name())
+                    .string(3, m.value()));
+        }
+        // repeated enum → packed
+        byte[] accepted = new Proto.Writer().varint(RESPONSE_STREAMED_XOR_CHUNKS).varint(RESPONSE_SAMPLES).toByteArray();
+        return new Proto.Writer()
+                .message(1, query)
+                .bytes(2, accepted)
+                .toByteArray();
+    }
+
+    // ===== STREAMED_XOR_CHUNKS =====
+
+    static List<PrometheusClient.Series> decodeStream(InputStream in, long startMs, long endMs) throws IOException {
+        // satu series bisa terpecah ke beberapa frame (label diulang) → gabung by label set
+        Map<Map<String, String>, SampleBuffer> series = new LinkedHashMap<>();
+        CRC32C crc = new CRC32C();
+        byte[] crcBytes = new byte[4];
+        byte[] frame = new byte[0];
+        while (true) {
+            long size = readFrameLength(in);
+            if (size < 0) break;
+            if (size > MAX_FRAME_BYTES) throw new IOException("frame remote-read terlalu besar: " + size);
+            readFully(in, crcBytes, 4);
+            int expected = (crcBytes[0] & 0xFF) << 24 | (crcBytes[1] & 0xFF) << 16
+                    | (crcBytes[2] & 0xFF) << 8 | (crcBytes[3] & 0xFF);
+            if (frame.length < size) frame = new byte[(int) size];
+            readFully(in, frame, (int) size);
+            crc.reset();
+            crc.update(frame, 0, (int) size);
+            if ((int) crc.getValue() != expected) throw new IOException("CRC32C frame remote-read tidak cocok");
+            readChunkedResponse(new Proto.Reader(frame, 0, (int) size), startMs, endMs, series);
+        }
+        return toSeries(series);
+    }
+
+    // ChunkedReadResponse{chunked_series=1, query_index=2}
+    private static void readChunkedResponse(Proto.Reader r, long startMs, long endMs,
+                                            Map<Map<String, String>, SampleBuffer> out) throws IOException {
+        for (int tag; (tag = r.nextTag()) != 0; ) {
+            if (tag >>> 3 == 1 && (tag & 7) == Proto.LEN) {
+                readChunkedSeries(r.message(), startMs, endMs, out);
+            } else {
+                r.skip(tag & 7);
+            }
+        }
+    }
+
+    // ChunkedSeries{labels=1, chunks=2}; label selalu sebelum chunk (urutan field protobuf Go)
+    private static void readChunkedSeries(Proto.Reader r, long startMs, long endMs,
+                                          Map<Map<String, String>, SampleBuffer> out) throws IOException {
+        Map<String, String> labels = new LinkedHashMap<>();
+        SampleBuffer buf = null;
+        for (int tag; (tag = r.nextTag()) != 0; ) {
+            int field = tag >>> 3;
+            if (field == 1 && (tag & 7) == Proto.LEN) {
+                readLabel(r.message(), labels);
+            } else if (field == 2 && (tag & 7) == Proto.LEN) {
+                if (buf == null) buf = out.computeIfAbsent(Map.copyOf(labels), k -> new SampleBuffer(256));
+                readChunk(r.message(), startMs, endMs, buf);
+            } else {
+                r.skip(tag & 7);
+            }
+        }
+        if (buf == null) out.computeIfAbsent(Map.copyOf(labels), k -> new SampleBuffer(0));
+    }
+
+    // Chunk{min_time_ms=1, max_time_ms=2, type=3, data=4}
+    private static void readChunk(Proto.Reader r, long startMs, long endMs, SampleBuffer out) throws IOException {
+        long minT = Long.MIN_VALUE, maxT = Long.MAX_VALUE;
+        int type = 0;
+        Proto.Reader data = null;
+        for (int tag; (tag = r.nextTag()) != 0; ) {
+            switch (tag >>> 3) {
+                case 1 -> minT = r.varint();
+                case 2 -> maxT = r.varint();
+                case 3 -> type = (int) r.varint();
+                case 4 -> data = r.message();
+                default -> r.skip(tag & 7);
+            }
+        }
+        // chunk histogram dsb. dilewati; chunk di luar range tidak perlu di-decode
+        if (data == null || type != CHUNK_ENCODING_XOR || maxT < startMs || minT > endMs) return;
+        XorChunkDecoder.decode(data.buffer(), data.position(), data.remaining(), startMs, endMs, out);
+    }
+
+    // ===== SAMPLES =====
+
+    /**
+     * ReadResponse{results: [QueryResult{timeseries: [TimeSeries{labels, samples}]}]} (sudah di-unsnappy).
+     */
+    static List<PrometheusClient.Series> decodeSamples(byte[] body, long startMs, long endMs) throws IOException {
+        Map<Map<String, String>, SampleBuffer> series = new LinkedHashMap<>();
+        Proto.Reader r = new Proto.Reader(body, 0, body.length);
+        for (int tag; (tag = r.nextTag()) != 0; ) {
+            if (tag >>> 3 != 1 || (tag & 7) != Proto.LEN) {
+                r.skip(tag & 7);
+                continue;
+            }
+            Proto.Reader result = r.message();
+            for (int t; (t = result.nextTag()) != 0; ) {
+                if (t >>> 3 == 1 && (t & 7) == Proto.LEN) readTimeSeries(result.message(), startMs, endMs, series);
+                else result.skip(t & 7);
+            }
+        }
+        return toSeries(series);
+    }
+
+    // TimeSeries{labels=1, samples=2}; Sample{value=1 double, timestamp=2 int64}
+    private static void readTimeSeries(Proto.Reader r, long startMs, long endMs,
+                                       Map<Map<String, String>, SampleBuffer> out) throws IOException {
+        Map<String, String> labels = new LinkedHashMap<>();
+        SampleBuffer buf = new SampleBuffer(64);
+        for (int tag; (tag = r.nextTag()) != 0; ) {
+            int field = tag >>> 3;
+            if (field == 1 && (tag & 7) == Proto.LEN) {
+                readLabel(r.message(), labels);
+            } else if (field == 2 && (tag & 7) == Proto.LEN) {
+                Proto.Reader s = r.message();
+                long vbits = 0, ts = 0;
+                for (int st; (st = s.nextTag()) != 0; ) {
+                    if (st >>> 3 == 1 && (st & 7) == Proto.FIXED64) vbits = s.fixed64();
+                    else if (st >>> 3 == 2 && (st & 7) == Proto.VARINT) ts = s.varint();
+                    else s.skip(st & 7);
+                }
+                if (ts < startMs || ts > endMs || vbits == XorChunkDecoder.STALE_NAN_BITS) continue;
+                buf.add(ts, Double.longBitsToDouble(vbits));
+            } else {
+                r.skip(tag & 7);
+            }
+        }
+        SampleBuffer prev = out.putIfAbsent(Map.copyOf(labels), buf);
+        if (prev != null) {
+            long[] ts = buf.timestamps();
+            double[] vs = buf.values();
+            for (int i = 0; i < ts.length; i++) prev.add(ts[i], vs[i]);
+        }
+    }
+
+    // Label{name=1, value=2}
+    private static void readLabel(Proto.Reader r, Map<String, String> labels) throws IOException {
+        String name = "", value = "";
+        for (int tag; (tag = r.nextTag()) != 0; ) {
+            switch (tag >>> 3) {
+                case 1 -> name = r.string();
+                case 2 -> value = r.string();
+                default -> r.skip(tag & 7);
+            }
+        }
+        labels.put(name, value);
+    }
+
+    private static List<PrometheusClient.Series> toSeries(Map<Map<String, String>, SampleBuffer> series) {
+        List<PrometheusClient.Series> out = new ArrayList<>(series.size());
+        series.forEach((labels, buf) -> out.add(new PrometheusClient.Series(labels, buf.timestamps(), buf.values())));
+        return out;
+    }
+
+    // uvarint panjang frame; -1 kalau stream selesai tepat di batas frame
+    private static long readFrameLength(InputStream in) throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.read();
+            if (b < 0) {
+                if (shift == 0) return -1;
+                throw new EOFException("header frame remote-read terpotong");
+            }
+            v |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) return v;
+        }
+        throw new IOException("header frame remote-read rusak");
+    }
+
+    private static void readFully(InputStream in, byte[] b, int n) throws IOException {
+        int off = 0;
+        while (off < n) {
+            int r = in.read(b, off, n - off);
+            if (r < 0) throw new EOFException("frame remote-read terpotong");
+            off += r;
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package id.my.agungdh.discordbotservermonitoring.client;
 
+import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.PromLaneStatsDTO;
+import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.PromQueryStatsDTO;
+import id.my.agungdh.discordbotservermonitoring.config.HttpTransportProps;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Component;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Prometheus client sederhana untuk instant query dan range query.
@@ -18,14 +25,26 @@ import java.util.*;
 @Component
 public class PrometheusClient {
 
+    // filter "semua series" — konstanta supaya key single-flight rangeQueryAll sama antar pemanggil
+    private static final Predicate<Map<String, String>> ALL_SERIES = metric -> true;
+
     private final RestClient http;
+    // request identik yang sedang jalan berbagi satu HTTP call + satu hasil parse
+    private final SingleFlight<FlightKey, Object> flights = new SingleFlight<>();
+    // slot per lane (PromLane) — diambil SEBELUM single-flight, jadi flight yang ada di map selalu sudah jalan
+    // dan query ALERT yang numpang tidak ikut antre di lane lain
+    private final PromBulkhead bulkhead;
 
     public PrometheusClient(
             @Value("${prometheus.baseUrl}") String baseUrl,
-            RestClient.Builder builder
+            RestClient.Builder builder,
+            HttpTransport transport,
+            HttpTransportProps httpProps,
+            PromBulkhead bulkhead
     ) {
+        this.bulkhead = bulkhead;
         // baseUrl contoh: http://localhost:9090
-        this.http = builder
+        this.http = transport.configure(builder, httpProps.getPrometheus(), bulkhead.totalSlots())
                 .baseUrl(baseUrl)
                 .build();
     }
@@ -34,6 +53,14 @@ public class PrometheusClient {
      * Instant query (vector) — sudah dari kamu
      */
     public List<ResultPoint> instantQuery(String promql) {
+        @SuppressWarnings("unchecked")
+        List<ResultPoint> out = (List<ResultPoint>) bulkhead.call(() -> flights.run(
+                new FlightKey("query", normalize(promql), List.of(), null),
+                () -> doInstantQuery(promql)));
+        return out;
+    }
+
+    private List<ResultPoint> doInstantQuery(String promql) {
         var form = new LinkedMultiValueMap<String, String>();
         form.add("query", promql);
 
@@ -59,7 +86,7 @@ public class PrometheusClient {
             String alias = Objects.toString(metric.getOrDefault("alias", ""));
             out.add(new ResultPoint(instance, alias, v));
         }
-        return out;
+        return List.copyOf(out); // bisa dibagi antar pemanggil → immutable
     }
 
     /**
@@ -71,44 +98,139 @@ public class PrometheusClient {
                                        Duration step,
                                        String targetInstance,
                                        String targetAlias) {
+        // pilih time series yang match persis instance + alias; series lain di-skip saat decode
+        String wantAlias = Objects.toString(targetAlias, "");
+        List<Series> match = rangeQuerySeries(promql, start, end, step,
+                new TargetMatch(Objects.toString(targetInstance, ""), wantAlias));
+        return match.isEmpty() ? List.of() : match.get(0).points();
+    }
+
+    /**
+     * Range query semua series sekaligus, di-key label set-nya (urutan sesuai response Prometheus).
+     * Dipakai kalau butuh banyak target dari query yang sama → satu request, bukan satu per target.
+     */
+    public Map<Map<String, String>, Series> rangeQueryAll(String promql,
+                                                          Instant start,
+                                                          Instant end,
+                                                          Duration step) {
+        return rangeQueryAll(promql, start, end, step, ALL_SERIES);
+    }
+
+    public Map<Map<String, String>, Series> rangeQueryAll(String promql,
+                                                          Instant start,
+                                                          Instant end,
+                                                          Duration step,
+                                                          Predicate<Map<String, String>> keep) {
+        Map<Map<String, String>, Series> out = new LinkedHashMap<>();
+        for (Series s : rangeQuerySeries(promql, start, end, step, keep)) {
+            out.putIfAbsent(Map.copyOf(s.metric()), s);
+        }
+        return out;
+    }
+
+    /**
+     * Range query dengan decoder streaming: sample langsung ke array primitif per series,
+     * series yang tidak lolos {@code keep} tidak dimaterialisasi.
+     */
+    public List<Series> rangeQuerySeries(String promql,
+                                         Instant start,
+                                         Instant end,
+                                         Duration step,
+                                         Predicate<Map<String, String>> keep) {
+        // filter ikut key: record (equals by value) bisa dibagi, lambda hanya dengan dirinya sendiri
+        var key = new FlightKey("query_range", normalize(promql),
+                List.of(start.getEpochSecond(), end.getEpochSecond(), step.toSeconds()), keep);
+        @SuppressWarnings("unchecked")
+        List<Series> out = (List<Series>) bulkhead.call(
+                () -> flights.run(key, () -> doRangeQuery(promql, start, end, step, keep)));
+        return out;
+    }
+
+    private List<Series> doRangeQuery(String promql, Instant start, Instant end, Duration step,
+                                      Predicate<Map<String, String>> keep) {
         var form = new LinkedMultiValueMap<String, String>();
         form.add("query", promql);
         form.add("start", Long.toString(start.getEpochSecond()));
         form.add("end", Long.toString(end.getEpochSecond()));
         form.add("step", step.toSeconds() + "s"); // contoh: "60s"
 
-        PrometheusRangeResponse resp = this.http.post()
+        return this.http.post()
                 .uri("/api/v1/query_range")
                 .contentType(MediaType.APPLICATION_FORM_URLENCODED)
                 .body(form)
-                .retrieve()
-                .body(PrometheusRangeResponse.class);
+                .exchange((req, resp) -> {
+                    try (InputStream body = resp.getBody()) {
+                        if (!resp.getStatusCode().isError()) return List.copyOf(PromMatrixDecoder.decode(body, keep));
+                        // error Prometheus (400/422/503) biasanya JSON {"status":"error","error":...} → decoder yang lempar
+                        try {
+                            PromMatrixDecoder.decode(body, keep);
+                        } catch (RestClientException e) {
+                            throw e;
+                        } catch (IOException ignored) {
+                            // bukan JSON (mis. dari proxy)
+                        }
+                        throw new RestClientException("Prometheus query_range -> HTTP " + resp.getStatusCode().value());
+                    }
+                });
+    }
 
-        if (resp == null || resp.data() == null || resp.data().result() == null) {
-            return List.of();
+    /**
+     * Key single-flight: whitespace di luar string literal dirapikan, jadi query yang cuma beda
+     * indentasi/newline dianggap sama (query yang dikirim tetap teks aslinya).
+     */
+    static String normalize(String promql) {
+        StringBuilder sb = new StringBuilder(promql.length());
+        char quote = 0;
+        boolean pendingSpace = false;
+        for (int i = 0; i < promql.length(); i++) {
+            char c = promql.charAt(i);
+            if (quote != 0) {
+                sb.append(c);
+                if (c == '\\' && i + 1 < promql.length()) sb.append(promql.charAt(++i));
+                else if (c == quote) quote = 0;
+                continue;
+            }
+            if (Character.isWhitespace(c)) {
+                pendingSpace = !sb.isEmpty();
+                continue;
+            }
+            if (pendingSpace) sb.append(' ');
+            pendingSpace = false;
+            if (c == '"' || c == '\'' || c == '`') quote = c;
+            sb.append(c);
         }
+        return sb.toString();
+    }
 
-        // pilih time series yang match persis instance + alias
-        Optional<PromResultRange> match = resp.data().result().stream()
-                .filter(rr -> {
-                    String inst = Objects.toString(rr.metric().getOrDefault("instance", ""));
-                    String als = Objects.toString(rr.metric().getOrDefault("alias", ""));
-                    return inst.equals(targetInstance) &&
-                            als.equals(Objects.toString(targetAlias, ""));
-                })
-                .findFirst();
-
-        if (match.isEmpty()) return List.of();
-
-        List<RangePoint> out = new ArrayList<>();
-        for (List<Object> pair : match.get().values()) {
-            // pair: [ ts, "value" ]
-            if (pair == null || pair.size() < 2) continue;
-            long epoch = (long) Double.parseDouble(String.valueOf(pair.get(0)));
-            double v = Double.parseDouble(String.valueOf(pair.get(1)));
-            out.add(new RangePoint(Instant.ofEpochSecond(epoch), v));
+    /**
+     * Statistik single-flight (untuk endpoint diagnostics).
+     */
+    public PromQueryStatsDTO stats() {
+        long req = flights.requests();
+        long calls = flights.executions();
+        long joined = flights.coalesced();
+        return new PromQueryStatsDTO(req, calls, joined, flights.inFlight(),
+                req == 0 ? 0 : Math.round(joined * 10_000.0 / req) / 10_000.0,
+                calls == 0 ? 0 : Math.round(req * 100.0 / calls) / 100.0);
+    }
+
+    /**
+     * Statistik bulkhead per lane: slot terpakai, antrean, waktu tunggu (untuk endpoint diagnostics).
+     */
+    public Map<String, PromLaneStatsDTO> laneStats() {
+        return bulkhead.stats();
+    }
+
+    private record FlightKey(String kind, String query, List<Long> params, Object filter) {
+    }
+
+    // filter instance + alias (value-based equals → rangeQuery target yang sama bisa di-coalesce)
+    private record TargetMatch(String instance, String alias) implements Predicate<Map<String, String>> {
+        @Override
+        public boolean test(Map<String, String> metric) {
+            return Objects.toString(metric.getOrDefault("instance", "")).equals(instance)
+                    && Objects.toString(metric.getOrDefault("alias", "")).equals(alias);
         }
-        return out;
     }
 
     /**
@@ -121,26 +243,34 @@ public class PrometheusClient {
     }
 
     /**
-     * ===== DTO untuk response Prometheus (instant) =====
+     * Satu series matrix: timestamp epoch ms + nilai, indeks sejajar.
      */
-    public record PrometheusQueryResponse(String status, PromData data) {
-    }
-
-    public record PromData(String resultType, List<PromResult> result) {
-    }
+    public record Series(Map<String, String> metric, long[] timestampsMillis, double[] values) {
+        public int size() {
+            return values.length;
+        }
 
-    public record PromResult(Map<String, String> metric, List<Object> value) {
+        /**
+         * Sample sebagai RangePoint (resolusi detik, sama dengan rangeQuery).
+         */
+        public List<RangePoint> points() {
+            List<RangePoint> out = new ArrayList<>(values.length);
+            for (int i = 0; i < values.length; i++) {
+                out.add(new RangePoint(Instant.ofEpochSecond(Math.floorDiv(timestampsMillis[i], 1000L)), values[i]));
+            }
+            return out;
+        }
     }
 
     /**
-     * ===== DTO untuk response Prometheus (range/matrix) =====
+     * ===== DTO untuk response Prometheus (instant) =====
      */
-    public record PrometheusRangeResponse(String status, PromDataRange data) {
+    public record PrometheusQueryResponse(String status, PromData data) {
     }
 
-    public record PromDataRange(String resultType, List<PromResultRange> result) {
+    public record PromData(String resultType, List<PromResult> result) {
     }
 
-    public record PromResultRange(Map<String, String> metric, List<List<Object>> values) {
+    public record PromResult(Map<String, String> metric, List<Object> value) {
     }
 }
@@ -0,0 +1,155 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Encoder/decoder protobuf minimal (wire format saja) untuk pesan remote-read Prometheus.
+ * Cukup varint, fixed64 dan length-delimited — tanpa codegen / dependency protobuf-java.
+ */
+final class Proto {
+
+    static final int VARINT = 0, FIXED64 = 1, LEN = 2, FIXED32 = 5;
+
+    private Proto() {
+    }
+
+    static final class Writer {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        Writer tag(int field, int wireType) {
+            return varint(((long) field << 3) | wireType);
+        }
+
+        Writer varint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                out.write((int) ((v & 0x7F) | 0x80));
+                v >>>= 7;
+            }
+            out.write((int) v);
+            return this;
+        }
+
+        // int64 / enum (negatif → 10 byte, sesuai spesifikasi protobuf)
+        Writer int64(int field, long v) {
+            return tag(field, VARINT).varint(v);
+        }
+
+        Writer fixed64(int field, long bits) {
+            tag(field, FIXED64);
+            for (int i = 0; i < 8; i++) out.write((int) (bits >>> (8 * i)));
+            return this;
+        }
+
+        Writer bytes(int field, byte[] b) {
+            tag(field, LEN).varint(b.length);
+            out.writeBytes(b);
+            return this;
+        }
+
+        Writer string(int field, String s) {
+            return bytes(field, s.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Writer message(int field, Writer msg) {
+            return bytes(field, msg.toByteArray());
+        }
+
+        byte[] toByteArray() {
+            return out.toByteArray();
+        }
+    }
+
+    /**
+     * Reader di atas slice byte[] (tanpa copy); pesan nested dibaca lewat {@link #message()}.
+     */
+    static final class Reader {
+        private final byte[] buf;
+        private int pos;
+        private final int limit;
+
+        Reader(byte[] buf, int offset, int length) {
+            this.buf = buf;
+            this.pos = offset;
+            this.limit = offset + length;
+        }
+
+        /**
+         * Tag berikutnya (field << 3 | wireType), atau 0 kalau pesan habis.
+         */
+        int nextTag() throws IOException {
+            return pos >= limit ? 0 : (int) varint();
+        }
+
+        long varint() throws IOException {
+            long v = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= limit) throw new EOFException("varint terpotong");
+                byte b = buf[pos++];
+                v |= (long) (b & 0x7F) << shift;
+                if (b >= 0) return v;
+            }
+            throw new IOException("varint terlalu panjang");
+        }
+
+        long fixed64() throws IOException {
+            if (limit - pos < 8) throw new EOFException("fixed64 terpotong");
+            long v = 0;
+            for (int i = 0; i < 8; i++) v |= (long) (buf[pos++] & 0xFF) << (8 * i);
+            return v;
+        }
+
+        double doubleValue() throws IOException {
+            return Double.longBitsToDouble(fixed64());
+        }
+
+        /**
+         * Field length-delimited sebagai sub-reader; posisi reader ini loncat ke setelahnya.
+         */
+        Reader message() throws IOException {
+            int len = length();
+            Reader r = new Reader(buf, pos, len);
+            pos += len;
+            return r;
+        }
+
+        String string() throws IOException {
+            int len = length();
+            String s = new String(buf, pos, len, StandardCharsets.UTF_8);
+            pos += len;
+            return s;
+        }
+
+        // akses slice mentah (field bytes lewat message() → decode in-place, mis. chunk XOR)
+        byte[] buffer() {
+            return buf;
+        }
+
+        int position() {
+            return pos;
+        }
+
+        int remaining() {
+            return limit - pos;
+        }
+
+        int length() throws IOException {
+            long len = varint();
+            if (len < 0 || len > limit - pos) throw new EOFException("field length-delimited terpotong");
+            return (int) len;
+        }
+
+        void skip(int wireType) throws IOException {
+            switch (wireType) {
+                case VARINT -> varint();
+                case FIXED64 -> pos += 8;
+                case LEN -> pos += length();
+                case FIXED32 -> pos += 4;
+                default -> throw new IOException("wire type tidak didukung: " + wireType);
+            }
+            if (pos > limit) throw new EOFException("field terpotong");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import java.util.Arrays;
+
+/**
+ * Buffer sample growable: timestamp epoch ms + nilai di array primitif (tanpa boxing).
+ * Dipakai decoder query_range (JSON) dan remote-read (protobuf).
+ */
+final class SampleBuffer {
+    private long[] ts;
+    private double[] vals;
+    private int size;
+
+    SampleBuffer(int capacity) {
+        ts = new long[capacity];
+        vals = new double[capacity];
+    }
+
+    void add(long t, double v) {
+        if (size == ts.length) {
+            int cap = Math.max(16, size * 2);
+            ts = Arrays.copyOf(ts, cap);
+            vals = Arrays.copyOf(vals, cap);
+        }
+        ts[size] = t;
+        vals[size] = v;
+        size++;
+    }
+
+    int size() {
+        return size;
+    }
+
+    long[] timestamps() {
+        return size == ts.length ? ts : Arrays.copyOf(ts, size);
+    }
+
+    double[] values() {
+        return size == vals.length ? vals : Arrays.copyOf(vals, size);
+    }
+}
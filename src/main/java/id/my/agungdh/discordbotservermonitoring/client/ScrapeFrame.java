@@ -0,0 +1,170 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Hasil scrape dalam bentuk kolom (columnar), hemat memori untuk disimpan lama:
+ * <ul>
+ *     <li>dictionary String (nama metric, nama label, nilai label) — tiap string unik disimpan sekali</li>
+ *     <li>{@code int[]} id nama per sample + pasangan id (label, nilai) per sample</li>
+ *     <li>{@code double[]} nilai sample — tanpa boxing</li>
+ * </ul>
+ * Immutable setelah {@link Builder#build()}.
+ */
+public final class ScrapeFrame {
+
+    public static final int ABSENT = -1;
+
+    private final long scrapedAtMillis;
+    private final String[] dict;
+    private final Map<String, Integer> ids;
+    private final int[] nameIds;
+    private final int[] labelStart; // panjang size+1; label sample i = [labelStart[i], labelStart[i+1]) pasangan
+    private final int[] labelPairs; // key id, value id, key id, value id, ...
+    private final double[] values;
+
+    private ScrapeFrame(long scrapedAtMillis, String[] dict, Map<String, Integer> ids,
+                        int[] nameIds, int[] labelStart, int[] labelPairs, double[] values) {
+        this.scrapedAtMillis = scrapedAtMillis;
+        this.dict = dict;
+        this.ids = ids;
+        this.nameIds = nameIds;
+        this.labelStart = labelStart;
+        this.labelPairs = labelPairs;
+        this.values = values;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public long scrapedAtMillis() {
+        return scrapedAtMillis;
+    }
+
+    public int size() {
+        return values.length;
+    }
+
+    public int dictSize() {
+        return dict.length;
+    }
+
+    public String string(int id) {
+        return dict[id];
+    }
+
+    /**
+     * Id string di dictionary, atau {@link #ABSENT} kalau tidak pernah muncul di scrape ini.
+     */
+    public int id(String s) {
+        Integer id = ids.get(s);
+        return id == null ? ABSENT : id;
+    }
+
+    public int nameId(int row) {
+        return nameIds[row];
+    }
+
+    public double value(int row) {
+        return values[row];
+    }
+
+    public int labelCount(int row) {
+        return (labelStart[row + 1] - labelStart[row]) / 2;
+    }
+
+    public int labelKeyId(int row, int j) {
+        return labelPairs[labelStart[row] + 2 * j];
+    }
+
+    public int labelValueId(int row, int j) {
+        return labelPairs[labelStart[row] + 2 * j + 1];
+    }
+
+    /**
+     * Id nilai label {@code keyId} pada sample {@code row}, atau {@link #ABSENT} kalau label tidak ada.
+     */
+    public int labelValueIdOf(int row, int keyId) {
+        if (keyId == ABSENT) return ABSENT;
+        for (int p = labelStart[row], end = labelStart[row + 1]; p < end; p += 2) {
+            if (labelPairs[p] == keyId) return labelPairs[p + 1];
+        }
+        return ABSENT;
+    }
+
+    /**
+     * Label sample sebagai Map (alokasi baru — hanya untuk debug / kompatibilitas).
+     */
+    public Map<String, String> labels(int row) {
+        Map<String, String> m = new LinkedHashMap<>();
+        for (int p = labelStart[row], end = labelStart[row + 1]; p < end; p += 2) {
+            m.put(dict[labelPairs[p]], dict[labelPairs[p + 1]]);
+        }
+        return m;
+    }
+
+    /**
+     * Builder sekaligus sink parser: string di-intern ke dictionary saat sample masuk.
+     * Sekali pakai — jangan ditambah sample lagi setelah {@link #build()}.
+     */
+    public static final class Builder implements TextFormatParser.SampleSink {
+        private final Map<String, Integer> ids = new HashMap<>();
+        private String[] dict = new String[256];
+        private int dictLen;
+        private int[] nameIds = new int[256];
+        private int[] labelStart = new int[257];
+        private int[] labelPairs = new int[1024];
+        private int pairsLen;
+        private double[] values = new double[256];
+        private int size;
+
+        private Builder() {
+        }
+
+        private int intern(String s) {
+            Integer id = ids.get(s);
+            if (id != null) return id;
+            if (dictLen == dict.length) dict = Arrays.copyOf(dict, dictLen * 2);
+            dict[dictLen] = s;
+            ids.put(s, dictLen);
+            return dictLen++;
+        }
+
+        @Override
+        public void accept(String name, Map<String, String> labels, double value) {
+            if (size == values.length) {
+                int cap = size * 2;
+                nameIds = Arrays.copyOf(nameIds, cap);
+                values = Arrays.copyOf(values, cap);
+                labelStart = Arrays.copyOf(labelStart, cap + 1);
+            }
+            if (pairsLen + 2 * labels.size() > labelPairs.length) {
+                labelPairs = Arrays.copyOf(labelPairs, Math.max(labelPairs.length * 2, pairsLen + 2 * labels.size()));
+            }
+            nameIds[size] = intern(name);
+            values[size] = value;
+            for (var e : labels.entrySet()) {
+                labelPairs[pairsLen++] = intern(e.getKey());
+                labelPairs[pairsLen++] = intern(e.getValue());
+            }
+            size++;
+            labelStart[size] = pairsLen;
+        }
+
+        public ScrapeFrame build() {
+            return new ScrapeFrame(
+                    System.currentTimeMillis(),
+                    Arrays.copyOf(dict, dictLen),
+                    ids, // builder tidak dipakai lagi setelah build()
+                    Arrays.copyOf(nameIds, size),
+                    Arrays.copyOf(labelStart, size + 1),
+                    Arrays.copyOf(labelPairs, pairsLen),
+                    Arrays.copyOf(values, size)
+            );
+        }
+    }
+}
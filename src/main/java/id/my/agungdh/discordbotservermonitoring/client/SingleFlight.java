@@ -0,0 +1,70 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Single-flight: pemanggil bersamaan dengan key yang sama berbagi satu eksekusi.
+ * Pemanggil pertama (leader) menjalankan call di thread-nya sendiri; yang lain menunggu hasil yang sama.
+ * Key dilepas begitu call selesai — ini bukan cache.
+ */
+final class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong executions = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+
+    V run(K key, Supplier<V> call) {
+        requests.incrementAndGet();
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, mine);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw unwrap(e);
+            }
+        }
+
+        executions.incrementAndGet();
+        try {
+            V v = call.get();
+            mine.complete(v);
+            return v;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable c = e.getCause();
+        if (c instanceof RuntimeException re) return re;
+        if (c instanceof Error err) throw err;
+        return e;
+    }
+
+    long requests() {
+        return requests.get();
+    }
+
+    long executions() {
+        return executions.get();
+    }
+
+    long coalesced() {
+        return coalesced.get();
+    }
+
+    int inFlight() {
+        return inFlight.size();
+    }
+}
@@ -0,0 +1,107 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * Snappy block format (tanpa framing) — yang dipakai remote-read Prometheus untuk request & response SAMPLES.
+ * Decoder lengkap; encoder hanya menulis literal (valid, cukup untuk request remote-read yang cuma ratusan byte).
+ */
+final class Snappy {
+
+    // batas ukuran hasil decode (response SAMPLES Prometheus default maks 50 MB)
+    private static final int MAX_UNCOMPRESSED = 256 * 1024 * 1024;
+
+    private Snappy() {
+    }
+
+    static byte[] compress(byte[] in) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(in.length + 16);
+        writeUvarint(out, in.length);
+        for (int off = 0; off < in.length; off += 65_536) {
+            int n = Math.min(65_536, in.length - off);
+            int m = n - 1;
+            if (m < 60) {
+                out.write(m << 2);
+            } else if (m < 1 << 8) {
+                out.write(60 << 2);
+                out.write(m);
+            } else {
+                out.write(61 << 2);
+                out.write(m);
+                out.write(m >>> 8);
+            }
+            out.write(in, off, n);
+        }
+        return out.toByteArray();
+    }
+
+    static byte[] uncompress(byte[] in) throws IOException {
+        int pos = 0;
+        long len = 0;
+        for (int shift = 0; ; shift += 7) {
+            if (pos >= in.length || shift > 28) throw new IOException("snappy: header panjang rusak");
+            int b = in[pos++] & 0xFF;
+            len |= (long) (b & 0x7F) << shift;
+            if (b < 0x80) break;
+        }
+        if (len > MAX_UNCOMPRESSED) throw new IOException("snappy: data terlalu besar (" + len + " byte)");
+        byte[] out = new byte[(int) len];
+        int op = 0;
+
+        while (pos < in.length) {
+            int tag = in[pos++] & 0xFF;
+            int length, offset;
+            switch (tag & 3) {
+                case 0 -> { // literal
+                    length = tag >>> 2;
+                    if (length >= 60) {
+                        int extra = length - 59;
+                        if (pos + extra > in.length) throw new IOException("snappy: literal terpotong");
+                        length = 0;
+                        for (int i = 0; i < extra; i++) length |= (in[pos++] & 0xFF) << (8 * i);
+                    }
+                    length += 1;
+                    if (length <= 0 || pos + length > in.length || op + length > out.length) {
+                        throw new IOException("snappy: literal di luar batas");
+                    }
+                    System.arraycopy(in, pos, out, op, length);
+                    pos += length;
+                    op += length;
+                    continue;
+                }
+                case 1 -> {
+                    if (pos >= in.length) throw new IOException("snappy: copy terpotong");
+                    length = 4 + ((tag >>> 2) & 7);
+                    offset = ((tag >>> 5) << 8) | (in[pos++] & 0xFF);
+                }
+                case 2 -> {
+                    if (pos + 2 > in.length) throw new IOException("snappy: copy terpotong");
+                    length = 1 + (tag >>> 2);
+                    offset = (in[pos] & 0xFF) | (in[pos + 1] & 0xFF) << 8;
+                    pos += 2;
+                }
+                default -> {
+                    if (pos + 4 > in.length) throw new IOException("snappy: copy terpotong");
+                    length = 1 + (tag >>> 2);
+                    offset = (in[pos] & 0xFF) | (in[pos + 1] & 0xFF) << 8 | (in[pos + 2] & 0xFF) << 16
+                            | (in[pos + 3] & 0xFF) << 24;
+                    pos += 4;
+                }
+            }
+            if (offset <= 0 || offset > op || op + length > out.length) throw new IOException("snappy: copy di luar batas");
+            // copy boleh overlap (run-length) → byte per byte
+            for (int i = 0; i < length; i++, op++) out[op] = out[op - offset];
+        }
+        if (op != out.length) throw new IOException("snappy: panjang hasil tidak cocok");
+        return out;
+    }
+
+    private static void writeUvarint(ByteArrayOutputStream out, long v) {
+        while ((v & ~0x7FL) != 0) {
+            out.write((int) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.write((int) v);
+    }
+}
@@ -0,0 +1,333 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Parser streaming untuk Prometheus text exposition (format node_exporter).
+ * Baca byte per byte langsung dari InputStream — tanpa regex, tanpa String untuk seluruh body.
+ * <p>
+ * Semantik sama dengan parser regex lama:
+ * {@code ^([a-zA-Z_:][a-zA-Z0-9_:]*)(\{([^}]*)})?\s+([-+]?[0-9]*\.?[0-9]+([eE][-+]?[0-9]+)?)}
+ * — baris komentar/kosong di-skip, NaN/Inf di-skip, timestamp setelah value diabaikan.
+ * <p>
+ * Mode selektif: kalau diberi himpunan nama family, baris lain ditolak begitu nama metric selesai dibaca
+ * (label & value tidak disentuh, sisa baris tidak disalin).
+ */
+public final class TextFormatParser {
+
+    private static final int READ_BUFFER = 8192;
+
+    private final InputStream in;
+    private final SampleSink sink;
+    private final NameFilter filter; // null = semua family
+    private final byte[] buf = new byte[READ_BUFFER];
+    private int pos;
+    private int limit;
+
+    // buffer satu baris (tumbuh kalau ada baris panjang)
+    private byte[] line = new byte[256];
+    private int lineLen;
+
+    // scratch untuk label value (unescape)
+    private byte[] scratch = new byte[128];
+
+    // nama kanonik dari filter untuk baris yang sedang diproses (mode selektif)
+    private String matchedName;
+
+    private TextFormatParser(InputStream in, NameFilter filter, SampleSink sink) {
+        this.in = in;
+        this.filter = filter;
+        this.sink = sink;
+    }
+
+    /**
+     * Parse seluruh stream; setiap sample dikirim ke sink sesuai urutan muncul.
+     */
+    public static void parse(InputStream in, SampleSink sink) throws IOException {
+        new TextFormatParser(in, null, sink).run();
+    }
+
+    /**
+     * Sama seperti {@link #parse(InputStream, SampleSink)}, tapi hanya family yang ada di {@code families}
+     * yang di-parse. {@code null} = semua family.
+     */
+    public static void parse(InputStream in, Set<String> families, SampleSink sink) throws IOException {
+        NameFilter f = (families == null) ? null : new NameFilter(families);
+        new TextFormatParser(in, f, sink).run();
+    }
+
+    private static boolean isNameStart(int c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':';
+    }
+
+    private static boolean isNameChar(int c) {
+        return isNameStart(c) || (c >= '0' && c <= '9');
+    }
+
+    private static boolean isDigit(int c) {
+        return c >= '0' && c <= '9';
+    }
+
+    // sama dengan \s di java.util.regex (tanpa flag UNICODE_CHARACTER_CLASS)
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == 0x0B || c == '\f' || c == '\r';
+    }
+
+    private void run() throws IOException {
+        while (readLine()) {
+            parseLine();
+        }
+    }
+
+    /**
+     * Isi {@link #line} sampai '\n' (tidak termasuk); '\r' di ujung dibuang (sama dengan split "\r?\n").
+     * Mode selektif: nama metric dicek dulu; kalau ditolak, sisa baris di-skip dan line dikosongkan.
+     */
+    private boolean readLine() throws IOException {
+        lineLen = 0;
+        matchedName = null;
+        boolean any = false;
+        boolean checkName = filter != null;
+        while (true) {
+            if (pos >= limit && !fill()) return any;
+            any = true;
+            if (checkName) {
+                // fase 1: salin karakter nama metric saja
+                while (pos < limit) {
+                    byte c = buf[pos];
+                    if (lineLen == 0 ? !isNameStart(c) : !isNameChar(c)) break;
+                    if (lineLen == line.length) line = Arrays.copyOf(line, lineLen * 2);
+                    line[lineLen++] = c;
+                    pos++;
+                }
+                if (pos >= limit) continue; // nama terpotong di batas buffer → refill dulu
+                checkName = false;
+                matchedName = filter.match(line, lineLen);
+                if (matchedName == null) {
+                    lineLen = 0;
+                    skipLine();
+                    return true;
+                }
+            }
+            int start = pos;
+            while (pos < limit && buf[pos] != '\n') pos++;
+            append(start, pos - start);
+            if (pos < limit) {
+                pos++; // '\n'
+                if (lineLen > 0 && line[lineLen - 1] == '\r') lineLen--;
+                return true;
+            }
+        }
+    }
+
+    private boolean fill() throws IOException {
+        limit = in.read(buf, 0, buf.length);
+        pos = 0;
+        if (limit <= 0) {
+            limit = 0;
+            return false;
+        }
+        return true;
+    }
+
+    private void skipLine() throws IOException {
+        while (true) {
+            if (pos >= limit && !fill()) return;
+            while (pos < limit) {
+                if (buf[pos++] == '\n') return;
+            }
+        }
+    }
+
+    private void append(int from, int len) {
+        if (len == 0) return;
+        if (lineLen + len > line.length) {
+            line = Arrays.copyOf(line, Math.max(line.length * 2, lineLen + len));
+        }
+        System.arraycopy(buf, from, line, lineLen, len);
+        lineLen += len;
+    }
+
+    private void parseLine() {
+        int n = lineLen;
+        if (n == 0 || line[0] == '#') return;
+
+        // ---- metric name ----
+        if (!isNameStart(line[0])) return;
+        int i = 1;
+        while (i < n && isNameChar(line[i])) i++;
+        int nameEnd = i;
+
+        // ---- labels (opsional): sampai '}' pertama, persis seperti [^}]* ----
+        int lblStart = -1, lblEnd = -1;
+        if (i < n && line[i] == '{') {
+            int j = i + 1;
+            while (j < n && line[j] != '}') j++;
+            if (j < n) {
+                lblStart = i + 1;
+                lblEnd = j;
+                i = j + 1;
+            }
+        }
+
+        // ---- \s+ ----
+        int ws = i;
+        while (i < n && isSpace(line[i])) i++;
+        if (i == ws) return;
+
+        // ---- value ----
+        int valEnd = scanValue(i, n);
+        if (valEnd < 0) return;
+        double value;
+        try {
+            value = Double.parseDouble(new String(line, i, valEnd - i, StandardCharsets.ISO_8859_1));
+        } catch (NumberFormatException e) {
+            return;
+        }
+
+        String name;
+        if (filter == null) {
+            name = new String(line, 0, nameEnd, StandardCharsets.ISO_8859_1);
+        } else {
+            if (matchedName == null) return;
+            name = matchedName;
+        }
+        Map<String, String> labels = (lblStart < 0) ? Map.of() : parseLabels(lblStart, lblEnd);
+        sink.accept(name, labels, value);
+    }
+
+    /**
+     * Cocokkan {@code [-+]?[0-9]*\.?[0-9]+([eE][-+]?[0-9]+)?} dari posisi i (termasuk backtracking regex).
+     *
+     * @return index akhir (exclusive), atau -1 kalau tidak match
+     */
+    private int scanValue(int i, int n) {
+        if (i < n && (line[i] == '+' || line[i] == '-')) i++;
+        int intStart = i;
+        while (i < n && isDigit(line[i])) i++;
+        int intDigits = i - intStart;
+
+        int end;
+        if (i < n && line[i] == '.') {
+            int fracStart = i + 1;
+            int j = fracStart;
+            while (j < n && isDigit(line[j])) j++;
+            if (j > fracStart) {
+                end = j;
+            } else if (intDigits > 0) {
+                // "1." → regex mundur ke "1"; exponent tidak mungkin karena karakter berikutnya '.'
+                return i;
+            } else {
+                return -1;
+            }
+        } else {
+            if (intDigits == 0) return -1;
+            end = i;
+        }
+
+        // exponent opsional
+        if (end < n && (line[end] == 'e' || line[end] == 'E')) {
+            int k = end + 1;
+            if (k < n && (line[k] == '+' || line[k] == '-')) k++;
+            int expStart = k;
+            while (k < n && isDigit(line[k])) k++;
+            if (k > expStart) end = k;
+        }
+        return end;
+    }
+
+    private Map<String, String> parseLabels(int from, int to) {
+        Map<String, String> map = new LinkedHashMap<>();
+        int i = from;
+        while (i < to) {
+            int startKey = i;
+            while (i < to && line[i] != '=') i++;
+            if (i >= to) break;
+            String key = trimmed(startKey, i);
+            i++; // '='
+            if (i >= to || line[i] != '"') break;
+            i++; // opening "
+            int len = 0;
+            while (i < to) {
+                byte c = line[i++];
+                byte out;
+                if (c == '\\' && i < to) {
+                    byte esc = line[i++];
+                    out = switch (esc) {
+                        case 'n' -> '\n';
+                        case 't' -> '\t';
+                        default -> esc; // termasuk \\ dan \"
+                    };
+                } else if (c == '"') {
+                    break;
+                } else {
+                    out = c;
+                }
+                if (len == scratch.length) scratch = Arrays.copyOf(scratch, len * 2);
+                scratch[len++] = out;
+            }
+            map.put(key, new String(scratch, 0, len, StandardCharsets.UTF_8));
+            while (i < to && line[i] == ' ') i++;
+            if (i < to && line[i] == ',') i++;
+            while (i < to && line[i] == ' ') i++;
+        }
+        return map;
+    }
+
+    // setara String.trim(): buang byte <= ' ' di kedua ujung
+    private String trimmed(int from, int to) {
+        while (from < to && (line[from] & 0xFF) <= ' ') from++;
+        while (to > from && (line[to - 1] & 0xFF) <= ' ') to--;
+        return new String(line, from, to - from, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Allow-list nama family, dicocokkan langsung terhadap byte nama (tanpa bikin String).
+     */
+    private static final class NameFilter {
+        private final byte[][][] bytesByLen;
+        private final String[][] namesByLen;
+
+        NameFilter(Set<String> families) {
+            int max = 0;
+            for (String f : families) max = Math.max(max, f.length());
+            int[] counts = new int[max + 1];
+            for (String f : families) counts[f.length()]++;
+            bytesByLen = new byte[max + 1][][];
+            namesByLen = new String[max + 1][];
+            for (int len = 0; len <= max; len++) {
+                bytesByLen[len] = new byte[counts[len]][];
+                namesByLen[len] = new String[counts[len]];
+                counts[len] = 0;
+            }
+            for (String f : families) {
+                int len = f.length();
+                bytesByLen[len][counts[len]] = f.getBytes(StandardCharsets.ISO_8859_1);
+                namesByLen[len][counts[len]++] = f;
+            }
+        }
+
+        String match(byte[] name, int len) {
+            if (len == 0 || len >= bytesByLen.length) return null;
+            byte[][] candidates = bytesByLen[len];
+            for (int c = 0; c < candidates.length; c++) {
+                if (Arrays.equals(candidates[c], 0, len, name, 0, len)) return namesByLen[len][c];
+            }
+            return null;
+        }
+    }
+
+    /**
+     * Callback per sample hasil parse.
+     */
+    @FunctionalInterface
+    public interface SampleSink {
+        void accept(String name, Map<String, String> labels, double value);
+    }
+}
@@ -0,0 +1,133 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import java.io.EOFException;
+import java.io.IOException;
+
+/**
+ * Decoder chunk XOR (Gorilla) TSDB Prometheus — format yang dikirim remote-read STREAMED_XOR_CHUNKS.
+ * <pre>
+ * [2 byte BE: jumlah sample]
+ * sample 0: t varint (zigzag), v 64 bit
+ * sample 1: Δt uvarint, v XOR
+ * sample n: Δ-of-Δ t ('0' | '10'+14 | '110'+17 | '1110'+20 | '1111'+64 bit), v XOR
+ * v XOR: '0' = sama | '10' + bit signifikan (leading/trailing lama) | '11' + leading(5) + panjang(6) + bit
+ * </pre>
+ * Sample langsung masuk SampleBuffer; yang di luar [minT, maxT] dan stale marker dilewati.
+ */
+final class XorChunkDecoder {
+
+    // Prometheus staleness marker (value.StaleNaN)
+    static final long STALE_NAN_BITS = 0x7ff0000000000002L;
+
+    private final byte[] buf;
+    private final int end;
+    private int pos;
+    private int bitPos; // 0..7, dari MSB
+
+    private XorChunkDecoder(byte[] buf, int offset, int length) {
+        this.buf = buf;
+        this.pos = offset;
+        this.end = offset + length;
+    }
+
+    static void decode(byte[] buf, int offset, int length, long minT, long maxT, SampleBuffer out) throws IOException {
+        if (length < 2) return;
+        int n = ((buf[offset] & 0xFF) << 8) | (buf[offset + 1] & 0xFF);
+        new XorChunkDecoder(buf, offset + 2, length - 2).run(n, minT, maxT, out);
+    }
+
+    private void run(int n, long minT, long maxT, SampleBuffer out) throws IOException {
+        long t = 0, tDelta = 0, vbits = 0;
+        int leading = 0, trailing = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0) {
+                long u = uvarint();
+                t = (u >>> 1) ^ -(u & 1); // zigzag
+                vbits = bits(64);
+            } else {
+                if (i == 1) {
+                    tDelta = uvarint();
+                } else {
+                    tDelta += deltaOfDelta();
+                }
+                t += tDelta;
+
+                // nilai: XOR dengan nilai sebelumnya
+                if (bit() != 0) {
+                    int mbits;
+                    if (bit() == 0) {
+                        mbits = 64 - leading - trailing;
+                    } else {
+                        leading = (int) bits(5);
+                        mbits = (int) bits(6);
+                        if (mbits == 0) mbits = 64; // 64 tidak muat di 6 bit → ditulis 0
+                        trailing = 64 - leading - mbits;
+                    }
+                    vbits ^= bits(mbits) << trailing;
+                }
+            }
+            if (t < minT || t > maxT || vbits == STALE_NAN_BITS) continue;
+            out.add(t, Double.longBitsToDouble(vbits));
+        }
+    }
+
+    private long deltaOfDelta() throws IOException {
+        int prefix = 0;
+        for (int i = 0; i < 4; i++) {
+            prefix = (prefix << 1) | bit();
+            if ((prefix & 1) == 0) break;
+        }
+        int sz = switch (prefix) {
+            case 0b0 -> 0;
+            case 0b10 -> 14;
+            case 0b110 -> 17;
+            case 0b1110 -> 20;
+            default -> 64;
+        };
+        if (sz == 0) return 0;
+        long v = bits(sz);
+        if (sz == 64) return v;
+        // negatif ditulis sebagai unsigned sz-bit
+        if (v > (1L << (sz - 1))) v -= 1L << sz;
+        return v;
+    }
+
+    private int bit() throws IOException {
+        if (pos >= end) throw new EOFException("chunk XOR terpotong");
+        int b = (buf[pos] >>> (7 - bitPos)) & 1;
+        if (++bitPos == 8) {
+            bitPos = 0;
+            pos++;
+        }
+        return b;
+    }
+
+    private long bits(int n) throws IOException {
+        long v = 0;
+        while (n > 0) {
+            if (pos >= end) throw new EOFException("chunk XOR terpotong");
+            int avail = 8 - bitPos;
+            int take = Math.min(avail, n);
+            int chunk = ((buf[pos] & 0xFF) >>> (avail - take)) & ((1 << take) - 1);
+            v = (v << take) | chunk;
+            n -= take;
+            bitPos += take;
+            if (bitPos == 8) {
+                bitPos = 0;
+                pos++;
+            }
+        }
+        return v;
+    }
+
+    // varint di dalam bitstream (tidak harus byte-aligned)
+    private long uvarint() throws IOException {
+        long v = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            long b = bits(8);
+            v |= (b & 0x7F) << shift;
+            if (b < 0x80) return v;
+        }
+        throw new IOException("varint chunk XOR terlalu panjang");
+    }
+}
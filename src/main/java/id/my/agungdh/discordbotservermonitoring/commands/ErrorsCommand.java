@@ -1,6 +1,8 @@
 package id.my.agungdh.discordbotservermonitoring.commands;
 
+import id.my.agungdh.discordbotservermonitoring.client.PromLane;
 import id.my.agungdh.discordbotservermonitoring.client.PrometheusClient;
+import id.my.agungdh.discordbotservermonitoring.service.ErrorMinutesBatch;
 import id.my.agungdh.discordbotservermonitoring.service.ErrorMinutesService;
 import net.dv8tion.jda.api.EmbedBuilder;
 import net.dv8tion.jda.api.events.interaction.command.SlashCommandInteractionEvent;
@@ -13,8 +15,8 @@ import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Comparator;
-import java.util.List;
 import java.util.concurrent.*;
+import java.util.function.BiFunction;
 import java.util.stream.Collectors;
 
 @Component
@@ -47,28 +49,43 @@ public class ErrorsCommand implements SlashCommand {
             Instant startW1 = LocalDate.now(zone).minusDays(7).atStartOfDay(zone).toInstant();
             Instant startW2 = LocalDate.now(zone).minusDays(14).atStartOfDay(zone).toInstant();
 
-            // ==== Jalankan SEMUA pemanggilan service secara paralel TANPA ubah service ====
-            CompletableFuture<List<PrometheusClient.ResultPoint>> h1F = supplyAsync(() -> svc.errorMinutesLastHours(1));
-            CompletableFuture<List<PrometheusClient.ResultPoint>> h2F = supplyAsync(() -> svc.errorMinutesLastHours(2));
-            CompletableFuture<List<PrometheusClient.ResultPoint>> h3F = supplyAsync(() -> svc.errorMinutesLastHours(3));
-            CompletableFuture<List<PrometheusClient.ResultPoint>> h6F = supplyAsync(() -> svc.errorMinutesLastHours(6));
-
-            CompletableFuture<List<PrometheusClient.ResultPoint>> todayF = supplyAsync(svc::errorMinutesToday);
-            CompletableFuture<List<PrometheusClient.ResultPoint>> ydayF = supplyAsync(svc::errorMinutesYesterday);
-            CompletableFuture<List<PrometheusClient.ResultPoint>> d2F = supplyAsync(svc::errorMinutesTwoDaysAgo);
-            CompletableFuture<List<PrometheusClient.ResultPoint>> w1F = supplyAsync(svc::errorMinutesLastWeekUntilNow);
-            CompletableFuture<List<PrometheusClient.ResultPoint>> w2F = supplyAsync(svc::errorMinutesLast2WeeksUntilNow);
-
-            // Total unik menit down per range — juga paralel (tetap panggil method sync di service)
-            CompletableFuture<Long> uH1 = supplyAsync(() -> svc.errorMinutesAnyDown(now.minus(Duration.ofHours(1)), now));
-            CompletableFuture<Long> uH2 = supplyAsync(() -> svc.errorMinutesAnyDown(now.minus(Duration.ofHours(2)), now));
-            CompletableFuture<Long> uH3 = supplyAsync(() -> svc.errorMinutesAnyDown(now.minus(Duration.ofHours(3)), now));
-            CompletableFuture<Long> uH6 = supplyAsync(() -> svc.errorMinutesAnyDown(now.minus(Duration.ofHours(6)), now));
-            CompletableFuture<Long> uToday = supplyAsync(() -> svc.errorMinutesAnyDown(startToday, now));
-            CompletableFuture<Long> uYday = supplyAsync(() -> svc.errorMinutesAnyDown(startYday, startToday));
-            CompletableFuture<Long> uD2 = supplyAsync(() -> svc.errorMinutesAnyDown(startD2, startYday));
-            CompletableFuture<Long> uW1 = supplyAsync(() -> svc.errorMinutesAnyDown(startW1, now));
-            CompletableFuture<Long> uW2 = supplyAsync(() -> svc.errorMinutesAnyDown(startW2, now));
+            // Mode batch: range query per menit untuk window terlebar (2 minggu), semua window diturunkan di memori.
+            // Mode lama: tiap window = instant query sendiri, jalan paralel.
+            BiFunction<Instant, Instant, CompletableFuture<ErrorMinutesService.Result>> perTarget;
+            BiFunction<Instant, Instant, CompletableFuture<Long>> anyDown;
+            if (svc.isBatchMode()) {
+                // window jam-jaman (≤ 6 jam) butuh data per menit; hari penuh sebelumnya boleh dari rollup harian
+                CompletableFuture<ErrorMinutesBatch> batchF =
+                        supplyAsync(() -> svc.errorMinutesBatch(startW2, now.minus(Duration.ofHours(6))));
+                perTarget = (s, e) -> batchF.thenApply(
+                        b -> new ErrorMinutesService.Result(b.errorMinutes(s, e), b.mode(s, e)));
+                anyDown = (s, e) -> batchF.thenApply(b -> b.anyDown(s, e));
+            } else {
+                perTarget = (s, e) -> supplyAsync(() -> svc.errorMinutesWithMode(s, e));
+                anyDown = (s, e) -> supplyAsync(() -> svc.errorMinutesAnyDown(s, e));
+            }
+
+            CompletableFuture<ErrorMinutesService.Result> h1F = perTarget.apply(now.minus(Duration.ofHours(1)), now);
+            CompletableFuture<ErrorMinutesService.Result> h2F = perTarget.apply(now.minus(Duration.ofHours(2)), now);
+            CompletableFuture<ErrorMinutesService.Result> h3F = perTarget.apply(now.minus(Duration.ofHours(3)), now);
+            CompletableFuture<ErrorMinutesService.Result> h6F = perTarget.apply(now.minus(Duration.ofHours(6)), now);
+
+            CompletableFuture<ErrorMinutesService.Result> todayF = perTarget.apply(startToday, now);
+            CompletableFuture<ErrorMinutesService.Result> ydayF = perTarget.apply(startYday, startToday);
+            CompletableFuture<ErrorMinutesService.Result> d2F = perTarget.apply(startD2, startYday);
+            CompletableFuture<ErrorMinutesService.Result> w1F = perTarget.apply(startW1, now);
+            CompletableFuture<ErrorMinutesService.Result> w2F = perTarget.apply(startW2, now);
+
+            // Total unik menit down per range
+            CompletableFuture<Long> uH1 = anyDown.apply(now.minus(Duration.ofHours(1)), now);
+            CompletableFuture<Long> uH2 = anyDown.apply(now.minus(Duration.ofHours(2)), now);
+            CompletableFuture<Long> uH3 = anyDown.apply(now.minus(Duration.ofHours(3)), now);
+            CompletableFuture<Long> uH6 = anyDown.apply(now.minus(Duration.ofHours(6)), now);
+            CompletableFuture<Long> uToday = anyDown.apply(startToday, now);
+            CompletableFuture<Long> uYday = anyDown.apply(startYday, startToday);
+            CompletableFuture<Long> uD2 = anyDown.apply(startD2, startYday);
+            CompletableFuture<Long> uW1 = anyDown.apply(startW1, now);
+            CompletableFuture<Long> uW2 = anyDown.apply(startW2, now);
 
             CompletableFuture.allOf(
                             h1F, h2F, h3F, h6F, todayF, ydayF, d2F, w1F, w2F,
@@ -134,24 +151,29 @@ public class ErrorsCommand implements SlashCommand {
 
     /**
      * Helper untuk submit tugas sync ke executor tanpa ubah service.
+     * Query Prometheus di dalamnya jalan di lane INTERACTIVE (di bawah ALERT, di atas REST).
      */
     private <T> CompletableFuture<T> supplyAsync(Callable<T> task) {
-        return CompletableFuture.supplyAsync(() -> {
+        return CompletableFuture.supplyAsync(() -> PromLane.INTERACTIVE.call(() -> {
             try {
                 return task.call();
             } catch (Exception e) {
                 throw new CompletionException(e);
             }
-        }, executor);
+        }), executor);
     }
 
     private String summarize(Instant start, Instant end,
-                             List<PrometheusClient.ResultPoint> points,
+                             ErrorMinutesService.Result result,
                              long uniqueTotal) {
         var fmt = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm").withZone(ZoneId.systemDefault());
+        var points = result.points();
 
         String header = "**Range:** " + fmt.format(start) + " → " + fmt.format(end)
                 + "\n**Total:** " + formatMinutes(uniqueTotal);
+        // hanya ditampilkan kalau hasilnya aproksimasi (COARSE / recording rule)
+        String precision = result.mode().precision();
+        if (precision.startsWith("approx")) header += "\n*" + precision + "*";
 
         if (points == null || points.isEmpty()) return header + "\n*(no data)*";
 
@@ -84,14 +84,16 @@ public class HealthCommand implements SlashCommand {
                 .setTitle("📊 Server Health — " + nodeName)
                 .setColor(new Color(88, 101, 242))
                 .setTimestamp(Instant.now())
-                .setFooter("host: " + m.hostname() + " • uptime: " + MessageUtils.humanUptime(m.uptimeSeconds()));
+                .setFooter("host: " + m.hostname() + " • uptime: " + MessageUtils.humanUptime(m.uptimeSeconds())
+                        + " • data age: " + humanAge(m.ageMillis()));
 
         eb.addField("OS", MessageUtils.safe(m.os()), true);
         eb.addField("Time", m.timestamp().toString(), true);
         eb.addBlankField(true);
 
         // CPU
-        String cpuBar = MessageUtils.codeBlock(
+        // usage < 0 = scrape delta CPU gagal
+        String cpuBar = MessageUtils.codeBlock(m.cpu().cpuUsage() < 0 ? "N/A" :
                 MessageUtils.progressBar(m.cpu().cpuUsage()) + " " + MessageUtils.round2(m.cpu().cpuUsage()) + "%"
         );
         String cpuInfo = "**Model:** " + MessageUtils.safe(m.cpu().model()) + "\n" +
@@ -119,6 +121,12 @@ public class HealthCommand implements SlashCommand {
         return eb;
     }
 
+    // umur snapshot (cache/collector) — detik kalau < 1 menit
+    private static String humanAge(long ageMillis) {
+        long sec = Math.max(0, ageMillis) / 1000;
+        return sec < 60 ? sec + "s" : MessageUtils.humanUptime(sec);
+    }
+
     // ================== Builders ==================
 
     private static List<String> buildStoragePages(MetricsDTO m) {
@@ -190,8 +198,9 @@ public class HealthCommand implements SlashCommand {
         event.deferReply()/* .setEphemeral(true) */.queue(hook -> {
 
             // Ambil semua node paralel + Pi-hole
+            // snapshotAll sudah dibatasi deadline per node/total → cukup timeout pendek
             CompletableFuture<Map<String, MetricsDTO>> nodesFut = nodeMetricsService.snapshotAllAsync(true)
-                    .orTimeout(5, TimeUnit.MINUTES);
+                    .orTimeout(1, TimeUnit.MINUTES);
 
             CompletableFuture<SummaryResponse> piholeSummaryFut = CompletableFuture.supplyAsync(() -> {
                 try {
@@ -210,7 +219,7 @@ public class HealthCommand implements SlashCommand {
             }).orTimeout(30, TimeUnit.SECONDS);
 
             CompletableFuture.allOf(nodesFut, piholeSummaryFut, blockListsFut)
-                    .orTimeout(7, TimeUnit.MINUTES)
+                    .orTimeout(90, TimeUnit.SECONDS)
                     .whenComplete((ignored, err) -> {
                         if (err != null) {
                             hook.editOriginal("⚠️ Gagal ambil data: " + err.getMessage()).queue();
@@ -0,0 +1,229 @@
+package id.my.agungdh.discordbotservermonitoring.config;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Sumber data alert PING global (AlertScheduler).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "alerts")
+public class AlertProps {
+    private Push push = new Push();
+    private Local local = new Local();
+
+    public Push getPush() {
+        return push;
+    }
+
+    public void setPush(Push push) {
+        this.push = push;
+    }
+
+    public Local getLocal() {
+        return local;
+    }
+
+    public void setLocal(Local local) {
+        this.local = local;
+    }
+
+    // endpoint tulis tanpa token = siapa pun yang bisa akses port bisa memalsukan / menyembunyikan alert
+    @PostConstruct
+    void validate() {
+        if (push.isEnabled() && isBlank(push.getToken())) {
+            throw new IllegalStateException("alerts.push.enabled=true butuh alerts.push.token");
+        }
+        if (local.isEnabled() && local.getIngest().isEnabled() && isBlank(local.getIngest().getToken())) {
+            throw new IllegalStateException("alerts.local.ingest.enabled=true butuh alerts.local.ingest.token");
+        }
+    }
+
+    private static boolean isBlank(String s) {
+        return s == null || s.isBlank();
+    }
+
+    /**
+     * Webhook Alertmanager (POST /alerts/alertmanager). Kalau aktif, polling Prometheus 3 detik
+     * turun jadi fallback jarang yang sekaligus merekonsiliasi notifikasi resolved yang hilang.
+     */
+    public static class Push {
+        private boolean enabled = false;
+        // wajib kalau enabled: header "Authorization: Bearer <token>"
+        private String token = "";
+        private long fallbackPollMillis = 60_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public void setToken(String token) {
+            this.token = token;
+        }
+
+        public long getFallbackPollMillis() {
+            return fallbackPollMillis;
+        }
+
+        public void setFallbackPollMillis(long fallbackPollMillis) {
+            this.fallbackPollMillis = fallbackPollMillis;
+        }
+    }
+
+    /**
+     * Evaluasi sliding window di proses sendiri (tanpa query Prometheus): hasil probe masuk dari poller
+     * blackbox_exporter /probe dan/atau POST /alerts/probes (kalau ingest aktif).
+     */
+    public static class Local {
+        private boolean enabled = false;
+        // sama dengan [1m] di query alert Prometheus
+        private int windowSeconds = 60;
+        // poll Prometheus tetap jalan tiap tick selama ada target di QUERY yang tidak diprobe lokal;
+        // kalau semua tercakup, poll hanya tiap interval ini (mendeteksi target baru)
+        private long rediscoverMillis = 60_000;
+        private Blackbox blackbox = new Blackbox();
+        private Ingest ingest = new Ingest();
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public int getWindowSeconds() {
+            return windowSeconds;
+        }
+
+        public void setWindowSeconds(int windowSeconds) {
+            this.windowSeconds = windowSeconds;
+        }
+
+        public long getRediscoverMillis() {
+            return rediscoverMillis;
+        }
+
+        public void setRediscoverMillis(long rediscoverMillis) {
+            this.rediscoverMillis = rediscoverMillis;
+        }
+
+        public Blackbox getBlackbox() {
+            return blackbox;
+        }
+
+        public void setBlackbox(Blackbox blackbox) {
+            this.blackbox = blackbox;
+        }
+
+        public Ingest getIngest() {
+            return ingest;
+        }
+
+        public void setIngest(Ingest ingest) {
+            this.ingest = ingest;
+        }
+    }
+
+    /**
+     * POST /alerts/probes (hasil probe dari prober lain). Terpisah dari push: poller lokal saja tidak membuka
+     * endpoint tulis.
+     */
+    public static class Ingest {
+        private boolean enabled = false;
+        // wajib kalau enabled: header "Authorization: Bearer <token>"
+        private String token = "";
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getToken() {
+            return token;
+        }
+
+        public void setToken(String token) {
+            this.token = token;
+        }
+    }
+
+    /**
+     * Poller /probe langsung ke blackbox_exporter; kosongkan url kalau hasil probe hanya lewat push.
+     */
+    public static class Blackbox {
+        private String url = "";
+        private String module = "icmp";
+        private long intervalMillis = 1_000;
+        private List<Target> targets = new ArrayList<>();
+
+        public String getUrl() {
+            return url;
+        }
+
+        public void setUrl(String url) {
+            this.url = url;
+        }
+
+        public String getModule() {
+            return module;
+        }
+
+        public void setModule(String module) {
+            this.module = module;
+        }
+
+        public long getIntervalMillis() {
+            return intervalMillis;
+        }
+
+        public void setIntervalMillis(long intervalMillis) {
+            this.intervalMillis = intervalMillis;
+        }
+
+        public List<Target> getTargets() {
+            return targets;
+        }
+
+        public void setTargets(List<Target> targets) {
+            this.targets = targets;
+        }
+    }
+
+    public static class Target {
+        // dipakai sebagai label instance (sama dengan relabel blackbox di Prometheus)
+        private String target;
+        private String alias = "";
+
+        public String getTarget() {
+            return target;
+        }
+
+        public void setTarget(String target) {
+            this.target = target;
+        }
+
+        public String getAlias() {
+            return alias;
+        }
+
+        public void setAlias(String alias) {
+            this.alias = alias;
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package id.my.agungdh.discordbotservermonitoring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Setting transport HTTP bersama (node_exporter, Prometheus, WAHA, blackbox_exporter).
+ */
+@Configuration
+@ConfigurationProperties(prefix = "http")
+public class HttpTransportProps {
+    private long connectTimeoutMillis = 3_000;
+    // HTTP/2 kalau server mendukung (ALPN untuk https), fallback HTTP/1.1
+    private boolean http2 = true;
+    // batas request bersamaan per host (host:port), request berikutnya menunggu slot; 0 = tanpa batas.
+    // Bisa di-override per target. Untuk Prometheus batas efektifnya tidak pernah di bawah total slot
+    // bulkhead (prometheus.bulkhead), jadi lane ALERT tidak ikut antre di belakang query /errors.
+    private int maxInFlightPerHost = 16;
+    private long acquireTimeoutMillis = 5_000;
+    // read timeout per target
+    private Target nodeExporter = new Target(10_000);
+    private Target prometheus = new Target(30_000);
+    private Target waha = new Target(30_000);
+    // /probe menunggu probe selesai; timeout probe yang dikirim ke blackbox_exporter = read timeout - 1 s.
+    // Tanpa batas host: poller sudah 1 probe in-flight per target, dan probe sehat yang antre slot di belakang
+    // target mati akan tercatat gagal
+    private Target blackbox = new Target(10_000, 0);
+
+    public long getConnectTimeoutMillis() {
+        return connectTimeoutMillis;
+    }
+
+    public void setConnectTimeoutMillis(long connectTimeoutMillis) {
+        this.connectTimeoutMillis = connectTimeoutMillis;
+    }
+
+    public boolean isHttp2() {
+        return http2;
+    }
+
+    public void setHttp2(boolean http2) {
+        this.http2 = http2;
+    }
+
+    public int getMaxInFlightPerHost() {
+        return maxInFlightPerHost;
+    }
+
+    public void setMaxInFlightPerHost(int maxInFlightPerHost) {
+        this.maxInFlightPerHost = maxInFlightPerHost;
+    }
+
+    public long getAcquireTimeoutMillis() {
+        return acquireTimeoutMillis;
+    }
+
+    public void setAcquireTimeoutMillis(long acquireTimeoutMillis) {
+        this.acquireTimeoutMillis = acquireTimeoutMillis;
+    }
+
+    public Target getNodeExporter() {
+        return nodeExporter;
+    }
+
+    public void setNodeExporter(Target nodeExporter) {
+        this.nodeExporter = nodeExporter;
+    }
+
+    public Target getPrometheus() {
+        return prometheus;
+    }
+
+    public void setPrometheus(Target prometheus) {
+        this.prometheus = prometheus;
+    }
+
+    public Target getWaha() {
+        return waha;
+    }
+
+    public void setWaha(Target waha) {
+        this.waha = waha;
+    }
+
+    public Target getBlackbox() {
+        return blackbox;
+    }
+
+    public void setBlackbox(Target blackbox) {
+        this.blackbox = blackbox;
+    }
+
+    public static class Target {
+        private long readTimeoutMillis;
+        // null = http.maxInFlightPerHost
+        private Integer maxInFlightPerHost;
+
+        public Target() {
+            this(10_000);
+        }
+
+        public Target(long readTimeoutMillis) {
+            this(readTimeoutMillis, null);
+        }
+
+        public Target(long readTimeoutMillis, Integer maxInFlightPerHost) {
+            this.readTimeoutMillis = readTimeoutMillis;
+            this.maxInFlightPerHost = maxInFlightPerHost;
+        }
+
+        public long getReadTimeoutMillis() {
+            return readTimeoutMillis;
+        }
+
+        public void setReadTimeoutMillis(long readTimeoutMillis) {
+            this.readTimeoutMillis = readTimeoutMillis;
+        }
+
+        public Integer getMaxInFlightPerHost() {
+            return maxInFlightPerHost;
+        }
+
+        public void setMaxInFlightPerHost(Integer maxInFlightPerHost) {
+            this.maxInFlightPerHost = maxInFlightPerHost;
+        }
+    }
+}
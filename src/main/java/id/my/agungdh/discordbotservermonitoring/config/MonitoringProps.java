@@ -1,18 +1,31 @@
 package id.my.agungdh.discordbotservermonitoring.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.DeprecatedConfigurationProperty;
 import org.springframework.context.annotation.Configuration;
 
 import java.util.List;
+import java.util.Map;
 
 @Configuration
 @ConfigurationProperties(prefix = "monitoring")
 public class MonitoringProps {
     private List<Node> nodes = List.of();
-    // NEW: tampilkan interface virtual (veth/docker/br/lo) — default true (semua tampil)
-    private boolean includeVirtualIfaces = true;
-    // NEW: tampilkan filesystem “special” (tmpfs/overlay/proc/sys/run/zram) — default true (semua tampil)
-    private boolean includeSpecialFilesystems = true;
+    // Filter filesystem & interface (regex include/exclude) — default semua tampil; bisa di-override per group/node
+    private Filters filters = new Filters();
+    private Map<String, Filters> filterGroups = Map.of();
+    // Deprecated: toggle lama, false dipetakan ke exclude default di NodeFilters (null = tidak di-set)
+    private Boolean includeVirtualIfaces;
+    private Boolean includeSpecialFilesystems;
+    // Background scraper: snapshot dibaca dari memori, bukan scrape di request path
+    private Collector collector = new Collector();
+    // Circuit breaker per node: node mati langsung placeholder, di-probe ulang di background
+    private Breaker breaker = new Breaker();
+    // Cache snapshot /system & /health saat scrape live (stale-while-revalidate); collector sudah dari memori
+    private Cache cache = new Cache();
+    // Fan-out paralel: batas waktu per node & total satu putaran (ms)
+    private long nodeTimeoutMillis = 10_000;
+    private long overallTimeoutMillis = 15_000;
 
     public List<Node> getNodes() {
         return nodes;
@@ -22,25 +35,248 @@ public class MonitoringProps {
         this.nodes = nodes;
     }
 
-    public boolean isIncludeVirtualIfaces() {
+    public Filters getFilters() {
+        return filters;
+    }
+
+    public void setFilters(Filters filters) {
+        this.filters = filters;
+    }
+
+    public Map<String, Filters> getFilterGroups() {
+        return filterGroups;
+    }
+
+    public void setFilterGroups(Map<String, Filters> filterGroups) {
+        this.filterGroups = filterGroups;
+    }
+
+    @Deprecated
+    @DeprecatedConfigurationProperty(replacement = "monitoring.filters.iface",
+            reason = "false = monitoring.filters.iface.exclude [lo, veth.*, docker.*, br-.*]")
+    public Boolean getIncludeVirtualIfaces() {
         return includeVirtualIfaces;
     }
 
-    public void setIncludeVirtualIfaces(boolean includeVirtualIfaces) {
+    @Deprecated
+    public void setIncludeVirtualIfaces(Boolean includeVirtualIfaces) {
         this.includeVirtualIfaces = includeVirtualIfaces;
     }
 
-    public boolean isIncludeSpecialFilesystems() {
+    @Deprecated
+    @DeprecatedConfigurationProperty(replacement = "monitoring.filters.fstype",
+            reason = "false = monitoring.filters.fstype/mountpoint.exclude (tmpfs, overlay, /proc, /sys, /run)")
+    public Boolean getIncludeSpecialFilesystems() {
         return includeSpecialFilesystems;
     }
 
-    public void setIncludeSpecialFilesystems(boolean includeSpecialFilesystems) {
+    @Deprecated
+    public void setIncludeSpecialFilesystems(Boolean includeSpecialFilesystems) {
         this.includeSpecialFilesystems = includeSpecialFilesystems;
     }
 
+    public long getNodeTimeoutMillis() {
+        return nodeTimeoutMillis;
+    }
+
+    public void setNodeTimeoutMillis(long nodeTimeoutMillis) {
+        this.nodeTimeoutMillis = nodeTimeoutMillis;
+    }
+
+    public long getOverallTimeoutMillis() {
+        return overallTimeoutMillis;
+    }
+
+    public void setOverallTimeoutMillis(long overallTimeoutMillis) {
+        this.overallTimeoutMillis = overallTimeoutMillis;
+    }
+
+    public Collector getCollector() {
+        return collector;
+    }
+
+    public void setCollector(Collector collector) {
+        this.collector = collector;
+    }
+
+    public Breaker getBreaker() {
+        return breaker;
+    }
+
+    public void setBreaker(Breaker breaker) {
+        this.breaker = breaker;
+    }
+
+    public Cache getCache() {
+        return cache;
+    }
+
+    public void setCache(Cache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Aturan filter per dimensi; dimensi yang null diwarisi dari level di atasnya (node → group → default).
+     */
+    public static class Filters {
+        private Rules fstype;
+        private Rules mountpoint;
+        private Rules iface;
+
+        public Rules getFstype() {
+            return fstype;
+        }
+
+        public void setFstype(Rules fstype) {
+            this.fstype = fstype;
+        }
+
+        public Rules getMountpoint() {
+            return mountpoint;
+        }
+
+        public void setMountpoint(Rules mountpoint) {
+            this.mountpoint = mountpoint;
+        }
+
+        public Rules getIface() {
+            return iface;
+        }
+
+        public void setIface(Rules iface) {
+            this.iface = iface;
+        }
+    }
+
+    /**
+     * Regex (full match). Lolos kalau include kosong / cocok salah satu include, dan tidak cocok exclude mana pun.
+     */
+    public static class Rules {
+        private List<String> include = List.of();
+        private List<String> exclude = List.of();
+
+        public List<String> getInclude() {
+            return include;
+        }
+
+        public void setInclude(List<String> include) {
+            this.include = include;
+        }
+
+        public List<String> getExclude() {
+            return exclude;
+        }
+
+        public void setExclude(List<String> exclude) {
+            this.exclude = exclude;
+        }
+    }
+
+    public static class Cache {
+        private boolean enabled = true;
+        // snapshot dianggap segar selama ttl → langsung dari cache
+        private long ttlMillis = 5_000;
+        // setelah ttl, data lama masih boleh dikirim selama staleMillis sambil refresh di background
+        private long staleMillis = 60_000;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getTtlMillis() {
+            return ttlMillis;
+        }
+
+        public void setTtlMillis(long ttlMillis) {
+            this.ttlMillis = ttlMillis;
+        }
+
+        public long getStaleMillis() {
+            return staleMillis;
+        }
+
+        public void setStaleMillis(long staleMillis) {
+            this.staleMillis = staleMillis;
+        }
+    }
+
+    public static class Breaker {
+        // gagal berturut-turut sebelum circuit OPEN
+        private int failureThreshold = 3;
+        // jeda probe pertama setelah OPEN, lalu x2 tiap probe gagal sampai maxBackoffMillis
+        private long initialBackoffMillis = 5_000;
+        private long maxBackoffMillis = 300_000;
+
+        public int getFailureThreshold() {
+            return failureThreshold;
+        }
+
+        public void setFailureThreshold(int failureThreshold) {
+            this.failureThreshold = failureThreshold;
+        }
+
+        public long getInitialBackoffMillis() {
+            return initialBackoffMillis;
+        }
+
+        public void setInitialBackoffMillis(long initialBackoffMillis) {
+            this.initialBackoffMillis = initialBackoffMillis;
+        }
+
+        public long getMaxBackoffMillis() {
+            return maxBackoffMillis;
+        }
+
+        public void setMaxBackoffMillis(long maxBackoffMillis) {
+            this.maxBackoffMillis = maxBackoffMillis;
+        }
+    }
+
+    public static class Collector {
+        private boolean enabled = true;
+        // jeda antar putaran scrape (ms) — sekaligus jendela delta CPU
+        private long intervalMillis = 5000;
+        // jumlah scrape terakhir yang disimpan per node (ring buffer)
+        private int history = 12;
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public long getIntervalMillis() {
+            return intervalMillis;
+        }
+
+        public void setIntervalMillis(long intervalMillis) {
+            this.intervalMillis = intervalMillis;
+        }
+
+        public int getHistory() {
+            return history;
+        }
+
+        public void setHistory(int history) {
+            this.history = history;
+        }
+    }
+
     public static class Node {
         private String name;
         private String url;
+        // collector node_exporter yang diminta via collect[]=... — kosong = semua collector (/metrics penuh)
+        private List<String> collectors = List.of();
+        // nama entry di monitoring.filterGroups (opsional)
+        private String filterGroup;
+        // override filter khusus node ini (opsional)
+        private Filters filters;
 
         public String getName() {
             return name;
@@ -57,5 +293,36 @@ public class MonitoringProps {
         public void setUrl(String url) {
             this.url = url;
         }
+
+        /**
+         * Key node di hasil snapshot: name kalau ada, kalau tidak url.
+         */
+        public String key() {
+            return (name != null && !name.isBlank()) ? name : url;
+        }
+
+        public List<String> getCollectors() {
+            return collectors;
+        }
+
+        public void setCollectors(List<String> collectors) {
+            this.collectors = collectors;
+        }
+
+        public String getFilterGroup() {
+            return filterGroup;
+        }
+
+        public void setFilterGroup(String filterGroup) {
+            this.filterGroup = filterGroup;
+        }
+
+        public Filters getFilters() {
+            return filters;
+        }
+
+        public void setFilters(Filters filters) {
+            this.filters = filters;
+        }
     }
 }
@@ -0,0 +1,84 @@
+package id.my.agungdh.discordbotservermonitoring.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Batas query Prometheus bersamaan per lane (ALERT / INTERACTIVE / REST).
+ * Batas in-flight host Prometheus (http.maxInFlightPerHost) dinaikkan otomatis ke jumlah slot ketiga lane
+ * supaya lane ALERT tidak ikut antre di slot host.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "prometheus.bulkhead")
+public class PrometheusBulkheadProps {
+    private boolean enabled = true;
+    // polling alert: sedikit slot tapi tidak pernah berebut dengan query user
+    private Lane alert = new Lane(4, 2_000);
+    // slash command (/errors dsb.)
+    private Lane interactive = new Lane(6, 60_000);
+    // endpoint REST + job background
+    private Lane rest = new Lane(4, 30_000);
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public Lane getAlert() {
+        return alert;
+    }
+
+    public void setAlert(Lane alert) {
+        this.alert = alert;
+    }
+
+    public Lane getInteractive() {
+        return interactive;
+    }
+
+    public void setInteractive(Lane interactive) {
+        this.interactive = interactive;
+    }
+
+    public Lane getRest() {
+        return rest;
+    }
+
+    public void setRest(Lane rest) {
+        this.rest = rest;
+    }
+
+    public static class Lane {
+        private int maxConcurrent;
+        // lama maksimal antre slot sebelum query ditolak
+        private long maxWaitMillis;
+
+        public Lane() {
+            this(4, 30_000);
+        }
+
+        public Lane(int maxConcurrent, long maxWaitMillis) {
+            this.maxConcurrent = maxConcurrent;
+            this.maxWaitMillis = maxWaitMillis;
+        }
+
+        public int getMaxConcurrent() {
+            return maxConcurrent;
+        }
+
+        public void setMaxConcurrent(int maxConcurrent) {
+            this.maxConcurrent = maxConcurrent;
+        }
+
+        public long getMaxWaitMillis() {
+            return maxWaitMillis;
+        }
+
+        public void setMaxWaitMillis(long maxWaitMillis) {
+            this.maxWaitMillis = maxWaitMillis;
+        }
+    }
+}
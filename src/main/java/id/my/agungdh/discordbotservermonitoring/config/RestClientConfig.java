@@ -1,6 +1,7 @@
 // src/main/java/id/my/agungdh/discordbotservermonitoring/config/RestClientConfig.java
 package id.my.agungdh.discordbotservermonitoring.config;
 
+import id.my.agungdh.discordbotservermonitoring.client.HttpTransport;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -12,9 +13,11 @@ public class RestClientConfig {
 
     @Bean
     public RestClient wahaRestClient(RestClient.Builder builder,
+                                     HttpTransport transport,
+                                     HttpTransportProps httpProps,
                                      @Value("${waha.base-url}") String baseUrl,
                                      @Value("${waha.api-key}") String apiKey) {
-        return builder
+        return transport.configure(builder, httpProps.getWaha())
                 .baseUrl(baseUrl)
                 .defaultHeader(HttpHeaders.ACCEPT, "application/json")
                 .defaultHeader("X-API-KEY", apiKey)
@@ -0,0 +1,88 @@
+package id.my.agungdh.discordbotservermonitoring.controller;
+
+import id.my.agungdh.discordbotservermonitoring.DTO.alertmanager.AlertmanagerWebhook;
+import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.ProbeResultDTO;
+import id.my.agungdh.discordbotservermonitoring.config.AlertProps;
+import id.my.agungdh.discordbotservermonitoring.scheduler.AlertScheduler;
+import id.my.agungdh.discordbotservermonitoring.service.LocalProbeEvaluator;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Receiver webhook Alertmanager, contoh:
+ * <pre>
+ * receivers:
+ *   - name: discord-bot
+ *     webhook_configs:
+ *       - url: http://bot:8080/alerts/alertmanager
+ *         send_resolved: true
+ *         http_config: { authorization: { credentials: "&lt;alerts.push.token&gt;" } }
+ * </pre>
+ * dengan group_wait kecil (mis. 0s) supaya alert sampai ke Discord tanpa jeda.
+ */
+@RestController
+@RequestMapping("/alerts")
+@RequiredArgsConstructor
+public class AlertController {
+    private final AlertScheduler alertScheduler;
+    private final AlertProps alertProps;
+    private final LocalProbeEvaluator localProbeEvaluator;
+
+    @PostMapping("/alertmanager")
+    public ResponseEntity<Map<String, Object>> alertmanager(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody AlertmanagerWebhook payload
+    ) {
+        AlertProps.Push push = alertProps.getPush();
+        if (!push.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "alerts.push.enabled=false"));
+        }
+        if (!authorized(push.getToken(), authorization)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "unauthorized"));
+        }
+        int firing = alertScheduler.onAlertmanager(payload);
+        return ResponseEntity.ok(Map.of("firing", firing));
+    }
+
+    /**
+     * Hasil probe mentah (mis. dari prober lain / sidecar blackbox) → sliding window lokal.
+     * Aktif hanya dengan alerts.local.ingest.enabled, token sendiri (alerts.local.ingest.token).
+     */
+    @PostMapping("/probes")
+    public ResponseEntity<Map<String, Object>> probes(
+            @RequestHeader(value = HttpHeaders.AUTHORIZATION, required = false) String authorization,
+            @RequestBody List<@Valid ProbeResultDTO> results
+    ) {
+        AlertProps.Ingest ingest = alertProps.getLocal().getIngest();
+        if (!localProbeEvaluator.isEnabled() || !ingest.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("error", "alerts.local.ingest.enabled=false"));
+        }
+        if (!authorized(ingest.getToken(), authorization)) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(Map.of("error", "unauthorized"));
+        }
+        long now = System.currentTimeMillis();
+        for (ProbeResultDTO r : results) {
+            localProbeEvaluator.record(r.instance(), r.alias(), r.timestamp() == null ? now : r.timestamp(), r.success());
+        }
+        return ResponseEntity.ok(Map.of("accepted", results.size(), "targets", localProbeEvaluator.targetCount()));
+    }
+
+    private static boolean authorized(String token, String authorization) {
+        // tanpa token tidak ada yang diterima (AlertProps juga menolak start)
+        if (token == null || token.isBlank()) return false;
+        if (authorization == null || !authorization.startsWith("Bearer ")) return false;
+        // bandingkan constant-time
+        return MessageDigest.isEqual(
+                token.getBytes(StandardCharsets.UTF_8),
+                authorization.substring("Bearer ".length()).trim().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,48 @@
+package id.my.agungdh.discordbotservermonitoring.controller;
+
+import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.HttpHostStatsDTO;
+import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.NodeBreakerDTO;
+import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.PromLaneStatsDTO;
+import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.PromQueryStatsDTO;
+import id.my.agungdh.discordbotservermonitoring.client.HttpTransport;
+import id.my.agungdh.discordbotservermonitoring.client.PrometheusClient;
+import id.my.agungdh.discordbotservermonitoring.service.NodeCircuitBreaker;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/diagnostics")
+@RequiredArgsConstructor
+public class DiagnosticsController {
+    private final NodeCircuitBreaker nodeCircuitBreaker;
+    private final HttpTransport httpTransport;
+    private final PrometheusClient prometheusClient;
+
+    // Status circuit breaker per node node_exporter
+    @GetMapping("/breakers")
+    public Map<String, NodeBreakerDTO> breakers() {
+        return nodeCircuitBreaker.snapshot();
+    }
+
+    // Statistik transport HTTP bersama per host (in-flight, antrean slot, latency)
+    @GetMapping("/http")
+    public Map<String, HttpHostStatsDTO> http() {
+        return httpTransport.stats();
+    }
+
+    // Single-flight PromQL: berapa request yang numpang HTTP call request lain
+    @GetMapping("/prometheus")
+    public PromQueryStatsDTO prometheus() {
+        return prometheusClient.stats();
+    }
+
+    // Bulkhead Prometheus per lane (ALERT / INTERACTIVE / REST): slot, antrean, waktu tunggu
+    @GetMapping("/bulkhead")
+    public Map<String, PromLaneStatsDTO> bulkhead() {
+        return prometheusClient.laneStats();
+    }
+}
@@ -17,7 +17,6 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.time.*;
-import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -77,44 +76,50 @@ public class MainController {
 
     @GetMapping("/errors/today")
     public ErrorMinutesSummaryDTO errorsToday() {
-        var points = errorMinutesService.errorMinutesToday();
         var start = startOfToday();
         var end = Instant.now();
-        return buildSummary("today", start, end, points);
+        var result = errorMinutesService.errorMinutesWithMode(start, end);
+        return buildSummary("today", start, end, result);
     }
 
     @GetMapping("/errors/yesterday")
     public ErrorMinutesSummaryDTO errorsYesterday() {
-        var points = errorMinutesService.errorMinutesYesterday();
         var start = startOfYesterday();
         var end = startOfToday();
-        return buildSummary("yesterday", start, end, points);
+        var result = errorMinutesService.errorMinutesWithMode(start, end);
+        return buildSummary("yesterday", start, end, result);
     }
 
     @GetMapping("/errors/twodaysago")
     public ErrorMinutesSummaryDTO errorsTwoDaysAgo() {
-        var points = errorMinutesService.errorMinutesTwoDaysAgo();
         var start = startOfNDaysAgo(2);
         var end = startOfNDaysAgo(1);
-        return buildSummary("two-days-ago", start, end, points);
+        var result = errorMinutesService.errorMinutesWithMode(start, end);
+        return buildSummary("two-days-ago", start, end, result);
     }
 
     // 1 minggu terakhir: H-7 00:00 → sekarang
     @GetMapping("/errors/last-week")
     public ErrorMinutesSummaryDTO errorsLastWeekUntilNow() {
-        var points = errorMinutesService.errorMinutesLastWeekUntilNow();
         var start = startOfNDaysAgo(7);
         var end = Instant.now();
-        return buildSummary("last-week-until-now", start, end, points);
+        var result = errorMinutesService.errorMinutesWithMode(start, end);
+        return buildSummary("last-week-until-now", start, end, result);
     }
 
     // 2 minggu terakhir: H-14 00:00 → sekarang
     @GetMapping("/errors/last-2weeks")
     public ErrorMinutesSummaryDTO errorsLast2WeeksUntilNow() {
-        var points = errorMinutesService.errorMinutesLast2WeeksUntilNow();
         var start = startOfNDaysAgo(14);
         var end = Instant.now();
-        return buildSummary("last-2weeks-until-now", start, end, points);
+        var result = errorMinutesService.errorMinutesWithMode(start, end);
+        return buildSummary("last-2weeks-until-now", start, end, result);
+    }
+
+    // Recording rule Prometheus untuk menit error (pasang di rule_files → query jadi jauh lebih ringan)
+    @GetMapping(value = "/errors/recording-rules", produces = "text/plain;charset=UTF-8")
+    public String errorsRecordingRules() {
+        return errorMinutesService.recordingRulesYaml();
     }
 
     // Generic: sejak interval dinamis (pakai IntervalService), contoh: /errors/since?n=7d
@@ -126,8 +131,8 @@ public class MainController {
         Instant start = thenZ.toInstant();
         Instant end = nowZ.toInstant();
 
-        var points = fetchByAbsoluteRange(start, end);
-        return buildSummary("since-" + pd.toIsoString(), start, end, points);
+        var result = errorMinutesService.errorMinutesWithMode(start, end);
+        return buildSummary("since-" + pd.toIsoString(), start, end, result);
     }
 
     // Generic absolut: /errors?start=2025-09-01T00:00:00+07:00&end=2025-09-02T00:00:00+07:00
@@ -138,13 +143,15 @@ public class MainController {
     ) {
         Instant start = ZonedDateTime.parse(startIso).toInstant();
         Instant end = ZonedDateTime.parse(endIso).toInstant();
-        var points = fetchByAbsoluteRange(start, end);
-        return buildSummary("custom", start, end, points);
+        var result = errorMinutesService.errorMinutesWithMode(start, end);
+        return buildSummary("custom", start, end, result);
     }
 
     private ErrorMinutesSummaryDTO buildSummary(String period, Instant start, Instant end,
-                                                List<PrometheusClient.ResultPoint> points) {
+                                                ErrorMinutesService.Result result) {
+        var points = result.points();
         long total = Math.round(points.stream().mapToDouble(PrometheusClient.ResultPoint::value).sum());
+        var plan = result.mode();
         var list = points.stream()
                 .map(p -> TargetErrorDTO.builder()
                         .instance(p.instance())
@@ -159,22 +166,8 @@ public class MainController {
                 .end(end)
                 .totalMinutes(total)
                 .results(list)
+                .mode(plan.mode())
+                .precision(plan.precision())
                 .build();
     }
-
-    private List<PrometheusClient.ResultPoint> fetchByAbsoluteRange(Instant start, Instant end) {
-        return errorMinutesServiceErrorRange(start, end);
-    }
-
-    // --- Wrapper kecil karena ErrorMinutesService tidak expose method "by range" publik ---
-    private List<PrometheusClient.ResultPoint> errorMinutesServiceErrorRange(Instant start, Instant end) {
-        try {
-            var m = ErrorMinutesService.class.getDeclaredMethod("queryErrorMinutes", Instant.class, Instant.class);
-            m.setAccessible(true);
-            //noinspection unchecked
-            return (List<PrometheusClient.ResultPoint>) m.invoke(errorMinutesService, start, end);
-        } catch (Exception e) {
-            throw new RuntimeException("Failed to query error minutes by range", e);
-        }
-    }
 }
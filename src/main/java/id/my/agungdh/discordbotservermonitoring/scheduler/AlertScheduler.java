@@ -1,7 +1,12 @@
 package id.my.agungdh.discordbotservermonitoring.scheduler;
 
+import id.my.agungdh.discordbotservermonitoring.DTO.alertmanager.AlertmanagerWebhook;
+import id.my.agungdh.discordbotservermonitoring.client.PromLane;
 import id.my.agungdh.discordbotservermonitoring.client.PrometheusClient;
+import id.my.agungdh.discordbotservermonitoring.config.AlertProps;
 import id.my.agungdh.discordbotservermonitoring.service.DiscordService;
+import id.my.agungdh.discordbotservermonitoring.service.LocalProbeEvaluator;
+import jakarta.annotation.PreDestroy;
 import lombok.RequiredArgsConstructor;
 import org.jfree.chart.ChartFactory;
 import org.jfree.chart.ChartUtils;
@@ -19,6 +24,9 @@ import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 @Component
 @RequiredArgsConstructor
@@ -36,8 +44,12 @@ public class AlertScheduler {
     private static final long POLL_INTERVAL_MS = 3000L;
     // Cooldown alert (detik)
     private static final long COOLDOWN_SEC = 60L;
+    // ambang gagal/1m (sama dengan alert rule Alertmanager: QUERY >= 5)
+    private static final double DOWN_THRESHOLD = 5.0;
     private final PrometheusClient prom;
     private final DiscordService discordService;
+    private final AlertProps alertProps;
+    private final LocalProbeEvaluator localProbes;
     // ====== IDs tetap lewat env/properties (kalau mau, ini juga bisa dijadikan constant) ======
     @Value("${discord.guild-id}")
     String guildId;
@@ -46,6 +58,16 @@ public class AlertScheduler {
     private GlobalDownSession session = null;
     private Instant clearSince = null;
     private long lastGlobalAlertEpoch = 0L;
+    // mode push: alert firing terakhir dari Alertmanager per instance
+    private final Map<String, Down> pushed = new HashMap<>();
+    private Instant lastPoll = Instant.EPOCH;
+    // evaluasi yang dipicu webhook: di luar thread HTTP (Discord, chart recovery); beberapa push
+    // beruntun digabung jadi satu evaluasi
+    private final ExecutorService pushEvaluator = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("alert-push-eval").factory());
+    private final AtomicBoolean pushEvalPending = new AtomicBoolean();
+    // semua instance yang dikembalikan QUERY di poll terakhir
+    private Set<String> lastPolledInstances = Set.of();
 
     private static String tsLocal(Instant ts) {
         return ts.atZone(ZoneId.systemDefault()).format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm"));
@@ -63,18 +85,161 @@ public class AlertScheduler {
     // pakai fixedDelay = constant (bukan fixedDelayString dari env)
     @Scheduled(fixedDelay = POLL_INTERVAL_MS)
     public void tick() {
-        var results = prom.instantQuery(QUERY);
-        long nowEpoch = Instant.now().getEpochSecond();
-        Instant now = Instant.ofEpochSecond(nowEpoch);
+        Instant now = Instant.ofEpochSecond(Instant.now().getEpochSecond());
+        AlertProps.Push push = alertProps.getPush();
+        boolean local = localProbes.isLive(now);
+        if (!pollDue(now, push, local)) {
+            // tanpa query: window lokal dan/atau state push; timer recovery & cooldown tetap jalan
+            List<Runnable> outbox;
+            synchronized (this) {
+                outbox = evaluate(now, currentDowns(now, local, List.of()));
+            }
+            send(outbox);
+            return;
+        }
+
+        // lane ALERT: slot sendiri, tidak antre di belakang query /errors
+        var results = PromLane.ALERT.call(() -> prom.instantQuery(QUERY));
+        lastPoll = now;
 
         // kumpulkan target down
-        List<PrometheusClient.ResultPoint> downs = new ArrayList<>();
+        List<Down> downs = new ArrayList<>();
+        Set<String> instances = new HashSet<>();
         for (PrometheusClient.ResultPoint r : results) {
-            if (r.value() >= 5.0) downs.add(r);
+            instances.add(r.instance());
+            if (r.value() >= DOWN_THRESHOLD) downs.add(new Down(r.instance(), r.alias(), r.value(), now));
+        }
+
+        List<Runnable> outbox;
+        synchronized (this) {
+            if (push.isEnabled()) {
+                // Prometheus = sumber kebenaran: buang firing yang resolved-nya hilang, kecuali push yang
+                // datang selama query ini berjalan
+                pushed.values().removeIf(d -> d.seenAt().isBefore(now));
+                for (Down d : downs) pushed.putIfAbsent(d.instance(), d);
+            }
+            lastPolledInstances = instances;
+            outbox = evaluate(now, currentDowns(now, local, downs));
+        }
+        send(outbox);
+    }
+
+    /**
+     * Query Prometheus di tick ini? Tanpa push dan tanpa window lokal: selalu. Dengan push: tiap
+     * fallbackPollMillis (Alertmanager meliput target lain di antaranya). Window lokal saja baru boleh
+     * menggantikan poll kalau semua instance di hasil QUERY terakhir diprobe lokal — target lain tetap
+     * dari Prometheus tiap tick; poll jarang tetap jalan supaya target baru di Prometheus ketahuan.
+     */
+    private boolean pollDue(Instant now, AlertProps.Push push, boolean local) {
+        long sinceLastPoll = Duration.between(lastPoll, now).toMillis();
+        if (push.isEnabled()) return sinceLastPoll >= push.getFallbackPollMillis();
+        if (!local) return true;
+        for (String instance : lastPolledInstances) {
+            if (!localProbes.tracks(instance, now)) return true;
+        }
+        return sinceLastPoll >= alertProps.getLocal().getRediscoverMillis();
+    }
+
+    /**
+     * Webhook Alertmanager: firing → target down, resolved → dilepas. Payload diterapkan di bawah lock lalu
+     * state machine dievaluasi di thread sendiri (tanpa menunggu tick), jadi webhook langsung dijawab dan
+     * tidak ikut menunggu Discord / chart. Alert tanpa label instance diabaikan.
+     *
+     * @return jumlah target yang sedang firing setelah payload diterapkan
+     */
+    public int onAlertmanager(AlertmanagerWebhook payload) {
+        int firing;
+        synchronized (this) {
+            Instant now = Instant.ofEpochSecond(Instant.now().getEpochSecond());
+            if (payload.alerts() != null) {
+                for (AlertmanagerWebhook.Alert a : payload.alerts()) {
+                    String instance = a.label("instance");
+                    if (instance == null || instance.isBlank()) continue;
+                    if (a.firing()) {
+                        pushed.put(instance, new Down(instance, a.label("alias"), parseValue(a.annotation("value")), now));
+                    } else {
+                        pushed.remove(instance);
+                    }
+                }
+            }
+            firing = pushed.size();
+        }
+        if (pushEvalPending.compareAndSet(false, true)) {
+            pushEvaluator.execute(() -> {
+                pushEvalPending.set(false);
+                try {
+                    Instant now = Instant.ofEpochSecond(Instant.now().getEpochSecond());
+                    boolean local = localProbes.isLive(now);
+                    List<Runnable> outbox;
+                    synchronized (this) {
+                        outbox = evaluate(now, currentDowns(now, local, List.of()));
+                    }
+                    send(outbox);
+                } catch (Exception e) {
+                    log.error("Evaluasi alert dari webhook gagal: {}", e.getMessage(), e);
+                }
+            });
+        }
+        return firing;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        pushEvaluator.shutdownNow();
+    }
+
+    /**
+     * Target down saat ini: window lokal (kalau hidup) untuk target yang diprobe lokal; target lain dari
+     * {@code polled} (poll tick ini) dan firing Alertmanager. Dipanggil dengan lock this.
+     */
+    private List<Down> currentDowns(Instant now, boolean local, List<Down> polled) {
+        List<Down> downs = new ArrayList<>();
+        Set<String> added = new HashSet<>();
+        if (local) {
+            for (var f : localProbes.failing(now, DOWN_THRESHOLD)) {
+                downs.add(new Down(f.instance(), f.alias(), f.fails(), now));
+                added.add(f.instance());
+            }
+        }
+        List<Down> others = new ArrayList<>(polled);
+        others.addAll(pushed.values());
+        for (Down d : others) {
+            if (local && localProbes.tracks(d.instance(), now)) continue;
+            if (added.add(d.instance())) downs.add(d);
+        }
+        return downs;
+    }
+
+    // annotation "value" diisi {{ $value }} di alert rule; tanpa itu jumlah gagal tidak diketahui
+    private static double parseValue(String v) {
+        if (v == null || v.isBlank()) return Double.NaN;
+        try {
+            return Double.parseDouble(v.trim());
+        } catch (NumberFormatException e) {
+            return Double.NaN;
         }
+    }
+
+    // kirim ke Discord di luar lock: tick / webhook lain tidak menunggu Discord atau render chart
+    private void send(List<Runnable> outbox) {
+        for (Runnable r : outbox) {
+            try {
+                r.run();
+            } catch (Exception e) {
+                log.error("Failed to send alert: {}", e.getMessage(), e);
+            }
+        }
+    }
+
+    /**
+     * GLOBAL SESSION STATE (dipanggil dengan lock this). Hanya mengubah state; pesan Discord dan chart
+     * recovery dikembalikan sebagai aksi untuk dijalankan setelah lock dilepas.
+     */
+    private List<Runnable> evaluate(Instant now, List<Down> downs) {
+        long nowEpoch = now.getEpochSecond();
         boolean anyDown = !downs.isEmpty();
+        List<Runnable> outbox = new ArrayList<>();
 
-        // ===== GLOBAL SESSION STATE =====
         if (session == null) {
             if (anyDown) {
                 session = new GlobalDownSession(now);
@@ -95,36 +260,11 @@ public class AlertScheduler {
             } else {
                 if (clearSince == null) clearSince = now;
                 if (Duration.between(clearSince, now).compareTo(Duration.ofMinutes(1)) >= 0) {
-                    try {
-                        Instant start = session.start;
-                        File chart = buildOutageChartPerTarget(session, start, now);
-
-                        String duration = humanDuration(Duration.between(start, now));
-                        String caption = String.format(
-                                "[PING RECOVERY] ALL TARGETS UP ✅\nDowntime: %s\nWindow: %s → %s (%s)\nTargets involved: %s",
-                                duration,
-                                tsLocal(start),
-                                tsLocal(now),
-                                ZoneId.systemDefault(),
-                                String.join(", ", session.instances)
-                        );
-
-                        if (chart != null && chart.exists()) {
-                            discordService.sendFile(guildId, channelId, chart, caption);
-                            if (!chart.delete()) {
-                                log.debug("Temp chart retained at {}", chart.getAbsolutePath());
-                            }
-                        } else {
-                            discordService.sendMessage(guildId, channelId, caption + "\n(no chart data)");
-                        }
-
-                        log.info("End GLOBAL DOWN session at {} (duration {})", now, duration);
-                    } catch (Exception e) {
-                        log.error("Failed to build/send outage chart: {}", e.getMessage(), e);
-                    } finally {
-                        session = null;
-                        clearSince = null;
-                    }
+                    // sesi yang selesai tidak diubah lagi → aman dibaca di luar lock
+                    GlobalDownSession ended = session;
+                    session = null;
+                    clearSince = null;
+                    outbox.add(() -> sendRecovery(ended, now));
                 }
             }
         }
@@ -138,11 +278,44 @@ public class AlertScheduler {
             downs.sort((a, b) -> Double.compare(b.value(), a.value()));
             for (var r : downs) {
                 String alias = (r.alias() == null || r.alias().isBlank()) ? "-" : r.alias();
-                sb.append(String.format("- `%s` (%s): %d/1m\n", r.instance(), alias, (int) r.value()));
+                String fails = Double.isNaN(r.value()) ? "firing" : (int) r.value() + "/1m";
+                sb.append(String.format("- `%s` (%s): %s\n", r.instance(), alias, fails));
             }
-            discordService.sendMessage(guildId, channelId, sb.toString());
+            String msg = sb.toString();
+            outbox.add(() -> discordService.sendMessage(guildId, channelId, msg));
             lastGlobalAlertEpoch = nowEpoch;
         }
+        return outbox;
+    }
+
+    private void sendRecovery(GlobalDownSession ended, Instant now) {
+        try {
+            Instant start = ended.start;
+            File chart = buildOutageChartPerTarget(ended, start, now);
+
+            String duration = humanDuration(Duration.between(start, now));
+            String caption = String.format(
+                    "[PING RECOVERY] ALL TARGETS UP ✅\nDowntime: %s\nWindow: %s → %s (%s)\nTargets involved: %s",
+                    duration,
+                    tsLocal(start),
+                    tsLocal(now),
+                    ZoneId.systemDefault(),
+                    String.join(", ", ended.instances)
+            );
+
+            if (chart != null && chart.exists()) {
+                discordService.sendFile(guildId, channelId, chart, caption);
+                if (!chart.delete()) {
+                    log.debug("Temp chart retained at {}", chart.getAbsolutePath());
+                }
+            } else {
+                discordService.sendMessage(guildId, channelId, caption + "\n(no chart data)");
+            }
+
+            log.info("End GLOBAL DOWN session at {} (duration {})", now, duration);
+        } catch (Exception e) {
+            log.error("Failed to build/send outage chart: {}", e.getMessage(), e);
+        }
     }
 
     /**
@@ -154,11 +327,21 @@ public class AlertScheduler {
         DefaultCategoryDataset dataset = new DefaultCategoryDataset();
         DateTimeFormatter fmt = DateTimeFormatter.ofPattern("HH:mm").withZone(ZoneId.systemDefault());
 
+        // satu range query untuk semua target di sesi; series lain di-skip saat decode
+        var all = PromLane.ALERT.call(() -> prom.rangeQueryAll(QUERY, start, end, Duration.ofMinutes(1),
+                m -> sess.instances.contains(m.getOrDefault("instance", ""))));
+        Map<TargetKey, PrometheusClient.Series> byTarget = new HashMap<>();
+        for (var s : all.values()) {
+            byTarget.putIfAbsent(new TargetKey(s.metric().getOrDefault("instance", ""),
+                    s.metric().getOrDefault("alias", "")), s);
+        }
+
         for (String inst : sess.instances) {
             String alias = sess.aliasByInstance.getOrDefault(inst, "");
-            var series = prom.rangeQuery(QUERY, start, end, Duration.ofMinutes(1), inst, alias);
+            var series = byTarget.get(new TargetKey(inst, alias));
+            if (series == null) continue;
             String seriesName = alias.isBlank() ? inst : alias + " (" + inst + ")";
-            for (PrometheusClient.RangePoint p : series) {
+            for (PrometheusClient.RangePoint p : series.points()) {
                 dataset.addValue(p.value(), seriesName, fmt.format(p.timestamp()));
             }
         }
@@ -177,6 +360,13 @@ public class AlertScheduler {
         return tmp;
     }
 
+    private record TargetKey(String instance, String alias) {
+    }
+
+    // target down: dari hasil QUERY (poll) atau alert Alertmanager (push); value NaN = jumlah gagal tidak diketahui
+    private record Down(String instance, String alias, double value, Instant seenAt) {
+    }
+
     // ===== Global down session =====
     private static final class GlobalDownSession {
         final Instant start;
@@ -0,0 +1,66 @@
+package id.my.agungdh.discordbotservermonitoring.scheduler;
+
+import id.my.agungdh.discordbotservermonitoring.client.BlackboxProbeClient;
+import id.my.agungdh.discordbotservermonitoring.config.AlertProps;
+import id.my.agungdh.discordbotservermonitoring.service.LocalProbeEvaluator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Probe tiap target langsung ke blackbox_exporter dan masukkan hasilnya ke LocalProbeEvaluator.
+ * Satu virtual thread per probe; target yang probe sebelumnya belum selesai dilewati di putaran ini,
+ * jadi target yang lambat/timeout tidak menahan target lain. Probe yang error / timeout dicatat gagal,
+ * supaya target yang tidak bisa dijangkau tetap mengisi window (bukan window kosong yang tidak pernah alert).
+ */
+@Component
+public class BlackboxProbePoller {
+
+    private static final Logger log = LoggerFactory.getLogger(BlackboxProbePoller.class);
+
+    private final BlackboxProbeClient client;
+    private final LocalProbeEvaluator evaluator;
+    private final AlertProps.Local props;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    public BlackboxProbePoller(BlackboxProbeClient client, LocalProbeEvaluator evaluator, AlertProps alertProps) {
+        this.client = client;
+        this.evaluator = evaluator;
+        this.props = alertProps.getLocal();
+    }
+
+    @Scheduled(fixedRateString = "${alerts.local.blackbox.intervalMillis:1000}")
+    public void poll() {
+        AlertProps.Blackbox bb = props.getBlackbox();
+        if (!props.isEnabled() || bb.getUrl() == null || bb.getUrl().isBlank()) return;
+        for (AlertProps.Target t : bb.getTargets()) {
+            String target = t.getTarget();
+            if (target == null || target.isBlank() || !inFlight.add(target)) continue;
+            long startedAt = System.currentTimeMillis();
+            executor.submit(() -> {
+                try {
+                    boolean ok = client.probe(bb.getUrl(), bb.getModule(), target);
+                    evaluator.record(target, t.getAlias(), startedAt, ok);
+                } catch (Exception e) {
+                    log.debug("Probe {} gagal: {}", target, e.getMessage());
+                    evaluator.record(target, t.getAlias(), startedAt, false);
+                } finally {
+                    inFlight.remove(target);
+                }
+            });
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,64 @@
+package id.my.agungdh.discordbotservermonitoring.scheduler;
+
+import id.my.agungdh.discordbotservermonitoring.DiscordBotServerMonitoringApplication;
+import id.my.agungdh.discordbotservermonitoring.service.DailyRollupStore;
+import id.my.agungdh.discordbotservermonitoring.service.ErrorMinutesService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Tiap lewat tengah malam (WIB): hitung rollup menit error hari yang baru selesai dan simpan ke DailyRollupStore.
+ * Hari yang belum punya rollup (bot mati, query gagal) diisi ulang sampai {@code backfillDays} ke belakang.
+ */
+@Component
+public class ErrorMinutesRollup {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorMinutesRollup.class);
+
+    private final ErrorMinutesService svc;
+    private final DailyRollupStore store;
+    private final int backfillDays;
+
+    public ErrorMinutesRollup(
+            ErrorMinutesService svc,
+            DailyRollupStore store,
+            @Value("${prometheus.errorMinutes.rollup.backfillDays:14}") int backfillDays
+    ) {
+        this.svc = svc;
+        this.store = store;
+        this.backfillDays = backfillDays;
+    }
+
+    // saat startup jalan di virtual thread supaya backfill tidak menahan aplikasi
+    @EventListener(ApplicationReadyEvent.class)
+    public void onReady() {
+        Thread.startVirtualThread(this::rollupCompletedDays);
+    }
+
+    // 00:02 — data menit terakhir hari kemarin sudah pasti masuk Prometheus
+    @Scheduled(cron = "${prometheus.errorMinutes.rollup.cron:0 2 0 * * *}",
+            zone = DiscordBotServerMonitoringApplication.ZONE_ID)
+    public synchronized void rollupCompletedDays() {
+        if (!store.isEnabled()) return;
+        LocalDate today = LocalDate.now(DiscordBotServerMonitoringApplication.ZONE);
+        for (int i = backfillDays; i >= 1; i--) {
+            LocalDate day = today.minusDays(i);
+            if (store.has(day)) continue;
+            try {
+                DailyRollupStore.DayRollup r = svc.computeDay(day);
+                store.put(r);
+                log.info("Rollup error minutes {}: {} target, any down {} menit", day, r.perTarget().size(), r.anyDown());
+            } catch (Exception e) {
+                // dicoba lagi di run berikutnya; window yang butuh hari ini tetap jalan via query live
+                log.warn("Rollup error minutes {} gagal: {}", day, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.DiscordBotServerMonitoringApplication;
+import id.my.agungdh.discordbotservermonitoring.client.PrometheusClient;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Rollup harian menit error: per target + "any down" untuk hari yang sudah selesai (zona lokal), dipersist ke file.
+ * Hari yang sudah lewat tidak berubah lagi → window multi-hari = jumlah rollup + query live untuk sisa (hari ini).
+ * Diisi oleh ErrorMinutesRollup tiap lewat tengah malam.
+ */
+@Component
+public class DailyRollupStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DailyRollupStore.class);
+    private static final int MAGIC = 0x45524431; // "ERD1"
+
+    private final Map<LocalDate, DayRollup> days = new ConcurrentSkipListMap<>();
+
+    @Value("${prometheus.errorMinutes.rollup.enabled:true}")
+    private boolean enabled;
+    @Value("${prometheus.errorMinutes.rollup.file:data/error-rollups.bin}")
+    private String file;
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Rollup hari tsb, atau null kalau belum ada.
+     */
+    public DayRollup get(LocalDate day) {
+        return enabled ? days.get(day) : null;
+    }
+
+    public boolean has(LocalDate day) {
+        return days.containsKey(day);
+    }
+
+    public synchronized void put(DayRollup rollup) {
+        days.put(rollup.day(), rollup);
+        persist();
+    }
+
+    @PostConstruct
+    void load() {
+        if (!enabled) return;
+        Path path = Path.of(file);
+        if (!Files.exists(path)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) throw new IOException("format file tidak dikenal");
+            String zone = in.readUTF();
+            // batas hari tergantung zona → rollup zona lain tidak bisa dipakai
+            if (!zone.equals(DiscordBotServerMonitoringApplication.ZONE.getId())) {
+                log.warn("Rollup {} dibuat dengan zona {}, sekarang {} — diabaikan", path, zone, DiscordBotServerMonitoringApplication.ZONE);
+                return;
+            }
+            int n = in.readInt();
+            for (int i = 0; i < n; i++) {
+                LocalDate day = LocalDate.ofEpochDay(in.readInt());
+                long anyDown = in.readShort();
+                int targets = in.readInt();
+                List<PrometheusClient.ResultPoint> points = new ArrayList<>(targets);
+                for (int t = 0; t < targets; t++) {
+                    points.add(new PrometheusClient.ResultPoint(in.readUTF(), in.readUTF(), in.readShort()));
+                }
+                days.put(day, new DayRollup(day, anyDown, List.copyOf(points)));
+            }
+            log.info("Rollup error minutes dimuat dari {}: {} hari", path, n);
+        } catch (IOException e) {
+            log.warn("Gagal baca rollup {}: {} — dihitung ulang", path, e.getMessage());
+            days.clear();
+        }
+    }
+
+    // format: MAGIC, zona, [epochDay:int, anyDown:short, n:int, (instance, alias, menit:short)*]*
+    // (maks 1440 menit/hari → muat di short); tulis ke .tmp lalu rename atomik
+    private void persist() {
+        Path path = Path.of(file).toAbsolutePath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                out.writeUTF(DiscordBotServerMonitoringApplication.ZONE.getId());
+                out.writeInt(days.size());
+                for (DayRollup r : days.values()) {
+                    out.writeInt((int) r.day().toEpochDay());
+                    out.writeShort((int) r.anyDown());
+                    out.writeInt(r.perTarget().size());
+                    for (var p : r.perTarget()) {
+                        out.writeUTF(p.instance() == null ? "" : p.instance());
+                        out.writeUTF(p.alias() == null ? "" : p.alias());
+                        out.writeShort((int) Math.round(p.value()));
+                    }
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Gagal simpan rollup {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Total satu hari lokal penuh, window (00:00, 24:00].
+     */
+    public record DayRollup(LocalDate day, long anyDown, List<PrometheusClient.ResultPoint> perTarget) {
+    }
+}
@@ -0,0 +1,303 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.client.PrometheusClient;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Index lokal menit down per target blackbox: satu bitmap (1 bit/menit) per target, diisi inkremental
+ * dari Prometheus tiap menit dan dipersist ke file. Pertanyaan "berapa menit target X down di (start, end]"
+ * dijawab dengan popcount / OR bitmap — mikrodetik, dan tetap bisa untuk range di luar retensi Prometheus.
+ * <p>
+ * Bit menit m = indikator guarded yang dievaluasi di akhir menit, yaitu data ((m)*60, (m+1)*60].
+ * {@code covered} = menit yang sudah diisi; range yang belum ter-cover tetap dijawab Prometheus.
+ */
+@Component
+public class DowntimeBitmapStore {
+
+    private static final Logger log = LoggerFactory.getLogger(DowntimeBitmapStore.class);
+    private static final int MAGIC = 0x44544D31; // "DTM1"
+    // batas titik per series Prometheus 11.000 → satu query paling banyak 10.000 menit
+    private static final int MAX_POINTS_PER_QUERY = 10_000;
+    // fill gagal (mis. timeout) → jeda sebelum query berikutnya, x2 tiap gagal berturut-turut
+    private static final long INITIAL_BACKOFF_MILLIS = 60_000;
+    private static final long MAX_BACKOFF_MILLIS = 30 * 60_000;
+
+    private final PrometheusClient prometheus;
+    // satu fill pada satu waktu (tick terjadwal / catch-up dari request)
+    private final ReentrantLock fillLock = new ReentrantLock();
+    private MinuteBitmap covered = new MinuteBitmap();
+    private Map<TargetKey, TargetBits> targets = new LinkedHashMap<>();
+    // hanya diubah dengan fillLock dipegang
+    private long backoffMillis = 0;
+    private volatile long retryAt = 0;
+
+    @Value("${prometheus.blackbox.job:blackbox_ping}")
+    private String blackboxJob;
+    @Value("${prometheus.errorMinutes.bitmap.enabled:true}")
+    private boolean enabled;
+    @Value("${prometheus.errorMinutes.bitmap.file:data/downtime-bitmaps.bin}")
+    private String file;
+    // backfill pertama kali: cukup untuk window /errors terlebar (H-14 00:00)
+    @Value("${prometheus.errorMinutes.bitmap.backfillDays:15}")
+    private int backfillDays;
+    // menit per range query ([1m:1s] → 60 titik inner per menit per target); default 1 hari
+    @Value("${prometheus.errorMinutes.bitmap.chunkMinutes:1440}")
+    private int chunkMinutes;
+    // 0 = simpan selamanya
+    @Value("${prometheus.errorMinutes.bitmap.retentionDays:0}")
+    private int retentionDays;
+
+    public DowntimeBitmapStore(PrometheusClient prometheus) {
+        this.prometheus = prometheus;
+    }
+
+    @PostConstruct
+    void load() {
+        if (!enabled) return;
+        Path path = Path.of(file);
+        if (!Files.exists(path)) return;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            if (in.readInt() != MAGIC) throw new IOException("format file tidak dikenal");
+            MinuteBitmap cov = MinuteBitmap.read(in);
+            int n = in.readInt();
+            Map<TargetKey, TargetBits> loaded = new LinkedHashMap<>();
+            for (int i = 0; i < n; i++) {
+                TargetKey key = new TargetKey(in.readUTF(), in.readUTF());
+                loaded.put(key, new TargetBits(MinuteBitmap.read(in), MinuteBitmap.read(in)));
+            }
+            synchronized (this) {
+                covered = cov;
+                targets = loaded;
+            }
+            log.info("Downtime bitmap dimuat dari {}: {} target", path, n);
+        } catch (IOException e) {
+            // file rusak → mulai ulang dari backfill, jangan gagal startup
+            log.warn("Gagal baca downtime bitmap {}: {} — diisi ulang dari Prometheus", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Lengkapi menit yang sudah selesai di [now - backfillDays, now) yang belum ter-cover (backfill awal, menit
+     * baru sejak tick terakhir, atau sisa backfill yang gagal), lalu persist.
+     * Jalan di virtual thread sendiri: backfill 15 hari bisa lama dan scheduler bawaan (2 thread) juga dipakai
+     * alert tick, collector node & poller blackbox. Tick yang datang saat fill sebelumnya masih jalan dilewati.
+     */
+    @Scheduled(fixedDelayString = "${prometheus.errorMinutes.bitmap.fillIntervalMillis:60000}")
+    public void fill() {
+        if (!enabled || fillLock.isLocked() || System.currentTimeMillis() < retryAt) return;
+        Thread.ofVirtual().name("bitmap-fill").start(() -> {
+            if (!fillLock.tryLock()) return;
+            try {
+                Instant now = Instant.now();
+                fillTo(now, backfillFloor(toMinute(now)));
+            } finally {
+                fillLock.unlock();
+            }
+        });
+    }
+
+    /**
+     * Tick fill tertinggal sampai fillIntervalMillis → window yang berakhir "sekarang" hampir tidak pernah ter-cover.
+     * Dipanggil sebelum {@link #covers} untuk window tsb: isi hanya menit setelah menit ter-cover terakhir, dan
+     * hanya kalau itu kecil (≤ 1 chunk). Backfill, backoff setelah gagal, atau fill lain yang sedang jalan →
+     * langsung kembali, window dijawab Prometheus.
+     */
+    public void catchUp(Instant now) {
+        if (!enabled || System.currentTimeMillis() < retryAt) return;
+        long to = toMinute(now), from;
+        synchronized (this) {
+            if (covered.isEmpty()) return;
+            from = covered.lastSet() + 1;
+        }
+        if (from >= to || to - from > chunkMinutes()) return;
+        if (!fillLock.tryLock()) return;
+        try {
+            fillTo(now, from);
+        } finally {
+            fillLock.unlock();
+        }
+    }
+
+    // menit m final kalau titik evaluasinya (m+1)*60 ≤ now - settle
+    private static long toMinute(Instant now) {
+        return ErrorMinutesService.alignToStep(now, now).getEpochSecond() / 60;
+    }
+
+    // menit terlama yang dijaga ter-cover; tidak lebih tua dari retensi (kalau tidak, di-drop lalu di-backfill lagi)
+    private long backfillFloor(long to) {
+        long floor = to - (long) backfillDays * MinuteBitmap.MINUTES_PER_CHUNK;
+        if (retentionDays > 0) {
+            long day = Math.floorDiv(to, MinuteBitmap.MINUTES_PER_CHUNK) - retentionDays;
+            floor = Math.max(floor, day * MinuteBitmap.MINUTES_PER_CHUNK);
+        }
+        return floor;
+    }
+
+    private int chunkMinutes() {
+        return Math.max(1, Math.min(MAX_POINTS_PER_QUERY, chunkMinutes));
+    }
+
+    /**
+     * Query range yang belum ter-cover di [floor, to), terbaru dulu, per chunk; tiap chunk langsung diterapkan
+     * dan dipersist, jadi kegagalan di tengah tidak membuang chunk yang sudah selesai dan data terbaru tersedia
+     * lebih dulu. Gagal → fill berikutnya menunggu backoff (x2 per kegagalan). Dipanggil dengan fillLock dipegang.
+     */
+    private void fillTo(Instant now, long floor) {
+        long to = toMinute(now);
+        List<long[]> runs = new ArrayList<>();
+        synchronized (this) {
+            int chunk = chunkMinutes();
+            long hi = to;
+            while (hi > floor) {
+                while (hi > floor && covered.get(hi - 1)) hi--;
+                if (hi <= floor) break;
+                long lo = hi - 1;
+                while (lo > floor && hi - lo < chunk && !covered.get(lo - 1)) lo--;
+                runs.add(new long[]{lo, hi});
+                hi = lo;
+            }
+        }
+        if (runs.isEmpty()) return;
+
+        String promql = "sum by (instance, alias) (" + ErrorMinutesService.perMinuteDownPromql(blackboxJob).trim() + ")";
+        for (long[] run : runs) {
+            try {
+                var series = prometheus.rangeQueryAll(promql,
+                        Instant.ofEpochSecond((run[0] + 1) * 60), Instant.ofEpochSecond(run[1] * 60), Duration.ofMinutes(1));
+                apply(series.values(), run[0], run[1]);
+            } catch (Exception e) {
+                long wait = failureBackoff();
+                // sisa range dicoba lagi setelah backoff
+                log.warn("Isi downtime bitmap {} → {} gagal: {} — coba lagi dalam {} s", Instant.ofEpochSecond(run[0] * 60),
+                        Instant.ofEpochSecond(run[1] * 60), e.getMessage(), wait / 1000);
+                return;
+            }
+            backoffMillis = 0;
+            persist();
+        }
+    }
+
+    private long failureBackoff() {
+        backoffMillis = backoffMillis == 0 ? INITIAL_BACKOFF_MILLIS : Math.min(MAX_BACKOFF_MILLIS, backoffMillis * 2);
+        retryAt = System.currentTimeMillis() + backoffMillis;
+        return backoffMillis;
+    }
+
+    private synchronized void apply(Collection<PrometheusClient.Series> series, long from, long to) {
+        for (var s : series) {
+            TargetKey key = new TargetKey(s.metric().getOrDefault("instance", ""), s.metric().getOrDefault("alias", ""));
+            TargetBits bits = targets.computeIfAbsent(key, k -> new TargetBits(new MinuteBitmap(), new MinuteBitmap()));
+            for (int i = 0; i < s.size(); i++) {
+                long m = s.timestampsMillis()[i] / 60_000 - 1;
+                if (m < from || m >= to) continue;
+                bits.seen.set(m);
+                if (s.values()[i] > 0) bits.down.set(m);
+            }
+        }
+        for (long m = from; m < to; m++) covered.set(m);
+        if (retentionDays > 0) {
+            long keepFromDay = Math.floorDiv(to, MinuteBitmap.MINUTES_PER_CHUNK) - retentionDays;
+            covered.dropBefore(keepFromDay);
+            for (TargetBits b : targets.values()) {
+                b.down.dropBefore(keepFromDay);
+                b.seen.dropBefore(keepFromDay);
+            }
+            targets.values().removeIf(b -> b.seen.isEmpty());
+        }
+    }
+
+    // tulis ke file sementara lalu rename atomik → file lama tetap utuh kalau proses mati di tengah
+    private synchronized void persist() {
+        Path path = Path.of(file).toAbsolutePath();
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try {
+            Files.createDirectories(path.getParent());
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(MAGIC);
+                covered.write(out);
+                out.writeInt(targets.size());
+                for (var e : targets.entrySet()) {
+                    out.writeUTF(e.getKey().instance());
+                    out.writeUTF(e.getKey().alias());
+                    e.getValue().down.write(out);
+                    e.getValue().seen.write(out);
+                }
+            }
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("Gagal simpan downtime bitmap {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * true kalau semua menit di (start, end] sudah ada di bitmap. start/end harus sudah di-align ke menit.
+     */
+    public synchronized boolean covers(Instant start, Instant end) {
+        if (!enabled) return false;
+        long a = start.getEpochSecond() / 60, b = end.getEpochSecond() / 60;
+        return b > a && covered.count(a, b) == b - a;
+    }
+
+    /**
+     * Menit error per target di (start, end]; target tanpa data di range tidak muncul (sama dengan query Prometheus).
+     */
+    public synchronized List<PrometheusClient.ResultPoint> errorMinutes(Instant start, Instant end) {
+        long a = start.getEpochSecond() / 60, b = end.getEpochSecond() / 60;
+        List<PrometheusClient.ResultPoint> out = new ArrayList<>();
+        for (var e : targets.entrySet()) {
+            if (e.getValue().seen.count(a, b) == 0) continue;
+            out.add(new PrometheusClient.ResultPoint(e.getKey().instance(), e.getKey().alias(),
+                    e.getValue().down.count(a, b)));
+        }
+        return out;
+    }
+
+    /**
+     * Menit di (start, end] di mana minimal satu target down (OR semua bitmap down).
+     */
+    public synchronized long anyDown(Instant start, Instant end) {
+        long a = start.getEpochSecond() / 60, b = end.getEpochSecond() / 60;
+        List<MinuteBitmap> downs = new ArrayList<>(targets.size());
+        for (TargetBits t : targets.values()) downs.add(t.down);
+        return MinuteBitmap.countUnion(downs, a, b);
+    }
+
+    /**
+     * Salin menit [originEpoch/60, +minutes) ke array per target (untuk ErrorMinutesBatch).
+     */
+    synchronized void export(long originEpoch, int minutes,
+                             Map<List<String>, int[]> down, Map<List<String>, boolean[]> seen) {
+        long base = originEpoch / 60;
+        for (var e : targets.entrySet()) {
+            TargetBits t = e.getValue();
+            if (t.seen.count(base, base + minutes) == 0) continue;
+            List<String> key = List.of(e.getKey().instance(), e.getKey().alias());
+            int[] d = down.computeIfAbsent(key, k -> new int[minutes]);
+            boolean[] h = seen.computeIfAbsent(key, k -> new boolean[minutes]);
+            for (int i = 0; i < minutes; i++) {
+                if (t.seen.get(base + i)) h[i] = true;
+                if (t.down.get(base + i)) d[i] = 1;
+            }
+        }
+    }
+
+    private record TargetKey(String instance, String alias) {
+    }
+
+    private record TargetBits(MinuteBitmap down, MinuteBitmap seen) {
+    }
+}
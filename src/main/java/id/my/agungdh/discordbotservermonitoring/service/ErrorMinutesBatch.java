@@ -0,0 +1,117 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.client.PrometheusClient;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Indikator down per menit per target untuk satu window lebar (hasil satu range query step 1m),
+ * disimpan sebagai prefix sum. Total sub-window mana pun (per target & "any down") dihitung di memori, O(1).
+ * <p>
+ * Menit ke-i = titik evaluasi {@code origin + (i+1) menit}, yaitu data (t-1m, t]; window (start, end]
+ * mencakup titik-titik menit di dalamnya. Hari penuh sebelum {@code origin} diambil dari rollup harian
+ * ({@link Day}) dan hanya ikut dihitung kalau seluruh harinya ada di dalam window.
+ */
+public final class ErrorMinutesBatch {
+
+    private final Instant now;
+    private final long originEpoch;
+    private final int minutes;
+    private final List<Target> targets;
+    private final long[] anyDownPrefix;
+    private final List<Span> spans;
+    private final List<Day> days;
+
+    ErrorMinutesBatch(Instant now, long originEpoch, int minutes, List<Target> targets, long[] anyDownPrefix,
+                      List<Span> spans, List<Day> days) {
+        this.now = now;
+        this.originEpoch = originEpoch;
+        this.minutes = minutes;
+        this.targets = targets;
+        this.anyDownPrefix = anyDownPrefix;
+        this.spans = spans;
+        this.days = days;
+    }
+
+    private static long aligned(Instant t, Instant now) {
+        return ErrorMinutesService.alignToStep(t, now).getEpochSecond();
+    }
+
+    // indeks prefix untuk batas window (di-align sama seperti query instant)
+    private int index(Instant t) {
+        long sec = aligned(t, now);
+        long i = Math.floorDiv(sec - originEpoch, 60L);
+        return (int) Math.max(0, Math.min(minutes, i));
+    }
+
+    /**
+     * Menit error per target dalam (start, end] — sama dengan errorMinutes(start, end) versi instant query.
+     */
+    public List<PrometheusClient.ResultPoint> errorMinutes(Instant start, Instant end) {
+        int a = index(start), b = index(end);
+        List<PrometheusClient.ResultPoint> out = new ArrayList<>();
+        if (b > a) {
+            for (Target t : targets) {
+                if (t.seenPrefix[b] - t.seenPrefix[a] == 0) continue; // tidak ada data di window → tidak muncul
+                out.add(new PrometheusClient.ResultPoint(t.instance, t.alias, t.downPrefix[b] - t.downPrefix[a]));
+            }
+        }
+        for (Day d : daysWithin(start, end)) out = ErrorMinutesService.mergePoints(d.rollup().perTarget(), out);
+        return out;
+    }
+
+    /**
+     * Menit di mana minimal satu target down dalam (start, end].
+     */
+    public long anyDown(Instant start, Instant end) {
+        int a = index(start), b = index(end);
+        long total = b <= a ? 0L : anyDownPrefix[b] - anyDownPrefix[a];
+        for (Day d : daysWithin(start, end)) total += d.rollup().anyDown();
+        return total;
+    }
+
+    private List<Day> daysWithin(Instant start, Instant end) {
+        long s = aligned(start, now), e = aligned(end, now);
+        List<Day> out = new ArrayList<>();
+        for (Day d : days) {
+            if (d.startEpoch() >= s && d.endEpoch() <= e) out.add(d);
+        }
+        return out;
+    }
+
+    /**
+     * Mode & presisi potongan-potongan query yang dipakai window (start, end].
+     */
+    public ErrorMinutesService.QueryMode mode(Instant start, Instant end) {
+        int a = index(start), b = index(end);
+        ErrorMinutesService.QueryMode out = daysWithin(start, end).isEmpty() ? null : ErrorMinutesService.ROLLUP_MODE;
+        for (Span sp : spans) {
+            if (sp.from() >= b || sp.to() <= a) continue;
+            out = out == null ? sp.mode() : out.merge(sp.mode());
+        }
+        return out == null ? new ErrorMinutesService.QueryMode("EMPTY", "exact") : out;
+    }
+
+    /**
+     * @param from indeks menit awal (inklusif)
+     * @param to   indeks menit akhir (eksklusif)
+     * @param mode sumber/plan query potongan ini
+     */
+    record Span(int from, int to, ErrorMinutesService.QueryMode mode) {
+    }
+
+    /**
+     * Hari penuh (startEpoch, endEpoch] yang diambil dari DailyRollupStore.
+     */
+    record Day(long startEpoch, long endEpoch, DailyRollupStore.DayRollup rollup) {
+    }
+
+    /**
+     * @param downPrefix prefix sum nilai indikator (jumlah series down per menit)
+     * @param seenPrefix prefix sum jumlah menit yang punya data
+     */
+    record Target(String instance, String alias, long[] downPrefix, int[] seenPrefix) {
+    }
+}
@@ -0,0 +1,116 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.DiscordBotServerMonitoringApplication;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BinaryOperator;
+
+/**
+ * Cache hasil window error-minutes per (jenis query, start window), hanya untuk window yang start-nya di awal
+ * hari lokal (hari ini, minggu ini, since N hari, hari penuh). Window geser seperti "N jam terakhir" start-nya
+ * maju tiap menit → tidak pernah hit, jadi langsung di-query tanpa membuat slot.
+ * Window sudah di-align ke menit oleh pemanggil, jadi panggilan dalam menit yang sama = hit.
+ * Kalau end bergeser maju (start sama), yang di-query hanya menit baru lalu di-merge ke hasil lama —
+ * aman karena sum_over_time(...[range:1m]) adalah jumlah per titik menit yang saling lepas.
+ * <p>
+ * Window yang seluruhnya sebelum hari ini (kemarin, kemarin lusa) tidak berubah → disimpan sampai tengah malam;
+ * window lain dibuang setelah {@link #RETAIN_MILLIS} tanpa dipakai.
+ */
+class ErrorMinutesCache {
+
+    private static final long RETAIN_MILLIS = 60 * 60_000L;
+
+    private final Map<SlotKey, Slot> slots = new ConcurrentHashMap<>();
+
+    /**
+     * Query Prometheus untuk evaluasi {@code [rangeSec s:1m] @ endEpoch}.
+     */
+    @FunctionalInterface
+    interface WindowQuery<T> {
+        T run(long rangeSec, long endEpoch);
+    }
+
+    /**
+     * @param start awal window (sudah di-align ke menit)
+     * @param end   akhir window (sudah di-align ke menit, &gt; start)
+     * @param merge gabungkan hasil lama + hasil menit baru
+     */
+    <T> T get(String kind, Instant start, Instant end, WindowQuery<T> query, BinaryOperator<T> merge) {
+        long now = System.currentTimeMillis();
+        purge(now);
+
+        long s = start.getEpochSecond();
+        long e = end.getEpochSecond();
+        if (!startsAtDay(start)) return query.run(e - s, e);
+        Slot slot = slots.computeIfAbsent(new SlotKey(kind, s), k -> new Slot());
+        // lock per slot: window lain tetap bisa query paralel
+        synchronized (slot) {
+            Entry cur = slot.entry;
+            if (cur != null && cur.end == e) {
+                cur.expiresAt = expiry(end, now);
+                @SuppressWarnings("unchecked") T hit = (T) cur.value;
+                return hit;
+            }
+
+            T value;
+            if (cur != null && cur.end > s && cur.end < e) {
+                // hanya menit (cur.end, e]: range dikurangi 1 detik supaya titik cur.end tidak terhitung dua kali
+                // (range selector left-closed di Prometheus 2.x, left-open di 3.x → dua-duanya aman)
+                @SuppressWarnings("unchecked") T old = (T) cur.value;
+                value = merge.apply(old, query.run(e - cur.end - 1, e));
+            } else {
+                value = query.run(e - s, e);
+                if (cur != null && cur.end > e) return value; // window lebih lama dengan start sama: jangan timpa
+            }
+            slot.entry = new Entry(e, value, expiry(end, now));
+            return value;
+        }
+    }
+
+    // 00:00 lokal, atau 00:00:01 (segment live setelah hari rollup, lihat ErrorMinutesService.overDays)
+    private static boolean startsAtDay(Instant start) {
+        LocalTime t = start.atZone(DiscordBotServerMonitoringApplication.ZONE).toLocalTime();
+        return t.truncatedTo(ChronoUnit.MINUTES).equals(LocalTime.MIDNIGHT);
+    }
+
+    private static long expiry(Instant end, long now) {
+        ZoneId zone = DiscordBotServerMonitoringApplication.ZONE;
+        LocalDate today = LocalDate.now(zone);
+        if (!end.isAfter(today.atStartOfDay(zone).toInstant())) {
+            return today.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli();
+        }
+        return now + RETAIN_MILLIS;
+    }
+
+    private void purge(long now) {
+        slots.values().removeIf(slot -> {
+            Entry en = slot.entry;
+            return en != null && en.expiresAt < now;
+        });
+    }
+
+    private record SlotKey(String kind, long startEpoch) {
+    }
+
+    private static final class Slot {
+        volatile Entry entry;
+    }
+
+    private static final class Entry {
+        final long end;
+        final Object value;
+        volatile long expiresAt;
+
+        Entry(long end, Object value, long expiresAt) {
+            this.end = end;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
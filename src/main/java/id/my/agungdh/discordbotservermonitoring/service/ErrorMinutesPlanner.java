@@ -0,0 +1,151 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.client.PrometheusClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Pilih strategi query menit error dari panjang range + interval scrape probe yang sebenarnya.
+ * <ul>
+ *     <li>EXACT_SUBQUERY: definisi asli, subquery [1m:1s] — window pendek</li>
+ *     <li>RAW_RANGE: count/sum_over_time langsung atas sample mentah [1m] — tanpa inner subquery, approx (lihat
+ *     rawMaxSamples)</li>
+ *     <li>COARSE: inner subquery resolusi lebih kasar + ambang diskalakan — window multi-minggu, error terbatas</li>
+ * </ul>
+ * Ambang asli (5 gagal & 5 sampel per menit) didefinisikan untuk resolusi 1s; di resolusi r tiap sampel
+ * mewakili r detik, jadi ambang jadi ceil(5 / r).
+ */
+@Component
+public class ErrorMinutesPlanner {
+
+    private static final Logger log = LoggerFactory.getLogger(ErrorMinutesPlanner.class);
+    // resolusi inner harus membagi 1 menit supaya tiap menit dapat jumlah sampel yang sama
+    private static final int[] DIVISORS_OF_MINUTE = {1, 2, 3, 4, 5, 6, 10, 12, 15, 20, 30, 60};
+    private static final long SCRAPE_RECHECK_MILLIS = 10 * 60_000L;
+
+    private final PrometheusClient prometheus;
+
+    @Value("${prometheus.blackbox.job:blackbox_ping}")
+    private String blackboxJob;
+    // titik inner subquery 1s per target; di bawah ini tetap pakai definisi asli [1m:1s] (default 1 hari) —
+    // satu-satunya mode yang exact
+    @Value("${prometheus.errorMinutes.planner.exactMaxPoints:86400}")
+    private long exactMaxPoints;
+    // sample mentah per target untuk RAW_RANGE (default ~8 hari di scrape 1s). Tidak setara [1m:1s]: subquery
+    // mengulang sample terakhir lewat lookback 5m (guard ≥ 5 sampel tetap lolos saat scrape bolong, 1 sample
+    // gagal + gap = banyak detik gagal), sedangkan [1m] mentah hanya menghitung sample yang benar-benar ada —
+    // beda justru di sekitar outage, jadi hasilnya dilaporkan approx
+    @Value("${prometheus.errorMinutes.planner.rawMaxSamples:700000}")
+    private long rawMaxSamples;
+    // titik inner subquery per target untuk COARSE
+    @Value("${prometheus.errorMinutes.planner.coarseMaxPoints:100000}")
+    private long coarseMaxPoints;
+
+    private volatile double scrapeSeconds = 1.0;
+    private volatile long scrapeCheckedAt = 0L;
+
+    public ErrorMinutesPlanner(PrometheusClient prometheus) {
+        this.prometheus = prometheus;
+    }
+
+    public Plan plan(long rangeSec) {
+        if (rangeSec <= exactMaxPoints) return Plan.exact();
+
+        double scrape = scrapeIntervalSeconds();
+        if (rangeSec / scrape <= rawMaxSamples) {
+            int perSample = (int) Math.max(1, Math.round(scrape));
+            return new Plan(Mode.RAW_RANGE, perSample, scaled(ErrorMinutesService.THRESHOLD_FAILS_PER_MIN, perSample),
+                    scaled(ErrorMinutesService.MIN_SAMPLES_PER_MIN, perSample));
+        }
+
+        // resolusi terkecil (≥ interval scrape) yang muat di budget titik
+        int res = DIVISORS_OF_MINUTE[DIVISORS_OF_MINUTE.length - 1];
+        for (int r : DIVISORS_OF_MINUTE) {
+            if (r >= scrape && rangeSec / r <= coarseMaxPoints) {
+                res = r;
+                break;
+            }
+        }
+        return new Plan(Mode.COARSE, res, scaled(ErrorMinutesService.THRESHOLD_FAILS_PER_MIN, res),
+                scaled(ErrorMinutesService.MIN_SAMPLES_PER_MIN, res));
+    }
+
+    private static int scaled(int perSecondThreshold, int resolutionSec) {
+        return Math.max(1, (int) Math.ceil((double) perSecondThreshold / resolutionSec));
+    }
+
+    /**
+     * Interval scrape probe_success rata-rata (detik), dari jumlah sample 5 menit terakhir; di-cache 10 menit.
+     */
+    double scrapeIntervalSeconds() {
+        long now = System.currentTimeMillis();
+        if (now - scrapeCheckedAt < SCRAPE_RECHECK_MILLIS) return scrapeSeconds;
+        try {
+            var res = prometheus.instantQuery(
+                    "300 / avg(count_over_time(probe_success{job=\"%s\"}[5m]))".formatted(blackboxJob));
+            if (!res.isEmpty() && res.get(0).value() > 0 && Double.isFinite(res.get(0).value())) {
+                scrapeSeconds = res.get(0).value();
+            }
+        } catch (Exception e) {
+            log.debug("Gagal cek interval scrape probe: {}", e.getMessage());
+        }
+        scrapeCheckedAt = now;
+        return scrapeSeconds;
+    }
+
+    public enum Mode {EXACT_SUBQUERY, RAW_RANGE, COARSE}
+
+    /**
+     * @param resolutionSec  detik per sampel yang dihitung (inner subquery / interval scrape)
+     * @param thresholdFails sampel gagal minimal per menit
+     * @param minSamples     sampel minimal per menit (guard data bolong)
+     */
+    public record Plan(Mode mode, int resolutionSec, int thresholdFails, int minSamples) {
+
+        static Plan exact() {
+            return new Plan(Mode.EXACT_SUBQUERY, 1, ErrorMinutesService.THRESHOLD_FAILS_PER_MIN,
+                    ErrorMinutesService.MIN_SAMPLES_PER_MIN);
+        }
+
+        public String precision() {
+            return switch (mode) {
+                case EXACT_SUBQUERY -> "exact";
+                case RAW_RANGE -> "approx (raw samples, scrape " + resolutionSec
+                        + "s, scrape bolong tidak diisi lookback)";
+                case COARSE -> "approx (inner " + resolutionSec + "s, " + (60 / resolutionSec)
+                        + " samples/min, down ≥ " + thresholdFails + " fails)";
+            };
+        }
+
+        // kunci cache: hasil beda plan tidak boleh dicampur
+        String key() {
+            return mode + "/" + resolutionSec;
+        }
+
+        /**
+         * Indikator "down per menit per target" (guarded) untuk plan ini — 1 kalau menit tsb error, 0 kalau tidak.
+         */
+        String indicator(String blackboxJob) {
+            String jobLabel = String.format("probe_success{job=\"%s\"}", blackboxJob);
+            if (mode == Mode.RAW_RANGE) {
+                // probe_success 0/1 → jumlah gagal = count - sum
+                return """
+                        (
+                          ((count_over_time(%1$s[1m]) - sum_over_time(%1$s[1m])) >= bool %2$d)
+                          and
+                          (count_over_time(%1$s[1m]) >= bool %3$d)
+                        )
+                        """.formatted(jobLabel, thresholdFails, minSamples);
+            }
+            return """
+                    (
+                      (sum_over_time((%1$s == bool 0)[1m:%2$ds]) >= bool %3$d)
+                      and
+                      (count_over_time(%1$s[1m:%2$ds]) >= bool %4$d)
+                    )
+                    """.formatted(jobLabel, resolutionSec, thresholdFails, minSamples);
+        }
+    }
+}
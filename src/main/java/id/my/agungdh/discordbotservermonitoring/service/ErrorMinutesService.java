@@ -1,7 +1,10 @@
 package id.my.agungdh.discordbotservermonitoring.service;
 
+import id.my.agungdh.discordbotservermonitoring.DiscordBotServerMonitoringApplication;
 import id.my.agungdh.discordbotservermonitoring.client.PrometheusClient;
 import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -10,7 +13,17 @@ import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
 
 /**
  * Mengambil "jumlah menit error" per target (instance/alias) untuk berbagai rentang waktu.
@@ -24,21 +37,57 @@ import java.util.List;
 @RequiredArgsConstructor
 public class ErrorMinutesService {
 
+    private static final Logger log = LoggerFactory.getLogger(ErrorMinutesService.class);
+
     // Ambang gagal/min & minimal sampel/min
-    private static final int THRESHOLD_FAILS_PER_MIN = 5;
-    private static final int MIN_SAMPLES_PER_MIN = 5;
+    static final int THRESHOLD_FAILS_PER_MIN = 5;
+    static final int MIN_SAMPLES_PER_MIN = 5;
     // Subquery steps
-    private static final String INNER_RESOLUTION = "1s";  // resolusi hitung per detik (sesuai scrape 1s)
+    private static final String INNER_RESOLUTION = "1s";  // resolusi definisi asli (EXACT_SUBQUERY, scrape 1s)
     private static final String MINUTE_STEP = "1m";  // agregasi per-menit
+    private static final long MINUTE_STEP_SECONDS = 60;
+    // data beberapa detik terakhir mungkin belum masuk Prometheus → menit berjalan belum dihitung
+    private static final long SETTLE_SECONDS = 15;
+    // Prometheus menolak range query > 11.000 titik per series → batch dipecah per 10.000 menit
+    private static final int MAX_POINTS_PER_QUERY = 10_000;
+    // batch: menit sebanyak ini di ujung window selalu di-query dengan plan window 1 hari
+    private static final int EXACT_TAIL_MINUTES = 24 * 60;
+    // rule tidak ditemukan → jangan cek ulang selama ini
+    private static final long RULE_RECHECK_MILLIS = 5 * 60_000L;
+    static final QueryMode ROLLUP_MODE = new QueryMode("ROLLUP", "exact");
+    // rule dievaluasi tiap 1m dengan offset sendiri (bukan di detik :00) → titik menitnya bergeser < 1m dari grid
+    private static final String RULE_PRECISION = "approx (recording rule, evaluasi bergeser < 1m dari grid menit)";
     private final PrometheusClient prometheus;
+    // bitmap menit down lokal; range yang sudah ter-cover tidak perlu ke Prometheus
+    private final DowntimeBitmapStore bitmaps;
+    // total hari yang sudah selesai; window multi-hari cukup query live untuk sisanya
+    private final DailyRollupStore rollups;
+    // strategi query Prometheus (resolusi inner / raw / kasar) sesuai panjang range
+    private final ErrorMinutesPlanner planner;
+    // hasil per window (di-align ke menit), window masa lalu disimpan sampai tengah malam
+    private final ErrorMinutesCache cache = new ErrorMinutesCache();
     // ==== Konfigurasi ====
     @Value("${prometheus.blackbox.job:blackbox_ping}")
     private String blackboxJob;
+    // true → /errors ambil semua window dari satu range query per menit (errorMinutesBatch)
+    @Value("${prometheus.errorMinutes.batch:true}")
+    private boolean batchMode;
+    // recording rule (lihat recordingRulesYaml); kalau series-nya ada, query cukup sum_over_time biasa.
+    // Dideteksi otomatis; rule yang belum dipasang hanya memakan 1 query cek per RULE_RECHECK_MILLIS.
+    @Value("${prometheus.errorMinutes.rule.enabled:true}")
+    private boolean ruleEnabled;
+    @Value("${prometheus.errorMinutes.rule.name:blackbox:probe_guarded_down:1m}")
+    private String ruleName;
+    // start window paling awal yang terbukti sudah punya data rule (rule dianggap kontinu setelahnya)
+    private final AtomicLong ruleConfirmedFrom = new AtomicLong(Long.MAX_VALUE);
+    // epoch ms; sebelum ini rule dianggap belum dipasang
+    private final AtomicLong ruleAbsentUntil = new AtomicLong(0L);
 
     // ==== Public API ====
 
+    // sama dengan zona rollup harian, tidak tergantung urutan init default JVM
     private static ZoneId zone() {
-        return ZoneId.systemDefault();
+        return DiscordBotServerMonitoringApplication.ZONE;
     }
 
     private static Instant startOfToday() {
@@ -59,6 +108,29 @@ public class ErrorMinutesService {
         return t.truncatedTo(ChronoUnit.SECONDS);
     }
 
+    /**
+     * Align ke grid MINUTE_STEP: waktu yang sudah pas menit (mis. 00:00) tetap, selain itu dibulatkan ke bawah
+     * setelah dikurangi SETTLE_SECONDS. Titik subquery [..:1m] memang jatuh di kelipatan menit, jadi yang hilang
+     * hanya menit yang sedang berjalan (belum lengkap).
+     */
+    static Instant alignToStep(Instant t, Instant now) {
+        long sec = t.getEpochSecond();
+        if (t.getNano() == 0 && sec % MINUTE_STEP_SECONDS == 0) return t;
+        long settled = Math.min(sec, now.getEpochSecond() - SETTLE_SECONDS);
+        return Instant.ofEpochSecond(Math.floorDiv(settled, MINUTE_STEP_SECONDS) * MINUTE_STEP_SECONDS);
+    }
+
+    // jumlahkan menit per (instance, alias); urutan hasil lama dipertahankan
+    static List<PrometheusClient.ResultPoint> mergePoints(List<PrometheusClient.ResultPoint> a,
+                                                                  List<PrometheusClient.ResultPoint> b) {
+        Map<List<String>, Double> sum = new LinkedHashMap<>();
+        for (var p : a) sum.merge(List.of(p.instance(), p.alias()), p.value(), Double::sum);
+        for (var p : b) sum.merge(List.of(p.instance(), p.alias()), p.value(), Double::sum);
+        List<PrometheusClient.ResultPoint> out = new ArrayList<>(sum.size());
+        sum.forEach((k, v) -> out.add(new PrometheusClient.ResultPoint(k.get(0), k.get(1), v)));
+        return List.copyOf(out);
+    }
+
     // ==== Core ====
 
     /**
@@ -67,7 +139,7 @@ public class ErrorMinutesService {
     public List<PrometheusClient.ResultPoint> errorMinutesToday() {
         Instant start = startOfToday();
         Instant end = Instant.now();
-        return queryErrorMinutes(start, end);
+        return queryErrorMinutes(start, end).points();
         // nilai value = jumlah menit error (double, tapi isinya integer minutes)
     }
 
@@ -77,7 +149,7 @@ public class ErrorMinutesService {
     public List<PrometheusClient.ResultPoint> errorMinutesYesterday() {
         Instant start = startOfYesterday();
         Instant end = startOfToday();
-        return queryErrorMinutes(start, end);
+        return queryErrorMinutes(start, end).points();
     }
 
     // ==== Helpers waktu (pakai zona lokal host) ====
@@ -88,7 +160,7 @@ public class ErrorMinutesService {
     public List<PrometheusClient.ResultPoint> errorMinutesTwoDaysAgo() {
         Instant start = startOfNDaysAgo(2);
         Instant end = startOfNDaysAgo(1);
-        return queryErrorMinutes(start, end);
+        return queryErrorMinutes(start, end).points();
     }
 
     /**
@@ -97,7 +169,7 @@ public class ErrorMinutesService {
     public List<PrometheusClient.ResultPoint> errorMinutesLastWeekUntilNow() {
         Instant start = startOfNDaysAgo(7);
         Instant end = Instant.now();
-        return queryErrorMinutes(start, end);
+        return queryErrorMinutes(start, end).points();
     }
 
     /**
@@ -106,19 +178,99 @@ public class ErrorMinutesService {
     public List<PrometheusClient.ResultPoint> errorMinutesLast2WeeksUntilNow() {
         Instant start = startOfNDaysAgo(14);
         Instant end = Instant.now();
-        return queryErrorMinutes(start, end);
+        return queryErrorMinutes(start, end).points();
     }
 
     /**
      * Bangun PromQL + panggil /api/v1/query (instant).
      * Kita pakai subquery window [RANGE:1m] @ END, lalu sum by (instance, alias).
+     * Mode/presisi dicatat per segment saat dihitung, jadi selalu cocok dengan sumber hasilnya.
      */
-    private List<PrometheusClient.ResultPoint> queryErrorMinutes(Instant start, Instant end) {
-        long rangeSec = Duration.between(start, end).getSeconds();
-        if (rangeSec <= 0) return List.of();
+    private Result queryErrorMinutes(Instant start, Instant end) {
+        Instant now = Instant.now();
+        Instant s = alignToStep(start, now);
+        Instant e = alignToStep(end, now);
+        if (!e.isAfter(s)) return new Result(List.of(), new QueryMode("EMPTY", "exact"));
+        catchUpBitmap(e, now);
 
-        String promql = buildGuardedMinutesPromql(rangeSec, end.getEpochSecond());
-        return prometheus.instantQuery(promql);
+        return overDays(s, e, this::perTargetSegment, r -> new Result(r.perTarget(), ROLLUP_MODE), Result::merge);
+    }
+
+    // window yang berakhir di menit terakhir yang sudah final → lengkapi bitmap dulu supaya tetap ter-cover
+    private void catchUpBitmap(Instant alignedEnd, Instant now) {
+        if (alignedEnd.equals(alignToStep(now, now))) bitmaps.catchUp(now);
+    }
+
+    // satu segment live: bitmap kalau ter-cover, selain itu Prometheus (lewat cache window)
+    private Result perTargetSegment(Instant s, Instant e) {
+        if (bitmaps.covers(s, e)) return new Result(bitmaps.errorMinutes(s, e), new QueryMode("BITMAP", "exact"));
+        if (ruleAvailableAt(s)) {
+            var res = cache.get("perTargetRule", s, e,
+                    (rangeSec, endEpoch) -> prometheus.instantQuery(buildRuleMinutesPromql(rangeSec, endEpoch)),
+                    ErrorMinutesService::mergePoints);
+            if (!res.isEmpty()) return new Result(res, new QueryMode("RECORDING_RULE", RULE_PRECISION));
+            // rule hilang (dihapus / Prometheus di-reset) → deteksi ulang, pakai subquery
+            ruleConfirmedFrom.set(Long.MAX_VALUE);
+        }
+        ErrorMinutesPlanner.Plan plan = planner.plan(e.getEpochSecond() - s.getEpochSecond());
+        var res = cache.get("perTarget/" + plan.key(), s, e,
+                (rangeSec, endEpoch) -> prometheus.instantQuery(buildGuardedMinutesPromql(plan, rangeSec, endEpoch)),
+                ErrorMinutesService::mergePoints);
+        return new Result(res, new QueryMode(plan.mode().name(), plan.precision()));
+    }
+
+    private long anyDownSegment(Instant s, Instant e) {
+        if (bitmaps.covers(s, e)) return bitmaps.anyDown(s, e);
+        if (ruleAvailableAt(s)) return cache.get("anyDownRule", s, e, this::queryAnyDownRule, Long::sum);
+        ErrorMinutesPlanner.Plan plan = planner.plan(e.getEpochSecond() - s.getEpochSecond());
+        return cache.get("anyDown/" + plan.key(), s, e,
+                (rangeSec, endEpoch) -> queryAnyDown(plan, rangeSec, endEpoch), Long::sum);
+    }
+
+    /**
+     * Pecah window per hari lokal: hari penuh yang sudah punya rollup diambil dari DailyRollupStore,
+     * sisanya (potongan awal, hari tanpa rollup, hari ini) di-query live. Segment setelah hari rollup
+     * dimulai 1 detik setelah tengah malam supaya titik menit 00:00 tidak terhitung dua kali.
+     */
+    private <T> T overDays(Instant s, Instant e, BiFunction<Instant, Instant, T> live,
+                           Function<DailyRollupStore.DayRollup, T> stored, BinaryOperator<T> merge) {
+        if (!rollups.isEnabled()) return live.apply(s, e);
+
+        T acc = null;
+        Instant cursor = s;
+        boolean afterRollup = false;
+        LocalDate day = LocalDate.ofInstant(s, zone());
+        if (day.atStartOfDay(zone()).toInstant().isBefore(s)) day = day.plusDays(1);
+        for (; ; day = day.plusDays(1)) {
+            Instant dayStart = day.atStartOfDay(zone()).toInstant();
+            Instant dayEnd = day.plusDays(1).atStartOfDay(zone()).toInstant();
+            if (dayEnd.isAfter(e)) break;
+            DailyRollupStore.DayRollup r = rollups.get(day);
+            if (r == null) continue;
+            if (dayStart.isAfter(cursor)) {
+                acc = accumulate(acc, live.apply(afterRollup ? cursor.plusSeconds(1) : cursor, dayStart), merge);
+            }
+            acc = accumulate(acc, stored.apply(r), merge);
+            cursor = dayEnd;
+            afterRollup = true;
+        }
+        if (e.isAfter(cursor)) {
+            acc = accumulate(acc, live.apply(afterRollup ? cursor.plusSeconds(1) : cursor, e), merge);
+        }
+        return acc;
+    }
+
+    private static <T> T accumulate(T acc, T next, BinaryOperator<T> merge) {
+        return acc == null ? next : merge.apply(acc, next);
+    }
+
+    /**
+     * Total satu hari lokal penuh (00:00, 24:00] — selalu dihitung live (bitmap/Prometheus), dipakai rollup harian.
+     */
+    public DailyRollupStore.DayRollup computeDay(LocalDate day) {
+        Instant s = day.atStartOfDay(zone()).toInstant().plusSeconds(1);
+        Instant e = day.plusDays(1).atStartOfDay(zone()).toInstant();
+        return new DailyRollupStore.DayRollup(day, anyDownSegment(s, e), perTargetSegment(s, e).points());
     }
 
     /**
@@ -132,62 +284,275 @@ public class ErrorMinutesService {
      * )[${RANGE}s:1m] @ ${END} )
      * )
      */
-    private String buildGuardedMinutesPromql(long rangeSec, long endEpoch) {
-        String jobLabel = String.format("probe_success{job=\"%s\"}", blackboxJob);
-
+    private String buildGuardedMinutesPromql(ErrorMinutesPlanner.Plan plan, long rangeSec, long endEpoch) {
         return """
                 sum by (instance, alias) (
-                  sum_over_time( (
-                    (sum_over_time((%s == bool 0)[1m:%s]) >= bool %d)
-                    and
-                    (count_over_time(%s[1m:%s]) >= bool %d)
-                  )[%ds:%s] @ %d )
+                  sum_over_time( %s[%ds:%s] @ %d )
                 )
-                """.formatted(
-                jobLabel, INNER_RESOLUTION, THRESHOLD_FAILS_PER_MIN,
-                jobLabel, INNER_RESOLUTION, MIN_SAMPLES_PER_MIN,
-                rangeSec, MINUTE_STEP, endEpoch
-        ).trim();
+                """.formatted(plan.indicator(blackboxJob).trim(), rangeSec, MINUTE_STEP, endEpoch).trim();
+    }
+
+    // ==== Recording rule ====
+
+    /**
+     * File recording rules Prometheus yang menghitung indikator guarded per menit sekali per menit.
+     * Setelah dipasang, query menit error cukup {@code sum_over_time(rule[R] @ E)} — tanpa subquery 1s.
+     */
+    public String recordingRulesYaml() {
+        String expr = ("sum by (instance, alias) (\n" + perMinuteDownPromql().stripTrailing().indent(2) + ")")
+                .indent(12).stripTrailing();
+        return """
+                # Recording rule menit error (guarded) untuk discord-bot-server-monitoring.
+                # job=%s, error = >= %d gagal/menit dengan >= %d sampel/menit (resolusi %s).
+                # Pasang di rule_files Prometheus lalu reload; bot mendeteksi series-nya sendiri (maks. 5 menit).
+                groups:
+                  - name: discord-bot-error-minutes
+                    interval: 1m
+                    rules:
+                      - record: %s
+                        expr: |
+                %s
+                """.formatted(blackboxJob, THRESHOLD_FAILS_PER_MIN, MIN_SAMPLES_PER_MIN, INNER_RESOLUTION,
+                ruleName, expr);
+    }
+
+    /**
+     * true kalau series rule sudah ada di awal window → fast path aman dipakai.
+     * Rule tidak ditemukan → tidak dicek lagi (untuk start mana pun) sampai RULE_RECHECK_MILLIS lewat,
+     * jadi window geser (start maju tiap menit) tidak menambah 1 query per panggilan.
+     */
+    private boolean ruleAvailableAt(Instant start) {
+        if (!ruleEnabled) return false;
+        long s = start.getEpochSecond();
+        if (s >= ruleConfirmedFrom.get()) return true;
+        long nowMs = System.currentTimeMillis();
+        if (nowMs < ruleAbsentUntil.get()) return false;
+
+        List<PrometheusClient.ResultPoint> res;
+        try {
+            res = prometheus.instantQuery("count(last_over_time(%s[2m] @ %d))".formatted(ruleName, s));
+        } catch (Exception e) {
+            // Prometheus error ≠ rule tidak ada → jangan di-cache, panggilan ini pakai subquery
+            log.debug("Cek recording rule {} gagal: {}", ruleName, e.getMessage());
+            return false;
+        }
+        boolean ok = !res.isEmpty() && res.get(0).value() > 0;
+        if (ok) {
+            ruleConfirmedFrom.accumulateAndGet(s, Math::min);
+        } else {
+            ruleAbsentUntil.set(nowMs + RULE_RECHECK_MILLIS);
+        }
+        return ok;
+    }
+
+    // rule dievaluasi tiap 1m → jumlah sample bernilai 1 dalam window = menit error
+    private String buildRuleMinutesPromql(long rangeSec, long endEpoch) {
+        return "sum by (instance, alias) (sum_over_time(%s[%ds] @ %d))".formatted(ruleName, rangeSec, endEpoch);
+    }
+
+    private long queryAnyDownRule(long rangeSec, long endEpoch) {
+        String promql = "sum_over_time((max by () (%s))[%ds:%s] @ %d)"
+                .formatted(ruleName, rangeSec, MINUTE_STEP, endEpoch);
+        var res = prometheus.instantQuery(promql);
+        if (res.isEmpty()) return 0L;
+        return Math.round(res.get(0).value());
     }
 
     public List<PrometheusClient.ResultPoint> errorMinutes(Instant start, Instant end) {
+        return queryErrorMinutes(start, end).points();
+    }
+
+    /**
+     * Sama dengan {@link #errorMinutes}, plus mode & presisi sumber hasilnya (untuk REST /errors).
+     */
+    public Result errorMinutesWithMode(Instant start, Instant end) {
         return queryErrorMinutes(start, end);
     }
 
     public List<PrometheusClient.ResultPoint> errorMinutesLastHours(int hours) {
         Instant end = Instant.now();
         Instant start = end.minus(Duration.ofHours(hours));
-        return queryErrorMinutes(start, end);
+        return queryErrorMinutes(start, end).points();
     }
 
     public long errorMinutesAnyDown(Instant start, Instant end) {
-        long rangeSec = Duration.between(start, end).getSeconds();
-        if (rangeSec <= 0) return 0L;
-
-        // label metric sesuai konfigurasi
-        String jobLabel = String.format("probe_success{job=\"%s\"}", blackboxJob);
-
-        // indikator "down per menit per target" (guarded)
-        String perMinuteDown = """
-                (
-                  (sum_over_time((%s == bool 0)[1m:%s]) >= bool %d)
-                  and
-                  (count_over_time(%s[1m:%s]) >= bool %d)
-                )
-                """.formatted(
-                jobLabel, INNER_RESOLUTION, THRESHOLD_FAILS_PER_MIN,
-                jobLabel, INNER_RESOLUTION, MIN_SAMPLES_PER_MIN
-        );
+        Instant now = Instant.now();
+        Instant s = alignToStep(start, now);
+        Instant e = alignToStep(end, now);
+        if (!e.isAfter(s)) return 0L;
+        catchUpBitmap(e, now);
+
+        // menit "any down" antar hari saling lepas → cukup dijumlah
+        return overDays(s, e, this::anyDownSegment, DailyRollupStore.DayRollup::anyDown, Long::sum);
+    }
+
+    private long queryAnyDown(ErrorMinutesPlanner.Plan plan, long rangeSec, long endEpoch) {
+        String perMinuteDown = plan.indicator(blackboxJob);
 
         // OR antar target: pakai max by () untuk collapse semua label ⇒ 1 kalau ada target manapun yang down
         String promql = """
                 sum_over_time(
                   ( max by () ( %s ) )[%ds:%s] @ %d
                 )
-                """.formatted(perMinuteDown, rangeSec, MINUTE_STEP, end.getEpochSecond());
+                """.formatted(perMinuteDown, rangeSec, MINUTE_STEP, endEpoch);
 
         var res = prometheus.instantQuery(promql);
         if (res.isEmpty()) return 0L;
         return Math.round(res.get(0).value());
     }
+
+    private String perMinuteDownPromql() {
+        return perMinuteDownPromql(blackboxJob);
+    }
+
+    /**
+     * Indikator "down per menit per target" (guarded) — 1 kalau menit tsb error, 0 kalau tidak.
+     * Dipakai juga oleh DowntimeBitmapStore.
+     */
+    static String perMinuteDownPromql(String blackboxJob) {
+        return ErrorMinutesPlanner.Plan.exact().indicator(blackboxJob);
+    }
+
+    public boolean isBatchMode() {
+        return batchMode;
+    }
+
+    /**
+     * Mode batch: indikator per menit per target diambil SEKALI untuk window terlebar ({@code widestStart} → sekarang)
+     * lewat range query step 1m; semua sub-window (per target & any down) dihitung di memori dari prefix sum.
+     * Hari penuh di awal window yang sudah punya rollup (dan selesai sebelum {@code detailFrom}) diambil dari
+     * DailyRollupStore, jadi biasanya yang di-query hanya hari ini + potongan {@code detailFrom}. Window yang
+     * dimulai sebelum {@code detailFrom} harus dimulai di batas hari (rollup tidak bisa dipecah per menit).
+     * <p>
+     * Plan dipilih per potongan, bukan dari seluruh range: 1 hari terakhir selalu pakai plan window 1 hari
+     * (resolusi asli), sisanya dipecah per 10.000 menit (batas titik per series di Prometheus) dengan plan
+     * sesuai panjang potongan. Mode tiap potongan disimpan → {@link ErrorMinutesBatch#mode} per window.
+     */
+    public ErrorMinutesBatch errorMinutesBatch(Instant widestStart, Instant detailFrom) {
+        Instant now = Instant.now();
+        long origin = alignToStep(widestStart, now).getEpochSecond();
+        long end = alignToStep(now, now).getEpochSecond();
+        bitmaps.catchUp(now);
+
+        Map<List<String>, int[]> perTarget = new LinkedHashMap<>();
+        Map<List<String>, boolean[]> seen = new LinkedHashMap<>();
+        List<ErrorMinutesBatch.Span> spans = new ArrayList<>();
+        List<ErrorMinutesBatch.Day> days = new ArrayList<>();
+
+        // bitmap lokal menutup seluruh window → tidak perlu rollup maupun Prometheus
+        if (!bitmaps.covers(Instant.ofEpochSecond(origin), Instant.ofEpochSecond(end))) {
+            long limit = Math.min(end, alignToStep(detailFrom, now).getEpochSecond());
+            LocalDate day = LocalDate.ofInstant(Instant.ofEpochSecond(origin), zone());
+            while (rollups.isEnabled() && day.atStartOfDay(zone()).toEpochSecond() == origin) {
+                long dayEnd = day.plusDays(1).atStartOfDay(zone()).toEpochSecond();
+                DailyRollupStore.DayRollup r = rollups.get(day);
+                if (dayEnd > limit || r == null) break;
+                days.add(new ErrorMinutesBatch.Day(origin, dayEnd, r));
+                origin = dayEnd;
+                day = day.plusDays(1);
+            }
+        }
+        int minutes = (int) Math.max(0, (end - origin) / MINUTE_STEP_SECONDS);
+
+        if (bitmaps.covers(Instant.ofEpochSecond(origin), Instant.ofEpochSecond(end))) {
+            bitmaps.export(origin, minutes, perTarget, seen);
+            spans.add(new ErrorMinutesBatch.Span(0, minutes, new QueryMode("BITMAP", "exact")));
+            return buildBatch(now, origin, minutes, perTarget, seen, spans, days);
+        }
+
+        boolean rule = ruleAvailableAt(Instant.ofEpochSecond(origin));
+        int tail = Math.max(0, minutes - EXACT_TAIL_MINUTES);
+        for (int from = 0; from < tail; from += MAX_POINTS_PER_QUERY) {
+            int to = Math.min(tail, from + MAX_POINTS_PER_QUERY);
+            spans.add(fetchSpan(rule, origin, minutes, from, to, perTarget, seen));
+        }
+        if (minutes > tail) spans.add(fetchSpan(rule, origin, minutes, tail, minutes, perTarget, seen));
+        return buildBatch(now, origin, minutes, perTarget, seen, spans, days);
+    }
+
+    // isi menit [from, to) dari satu range query; plan sesuai panjang potongan
+    private ErrorMinutesBatch.Span fetchSpan(boolean rule, long origin, int minutes, int from, int to,
+                                             Map<List<String>, int[]> perTarget, Map<List<String>, boolean[]> seen) {
+        String promql;
+        QueryMode mode;
+        if (rule) {
+            // range query step 1m atas series rule = nilai indikator per menit, tanpa subquery 1s
+            promql = "sum by (instance, alias) (" + ruleName + ")";
+            mode = new QueryMode("RECORDING_RULE", RULE_PRECISION);
+        } else {
+            ErrorMinutesPlanner.Plan plan = planner.plan((to - from) * MINUTE_STEP_SECONDS);
+            promql = "sum by (instance, alias) (" + plan.indicator(blackboxJob).trim() + ")";
+            mode = new QueryMode(plan.mode().name(), plan.precision());
+        }
+
+        // titik pertama = akhir menit ke-from
+        Instant qStart = Instant.ofEpochSecond(origin + (from + 1) * MINUTE_STEP_SECONDS);
+        Instant qEnd = Instant.ofEpochSecond(origin + to * MINUTE_STEP_SECONDS);
+        var series = prometheus.rangeQueryAll(promql, qStart, qEnd, Duration.ofSeconds(MINUTE_STEP_SECONDS));
+
+        for (var s : series.values()) {
+            List<String> key = List.of(s.metric().getOrDefault("instance", ""), s.metric().getOrDefault("alias", ""));
+            int[] down = perTarget.computeIfAbsent(key, k -> new int[minutes]);
+            boolean[] has = seen.computeIfAbsent(key, k -> new boolean[minutes]);
+            for (int i = 0; i < s.size(); i++) {
+                long idx = (s.timestampsMillis()[i] / 1000 - origin) / MINUTE_STEP_SECONDS - 1;
+                if (idx < from || idx >= to) continue;
+                double v = s.values()[i];
+                down[(int) idx] += Double.isNaN(v) ? 0 : (int) Math.round(v);
+                has[(int) idx] = true;
+            }
+        }
+        return new ErrorMinutesBatch.Span(from, to, mode);
+    }
+
+    // prefix sum per target + prefix "any down" dari array per menit
+    private static ErrorMinutesBatch buildBatch(Instant now, long origin, int minutes,
+                                                Map<List<String>, int[]> perTarget,
+                                                Map<List<String>, boolean[]> seen,
+                                                List<ErrorMinutesBatch.Span> spans,
+                                                List<ErrorMinutesBatch.Day> days) {
+        long[] anyPrefix = new long[minutes + 1];
+        boolean[] anyDown = new boolean[minutes];
+        List<ErrorMinutesBatch.Target> targets = new ArrayList<>(perTarget.size());
+        for (var e : perTarget.entrySet()) {
+            int[] down = e.getValue();
+            boolean[] has = seen.get(e.getKey());
+            long[] downPrefix = new long[minutes + 1];
+            int[] seenPrefix = new int[minutes + 1];
+            for (int i = 0; i < minutes; i++) {
+                downPrefix[i + 1] = downPrefix[i] + down[i];
+                seenPrefix[i + 1] = seenPrefix[i] + (has[i] ? 1 : 0);
+                if (down[i] > 0) anyDown[i] = true;
+            }
+            targets.add(new ErrorMinutesBatch.Target(e.getKey().get(0), e.getKey().get(1), downPrefix, seenPrefix));
+        }
+        for (int i = 0; i < minutes; i++) anyPrefix[i + 1] = anyPrefix[i] + (anyDown[i] ? 1 : 0);
+
+        return new ErrorMinutesBatch(now, origin, minutes, targets, anyPrefix, spans, days);
+    }
+
+    /**
+     * @param points menit error per target
+     * @param mode   mode & presisi gabungan semua segment yang dipakai
+     */
+    public record Result(List<PrometheusClient.ResultPoint> points, QueryMode mode) {
+        Result merge(Result o) {
+            return new Result(mergePoints(points, o.points), mode.merge(o.mode));
+        }
+    }
+
+    /**
+     * Mode tiap segment digabung, presisi diambil yang paling kasar.
+     *
+     * @param mode      sumber/strategi, mis. "ROLLUP+EXACT_SUBQUERY"
+     * @param precision "exact" atau keterangan aproksimasi (mode COARSE)
+     */
+    public record QueryMode(String mode, String precision) {
+        QueryMode merge(QueryMode o) {
+            Set<String> modes = new LinkedHashSet<>(Arrays.asList(mode.split("\\+")));
+            modes.addAll(Arrays.asList(o.mode.split("\\+")));
+            String p = precision.startsWith("approx") || "exact".equals(o.precision) ? precision : o.precision;
+            return new QueryMode(String.join("+", modes), p);
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.config.AlertProps;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluasi alert PING di proses sendiri: hasil probe per target (poller blackbox / POST /alerts/probes)
+ * masuk ke ProbeWindow per target, jumlah gagal di window terakhir dibaca tanpa query Prometheus.
+ */
+@Component
+public class LocalProbeEvaluator {
+
+    // target yang tidak mengirim sample selama window x ini dibuang dari memori
+    private static final int EVICT_AFTER_WINDOWS = 10;
+
+    private final AlertProps.Local props;
+    private final Map<String, Target> targets = new ConcurrentHashMap<>();
+    private final AtomicLong lastIngestSecond = new AtomicLong(Long.MIN_VALUE);
+
+    public LocalProbeEvaluator(AlertProps alertProps) {
+        this.props = alertProps.getLocal();
+    }
+
+    public boolean isEnabled() {
+        return props.isEnabled();
+    }
+
+    public void record(String instance, String alias, long epochMillis, boolean success) {
+        if (!isEnabled() || instance == null || instance.isBlank()) return;
+        // jam pengirim push yang kecepetan tidak boleh menggeser window ke masa depan
+        long second = Math.min(Math.floorDiv(epochMillis, 1000L), Instant.now().getEpochSecond());
+        Target t = targets.computeIfAbsent(instance, k -> new Target(props.getWindowSeconds()));
+        synchronized (t) {
+            if (alias != null && !alias.isBlank()) t.alias = alias;
+            t.window.record(second, success);
+            t.lastSample = Math.max(t.lastSample, second);
+        }
+        lastIngestSecond.accumulateAndGet(second, Math::max);
+    }
+
+    /**
+     * Sumber lokal dianggap hidup kalau ada sample masuk di window terakhir; kalau tidak (poller mati,
+     * push berhenti) AlertScheduler kembali ke Prometheus.
+     */
+    public boolean isLive(Instant now) {
+        return isEnabled() && lastIngestSecond.get() > now.getEpochSecond() - props.getWindowSeconds();
+    }
+
+    /**
+     * Target dengan gagal ≥ {@code threshold} di (now - window, now].
+     */
+    public List<TargetFails> failing(Instant now, double threshold) {
+        long second = now.getEpochSecond();
+        long evictBefore = second - (long) EVICT_AFTER_WINDOWS * props.getWindowSeconds();
+        List<TargetFails> out = new ArrayList<>();
+        for (Iterator<Map.Entry<String, Target>> it = targets.entrySet().iterator(); it.hasNext(); ) {
+            var e = it.next();
+            Target t = e.getValue();
+            synchronized (t) {
+                if (t.lastSample < evictBefore) {
+                    it.remove();
+                    continue;
+                }
+                t.window.advance(second);
+                int fails = t.window.failCount();
+                if (fails > 0 && fails >= threshold) {
+                    out.add(new TargetFails(e.getKey(), t.alias, fails, t.window.sampleCount()));
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Target dianggap diprobe lokal hanya selama ada sample di (now - window, now]; setelah itu hasil
+     * Prometheus untuk instance ini dipakai lagi.
+     */
+    public boolean tracks(String instance, Instant now) {
+        Target t = targets.get(instance);
+        if (t == null) return false;
+        synchronized (t) {
+            return t.lastSample > now.getEpochSecond() - props.getWindowSeconds();
+        }
+    }
+
+    public int targetCount() {
+        return targets.size();
+    }
+
+    public record TargetFails(String instance, String alias, int fails, int samples) {
+    }
+
+    private static final class Target {
+        final ProbeWindow window;
+        String alias = "";
+        long lastSample = Long.MIN_VALUE;
+
+        Target(int windowSeconds) {
+            this.window = new ProbeWindow(windowSeconds);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bitmap 1 bit per menit (epoch minute), disimpan sparse per chunk 1 hari (1440 bit = 23 long).
+ * Chunk yang kosong tidak disimpan, chunk yang penuh diserialisasi sebagai 1 byte — jadi bitmap "down"
+ * (hampir selalu kosong) dan "covered"/"seen" (hampir selalu penuh) sama-sama kecil.
+ * <p>
+ * Tidak thread-safe; sinkronisasi di pemilik (DowntimeBitmapStore).
+ */
+final class MinuteBitmap {
+
+    static final int MINUTES_PER_CHUNK = 1440;
+    private static final int WORDS = (MINUTES_PER_CHUNK + 63) / 64;
+    private static final byte RAW = 0, FULL = 1;
+
+    private final TreeMap<Long, long[]> chunks = new TreeMap<>();
+
+    void set(long minute) {
+        long day = Math.floorDiv(minute, MINUTES_PER_CHUNK);
+        int bit = (int) Math.floorMod(minute, MINUTES_PER_CHUNK);
+        chunks.computeIfAbsent(day, d -> new long[WORDS])[bit >>> 6] |= 1L << (bit & 63);
+    }
+
+    void clear(long minute) {
+        long day = Math.floorDiv(minute, MINUTES_PER_CHUNK);
+        long[] w = chunks.get(day);
+        if (w == null) return;
+        int bit = (int) Math.floorMod(minute, MINUTES_PER_CHUNK);
+        w[bit >>> 6] &= ~(1L << (bit & 63));
+    }
+
+    boolean get(long minute) {
+        long[] w = chunks.get(Math.floorDiv(minute, MINUTES_PER_CHUNK));
+        if (w == null) return false;
+        int bit = (int) Math.floorMod(minute, MINUTES_PER_CHUNK);
+        return (w[bit >>> 6] & (1L << (bit & 63))) != 0;
+    }
+
+    /**
+     * Jumlah bit 1 di menit [from, to).
+     */
+    long count(long from, long to) {
+        return countUnion(List.of(this), from, to);
+    }
+
+    /**
+     * Jumlah menit di [from, to) yang bit-nya 1 di minimal satu bitmap (OR lalu popcount per word).
+     */
+    static long countUnion(List<MinuteBitmap> maps, long from, long to) {
+        if (to <= from || maps.isEmpty()) return 0;
+        long total = 0;
+        long[] acc = new long[WORDS];
+        long firstDay = Math.floorDiv(from, MINUTES_PER_CHUNK);
+        long lastDay = Math.floorDiv(to - 1, MINUTES_PER_CHUNK);
+        for (long day = firstDay; day <= lastDay; day++) {
+            boolean any = false;
+            for (MinuteBitmap m : maps) {
+                long[] w = m.chunks.get(day);
+                if (w == null) continue;
+                if (!any) {
+                    System.arraycopy(w, 0, acc, 0, WORDS);
+                    any = true;
+                } else {
+                    for (int i = 0; i < WORDS; i++) acc[i] |= w[i];
+                }
+            }
+            if (!any) continue;
+            long base = day * MINUTES_PER_CHUNK;
+            int lo = (int) Math.max(0, from - base);
+            int hi = (int) Math.min(MINUTES_PER_CHUNK, to - base);
+            total += popcount(acc, lo, hi);
+        }
+        return total;
+    }
+
+    // popcount bit [lo, hi) di satu chunk
+    private static long popcount(long[] w, int lo, int hi) {
+        long n = 0;
+        int loWord = lo >>> 6, hiWord = (hi - 1) >>> 6;
+        for (int i = loWord; i <= hiWord; i++) {
+            long word = w[i];
+            if (i == loWord) word &= -1L << (lo & 63);
+            if (i == hiWord && (hi & 63) != 0) word &= -1L >>> (64 - (hi & 63));
+            n += Long.bitCount(word);
+        }
+        return n;
+    }
+
+    /**
+     * Buang chunk sebelum hari {@code day} (retensi).
+     */
+    void dropBefore(long day) {
+        chunks.headMap(day).clear();
+    }
+
+    boolean isEmpty() {
+        return chunks.isEmpty();
+    }
+
+    /**
+     * Menit tertinggi yang di-set, atau {@code Long.MIN_VALUE} kalau kosong.
+     */
+    long lastSet() {
+        for (Map.Entry<Long, long[]> e : chunks.descendingMap().entrySet()) {
+            long[] w = e.getValue();
+            for (int i = WORDS - 1; i >= 0; i--) {
+                if (w[i] != 0) return e.getKey() * MINUTES_PER_CHUNK + i * 64L + 63 - Long.numberOfLeadingZeros(w[i]);
+            }
+        }
+        return Long.MIN_VALUE;
+    }
+
+    // ==== Serialisasi: [n] lalu per chunk [day][RAW + 23 long | FULL]; chunk kosong dilewati ====
+
+    void write(DataOutputStream out) throws IOException {
+        int n = 0;
+        for (long[] w : chunks.values()) if (!isZero(w)) n++;
+        out.writeInt(n);
+        for (Map.Entry<Long, long[]> e : chunks.entrySet()) {
+            long[] w = e.getValue();
+            if (isZero(w)) continue;
+            out.writeLong(e.getKey());
+            if (isFull(w)) {
+                out.writeByte(FULL);
+            } else {
+                out.writeByte(RAW);
+                for (long x : w) out.writeLong(x);
+            }
+        }
+    }
+
+    static MinuteBitmap read(DataInputStream in) throws IOException {
+        MinuteBitmap m = new MinuteBitmap();
+        int n = in.readInt();
+        for (int c = 0; c < n; c++) {
+            long day = in.readLong();
+            long[] w = new long[WORDS];
+            byte kind = in.readByte();
+            if (kind == FULL) {
+                fill(w);
+            } else if (kind == RAW) {
+                for (int i = 0; i < WORDS; i++) w[i] = in.readLong();
+            } else {
+                throw new IOException("chunk bitmap tidak dikenal: " + kind);
+            }
+            m.chunks.put(day, w);
+        }
+        return m;
+    }
+
+    private static boolean isZero(long[] w) {
+        for (long x : w) if (x != 0) return false;
+        return true;
+    }
+
+    private static boolean isFull(long[] w) {
+        long[] full = new long[WORDS];
+        fill(full);
+        return Arrays.equals(w, full);
+    }
+
+    private static void fill(long[] w) {
+        Arrays.fill(w, -1L);
+        int rem = MINUTES_PER_CHUNK & 63;
+        if (rem != 0) w[WORDS - 1] = -1L >>> (64 - rem);
+    }
+}
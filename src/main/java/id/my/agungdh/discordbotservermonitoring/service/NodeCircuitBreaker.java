@@ -0,0 +1,173 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.NodeBreakerDTO;
+import id.my.agungdh.discordbotservermonitoring.client.NodeExporterClient;
+import id.my.agungdh.discordbotservermonitoring.config.MonitoringProps;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Circuit breaker per node node_exporter (CLOSED → OPEN → HALF_OPEN).
+ * <ul>
+ *     <li>CLOSED: request jalan normal; gagal berturut-turut ≥ threshold → OPEN</li>
+ *     <li>OPEN: request langsung ditolak (placeholder), probe dijadwalkan di background dengan backoff</li>
+ *     <li>HALF_OPEN: satu probe sedang jalan; sukses → CLOSED, gagal → OPEN lagi dengan backoff x2</li>
+ * </ul>
+ */
+@Component
+public class NodeCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(NodeCircuitBreaker.class);
+
+    private final NodeExporterClient client;
+    private final MonitoringProps props;
+    private final Map<String, Breaker> breakers = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService probeScheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread t = new Thread(r, "node-breaker-probe");
+        t.setDaemon(true);
+        return t;
+    });
+
+    public NodeCircuitBreaker(NodeExporterClient client, MonitoringProps props) {
+        this.client = client;
+        this.props = props;
+    }
+
+    private Breaker breaker(String nodeKey) {
+        return breakers.computeIfAbsent(nodeKey, k -> new Breaker());
+    }
+
+    /**
+     * true kalau request ke node boleh jalan (hanya saat CLOSED).
+     */
+    public boolean allowRequest(String nodeKey) {
+        Breaker b = breakers.get(nodeKey);
+        if (b == null) return true;
+        synchronized (b) {
+            return b.state == State.CLOSED;
+        }
+    }
+
+    public void recordSuccess(String nodeKey) {
+        Breaker b = breakers.get(nodeKey);
+        if (b == null) return;
+        synchronized (b) {
+            if (b.state != State.CLOSED) log.info("Circuit node {} CLOSED lagi", nodeKey);
+            b.state = State.CLOSED;
+            b.consecutiveFailures = 0;
+            b.lastError = null;
+            b.backoffMillis = 0;
+        }
+    }
+
+    public void recordFailure(String nodeKey, String error) {
+        Breaker b = breaker(nodeKey);
+        long delay;
+        synchronized (b) {
+            b.consecutiveFailures++;
+            b.lastError = error;
+            if (b.state != State.CLOSED || b.consecutiveFailures < props.getBreaker().getFailureThreshold()) return;
+            delay = open(b);
+        }
+        log.warn("Circuit node {} OPEN setelah {} kegagalan: {}", nodeKey, b.consecutiveFailures, error);
+        scheduleProbe(nodeKey, delay);
+    }
+
+    // dipanggil di dalam synchronized(b)
+    private long open(Breaker b) {
+        var cfg = props.getBreaker();
+        b.backoffMillis = (b.backoffMillis == 0)
+                ? cfg.getInitialBackoffMillis()
+                : Math.min(cfg.getMaxBackoffMillis(), b.backoffMillis * 2);
+        b.state = State.OPEN;
+        b.openedAt = System.currentTimeMillis();
+        b.nextProbeAt = b.openedAt + b.backoffMillis;
+        return b.backoffMillis;
+    }
+
+    private void scheduleProbe(String nodeKey, long delayMillis) {
+        // scheduler hanya memicu; probe (network I/O) jalan di virtual thread
+        probeScheduler.schedule(() -> Thread.startVirtualThread(() -> probe(nodeKey)), delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void probe(String nodeKey) {
+        Breaker b = breaker(nodeKey);
+        synchronized (b) {
+            if (b.state != State.OPEN) return;
+            b.state = State.HALF_OPEN;
+        }
+        MonitoringProps.Node node = props.getNodes().stream()
+                .filter(n -> nodeKey.equals(n.key()))
+                .findFirst().orElse(null);
+        if (node == null) {
+            breakers.remove(nodeKey); // node sudah tidak dikonfigurasi
+            return;
+        }
+        try {
+            client.scrapeFrame(node.getUrl(), NodeMetricsService.DELTA_COLLECTORS, NodeMetricsService.DELTA_FAMILIES);
+            recordSuccess(nodeKey);
+        } catch (Exception e) {
+            long delay;
+            synchronized (b) {
+                b.lastError = e.getMessage();
+                b.consecutiveFailures++;
+                delay = open(b);
+            }
+            log.debug("Probe node {} gagal, coba lagi {} ms: {}", nodeKey, delay, e.getMessage());
+            scheduleProbe(nodeKey, delay);
+        }
+    }
+
+    /**
+     * Status semua breaker (untuk endpoint diagnostics).
+     */
+    public Map<String, NodeBreakerDTO> snapshot() {
+        Map<String, NodeBreakerDTO> out = new LinkedHashMap<>();
+        for (var n : props.getNodes()) {
+            Breaker b = breakers.get(n.key());
+            if (b == null) {
+                out.put(n.key(), new NodeBreakerDTO(n.key(), State.CLOSED.name(), 0, null, null, null, 0));
+                continue;
+            }
+            synchronized (b) {
+                boolean closed = b.state == State.CLOSED;
+                out.put(n.key(), new NodeBreakerDTO(
+                        n.key(),
+                        b.state.name(),
+                        b.consecutiveFailures,
+                        b.lastError,
+                        closed ? null : Instant.ofEpochMilli(b.openedAt),
+                        closed ? null : Instant.ofEpochMilli(b.nextProbeAt),
+                        b.backoffMillis
+                ));
+            }
+        }
+        return out;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        probeScheduler.shutdownNow();
+    }
+
+    private enum State {CLOSED, OPEN, HALF_OPEN}
+
+    private static final class Breaker {
+        State state = State.CLOSED;
+        int consecutiveFailures;
+        String lastError;
+        long openedAt;
+        long nextProbeAt;
+        long backoffMillis;
+    }
+}
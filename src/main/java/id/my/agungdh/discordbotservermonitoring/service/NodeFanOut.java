@@ -0,0 +1,71 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.config.MonitoringProps;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Jalankan satu task per node secara paralel (virtual thread) dengan deadline per node + deadline total.
+ * Node yang lewat deadline di-cancel dan diganti hasil onTimeout → latency = node sehat paling lambat,
+ * bukan jumlah semua node.
+ */
+@Component
+public class NodeFanOut {
+
+    private final MonitoringProps props;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    public NodeFanOut(MonitoringProps props) {
+        this.props = props;
+    }
+
+    /**
+     * @return hasil per key node, urutan sama dengan {@code nodes}
+     */
+    public <T> Map<String, T> run(List<MonitoringProps.Node> nodes,
+                                  Function<MonitoringProps.Node, T> task,
+                                  Function<String, T> onTimeout,
+                                  BiFunction<String, Throwable, T> onError) {
+        long start = System.nanoTime();
+        long nodeDeadline = start + TimeUnit.MILLISECONDS.toNanos(props.getNodeTimeoutMillis());
+        long overallDeadline = start + TimeUnit.MILLISECONDS.toNanos(props.getOverallTimeoutMillis());
+        long deadline = Math.min(nodeDeadline, overallDeadline);
+
+        Map<String, Future<T>> futures = new LinkedHashMap<>();
+        for (var n : nodes) {
+            futures.put(n.key(), executor.submit(() -> task.apply(n)));
+        }
+
+        Map<String, T> out = new LinkedHashMap<>();
+        for (var e : futures.entrySet()) {
+            String key = e.getKey();
+            Future<T> f = e.getValue();
+            try {
+                long remaining = Math.max(0, deadline - System.nanoTime());
+                out.put(key, f.get(remaining, TimeUnit.NANOSECONDS));
+            } catch (TimeoutException te) {
+                f.cancel(true);
+                out.put(key, onTimeout.apply(key));
+            } catch (ExecutionException ee) {
+                out.put(key, onError.apply(key, ee.getCause()));
+            } catch (InterruptedException ie) {
+                Thread.currentThread().interrupt();
+                f.cancel(true);
+                out.put(key, onError.apply(key, ie));
+            }
+        }
+        return out;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,146 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.config.MonitoringProps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+import java.util.stream.Collectors;
+
+/**
+ * Filter filesystem/interface yang sudah di-compile sekali saat startup.
+ * Semua regex include (dan exclude) satu dimensi digabung jadi satu Pattern alternation,
+ * jadi tiap nilai label cukup satu kali match per dimensi.
+ */
+@Component
+public class NodeFilters {
+
+    private static final Logger log = LoggerFactory.getLogger(NodeFilters.class);
+    private static final Rule ALLOW_ALL = new Rule(null, null);
+    // perilaku lama includeVirtualIfaces / includeSpecialFilesystems = false
+    private static final List<String> LEGACY_IFACE_EXCLUDE = List.of("lo", "veth.*", "docker.*", "br-.*");
+    private static final List<String> LEGACY_FSTYPE_EXCLUDE = List.of("tmpfs", "overlay");
+    private static final List<String> LEGACY_MOUNTPOINT_EXCLUDE = List.of("/(proc|sys|run)($|/).*");
+
+    private final Compiled defaults;
+    private final Map<String, Compiled> byNode = new HashMap<>();
+
+    public NodeFilters(MonitoringProps props) {
+        MonitoringProps.Filters base = withLegacyToggles(props);
+        this.defaults = compile("monitoring.filters", base, null, null);
+
+        Map<String, MonitoringProps.Filters> groups = props.getFilterGroups() == null ? Map.of() : props.getFilterGroups();
+        for (var n : props.getNodes()) {
+            MonitoringProps.Filters group = null;
+            if (n.getFilterGroup() != null && !n.getFilterGroup().isBlank()) {
+                group = groups.get(n.getFilterGroup());
+                if (group == null) {
+                    throw new IllegalStateException("monitoring.nodes[" + n.key() + "].filterGroup '"
+                            + n.getFilterGroup() + "' tidak ada di monitoring.filterGroups");
+                }
+            }
+            byNode.put(n.key(), compile("monitoring.nodes[" + n.key() + "]", n.getFilters(), group, base));
+        }
+    }
+
+    /**
+     * Toggle lama (deprecated) dipetakan ke aturan exclude default; dimensi yang sudah di-set di
+     * monitoring.filters tetap menang.
+     */
+    @SuppressWarnings("deprecation")
+    private static MonitoringProps.Filters withLegacyToggles(MonitoringProps props) {
+        MonitoringProps.Filters base = props.getFilters() == null ? new MonitoringProps.Filters() : props.getFilters();
+        Boolean virtualIfaces = props.getIncludeVirtualIfaces();
+        Boolean specialFs = props.getIncludeSpecialFilesystems();
+        if (virtualIfaces == null && specialFs == null) return base;
+
+        MonitoringProps.Filters out = new MonitoringProps.Filters();
+        out.setFstype(base.getFstype());
+        out.setMountpoint(base.getMountpoint());
+        out.setIface(base.getIface());
+        if (virtualIfaces != null) {
+            log.warn("monitoring.includeVirtualIfaces deprecated, pakai monitoring.filters.iface");
+            if (!virtualIfaces) out.setIface(legacy("monitoring.filters.iface", base.getIface(), LEGACY_IFACE_EXCLUDE));
+        }
+        if (specialFs != null) {
+            log.warn("monitoring.includeSpecialFilesystems deprecated, pakai monitoring.filters.fstype/mountpoint");
+            if (!specialFs) {
+                out.setFstype(legacy("monitoring.filters.fstype", base.getFstype(), LEGACY_FSTYPE_EXCLUDE));
+                out.setMountpoint(legacy("monitoring.filters.mountpoint", base.getMountpoint(), LEGACY_MOUNTPOINT_EXCLUDE));
+            }
+        }
+        return out;
+    }
+
+    private static MonitoringProps.Rules legacy(String where, MonitoringProps.Rules configured, List<String> exclude) {
+        if (configured != null) {
+            log.warn("{} sudah di-set → toggle lama untuk dimensi ini diabaikan", where);
+            return configured;
+        }
+        MonitoringProps.Rules r = new MonitoringProps.Rules();
+        r.setExclude(exclude);
+        return r;
+    }
+
+    private static Compiled compile(String where, MonitoringProps.Filters node,
+                                    MonitoringProps.Filters group, MonitoringProps.Filters base) {
+        return new Compiled(
+                rule(where + ".fstype", pick(MonitoringProps.Filters::getFstype, node, group, base)),
+                rule(where + ".mountpoint", pick(MonitoringProps.Filters::getMountpoint, node, group, base)),
+                rule(where + ".iface", pick(MonitoringProps.Filters::getIface, node, group, base))
+        );
+    }
+
+    // dimensi pertama yang di-set: node → group → default
+    private static MonitoringProps.Rules pick(Function<MonitoringProps.Filters, MonitoringProps.Rules> dim,
+                                              MonitoringProps.Filters... levels) {
+        for (var f : levels) {
+            if (f != null && dim.apply(f) != null) return dim.apply(f);
+        }
+        return null;
+    }
+
+    private static Rule rule(String where, MonitoringProps.Rules r) {
+        if (r == null) return ALLOW_ALL;
+        Pattern include = union(where + ".include", r.getInclude());
+        Pattern exclude = union(where + ".exclude", r.getExclude());
+        return (include == null && exclude == null) ? ALLOW_ALL : new Rule(include, exclude);
+    }
+
+    private static Pattern union(String where, List<String> regexes) {
+        if (regexes == null || regexes.isEmpty()) return null;
+        for (String re : regexes) {
+            try {
+                Pattern.compile(re);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalStateException(where + ": regex tidak valid '" + re + "': " + e.getDescription(), e);
+            }
+        }
+        return Pattern.compile(regexes.stream().map(re -> "(?:" + re + ")").collect(Collectors.joining("|")));
+    }
+
+    /**
+     * Filter untuk satu node; node yang tidak dikonfigurasi pakai filter default.
+     */
+    public Compiled forNode(String nodeKey) {
+        return byNode.getOrDefault(nodeKey, defaults);
+    }
+
+    public record Compiled(Rule fstype, Rule mountpoint, Rule iface) {
+    }
+
+    public record Rule(Pattern include, Pattern exclude) implements Predicate<String> {
+        @Override
+        public boolean test(String value) {
+            if (include != null && !include.matcher(value).matches()) return false;
+            return exclude == null || !exclude.matcher(value).matches();
+        }
+    }
+}
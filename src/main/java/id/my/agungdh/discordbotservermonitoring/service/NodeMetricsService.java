@@ -2,6 +2,7 @@ package id.my.agungdh.discordbotservermonitoring.service;
 
 import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.*;
 import id.my.agungdh.discordbotservermonitoring.client.NodeExporterClient;
+import id.my.agungdh.discordbotservermonitoring.client.ScrapeFrame;
 import id.my.agungdh.discordbotservermonitoring.config.MonitoringProps;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
@@ -10,42 +11,67 @@ import org.springframework.stereotype.Service;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 @Service
 public class NodeMetricsService {
 
+    // Family yang benar-benar dibaca snapshot — sisanya ditolak parser setelah nama metric terbaca
+    static final Set<String> FAMILIES = Set.of(
+            "node_cpu_seconds_total",
+            "node_memory_MemTotal_bytes", "node_memory_MemAvailable_bytes",
+            "node_memory_SwapTotal_bytes", "node_memory_SwapFree_bytes",
+            "node_filesystem_size_bytes", "node_filesystem_avail_bytes",
+            "node_network_receive_bytes_total", "node_network_transmit_bytes_total",
+            "node_uname_info", "node_load1",
+            "node_hwmon_temp_celsius", "node_thermal_zone_temp",
+            "time", "node_boot_time_seconds"
+    );
+    // Scrape kedua (delta CPU) cukup collector cpu + satu family
+    static final List<String> DELTA_COLLECTORS = List.of("cpu");
+    static final Set<String> DELTA_FAMILIES = Set.of("node_cpu_seconds_total");
+    private static final String CIRCUIT_OPEN = "circuit open";
+
     private final NodeExporterClient client;
     private final MonitoringProps props;
+    private final NodeScrapeCollector collector;
+    private final NodeFanOut fanOut;
+    private final NodeCircuitBreaker breaker;
+    private final SnapshotCache snapshotCache;
+    private final NodeFilters filters;
     private final long cpuSampleMillis;
 
     public NodeMetricsService(NodeExporterClient client,
                               MonitoringProps props,
+                              NodeScrapeCollector collector,
+                              NodeFanOut fanOut,
+                              NodeCircuitBreaker breaker,
+                              SnapshotCache snapshotCache,
+                              NodeFilters filters,
                               @Value("${monitoring.cpuSampleMillis:300}") long cpuSampleMillis) {
         this.client = client;
         this.props = props;
+        this.collector = collector;
+        this.fanOut = fanOut;
+        this.breaker = breaker;
+        this.snapshotCache = snapshotCache;
+        this.filters = filters;
         this.cpuSampleMillis = cpuSampleMillis;
     }
 
-    private static List<StorageDTO> buildDisks(Index idx, boolean includeSpecialFs) {
-        // Kalau includeSpecialFs = true => tampilkan SEMUA filesystem, termasuk tmpfs/overlay/proc/sys/run/zram.
-        // Kalau false => pakai filter “normal” seperti versi sebelumnya.
-        java.util.function.Predicate<Map<String, String>> filter = lab -> true;
-        if (!includeSpecialFs) {
-            filter = lab -> !lab.getOrDefault("fstype", "").matches("^(tmpfs|overlay)$")
-                    && !lab.getOrDefault("mountpoint", "").matches("^/(proc|sys|run)($|/).*");
-        }
-
+    private static List<StorageDTO> buildDisks(SampleIndex idx, NodeFilters.Compiled filter) {
         var sizes = idx.mapFirstValues(
                 "node_filesystem_size_bytes",
-                Map.of(), "device", "mountpoint", "fstype",
-                filter
+                "device", "mountpoint", "fstype",
+                filter.fstype(), filter.mountpoint()
         );
 
         var avails = idx.mapFirstValues(
                 "node_filesystem_avail_bytes",
-                Map.of(), "device", "mountpoint", "fstype",
-                filter
+                "device", "mountpoint", "fstype",
+                filter.fstype(), filter.mountpoint()
         );
 
         List<StorageDTO> out = new ArrayList<>();
@@ -64,16 +90,9 @@ public class NodeMetricsService {
         return out;
     }
 
-    private static List<NetworkDTO> buildNetworks(Index idx, boolean includeVirtualIfaces) {
-        // Kalau includeVirtualIfaces = true => tampilkan SEMUA device (termasuk lo, veth*, docker*, br-*, dll).
-        // Kalau false => hide seperti sebelumnya.
-        java.util.function.Predicate<String> allow = dev -> true;
-        if (!includeVirtualIfaces) {
-            allow = dev -> !dev.matches("^(lo|veth.*|docker.*|br-.*)$");
-        }
-
-        var rx = idx.mapFirstValuesByDevice("node_network_receive_bytes_total", allow);
-        var tx = idx.mapFirstValuesByDevice("node_network_transmit_bytes_total", allow);
+    private static List<NetworkDTO> buildNetworks(SampleIndex idx, NodeFilters.Compiled filter) {
+        var rx = idx.mapFirstValuesByDevice("node_network_receive_bytes_total", filter.iface());
+        var tx = idx.mapFirstValuesByDevice("node_network_transmit_bytes_total", filter.iface());
 
         Set<String> devs = new TreeSet<>();
         devs.addAll(rx.keySet());
@@ -91,8 +110,8 @@ public class NodeMetricsService {
         return out;
     }
 
-    private static long optToLong(Optional<Double> o) {
-        return o.map(d -> (long) (double) d).orElse(0L);
+    private static long optToLong(OptionalDouble o) {
+        return o.isPresent() ? (long) o.getAsDouble() : 0L;
     }
 
     // ========= CPU calc via delta =========
@@ -125,16 +144,21 @@ public class NodeMetricsService {
     // ========= Utils =========
 
     private static MetricsDTO errorPlaceholder(String name) {
+        return errorPlaceholder(name, "unavailable");
+    }
+
+    private static MetricsDTO errorPlaceholder(String name, String status) {
         return new MetricsDTO(
-                Instant.now(), name, "unavailable", 0L,
+                Instant.now(), name, status, 0L,
                 new CpuDTO("", 0, 0, -1, 0, List.of(), null),
                 new MemoryDTO(0, 0, 0, 0),
                 new SwapDTO(0, 0, 0),
-                List.of(), List.of()
+                List.of(), List.of(),
+                0L
         );
     }
 
-    private static String buildOs(Index idx) {
+    private static String buildOs(SampleIndex idx) {
         String sys = idx.firstLabel("node_uname_info", "sysname").orElse("");
         String rel = idx.firstLabel("node_uname_info", "release").orElse("");
         String mach = idx.firstLabel("node_uname_info", "machine").orElse("");
@@ -146,50 +170,92 @@ public class NodeMetricsService {
      * Snapshot satu node langsung dari node_exporter (tanpa Prometheus).
      */
     public MetricsDTO snapshotFromUrl(String nameOrHost, String baseUrl, boolean includeNetwork) {
-        // 2x scrape untuk menghitung delta CPU yang akurat
-        var s1 = client.scrape(baseUrl);
+        return snapshotFromUrl(nameOrHost, baseUrl, List.of(), includeNetwork);
+    }
+
+    /**
+     * Snapshot satu node dengan pilihan collector node_exporter (kosong = semua).
+     * Scrape pertama penuh (sesuai collectors), scrape kedua hanya collector cpu untuk delta CPU.
+     */
+    public MetricsDTO snapshotFromUrl(String nameOrHost, String baseUrl, List<String> collectors,
+                                      boolean includeNetwork) {
+        ScrapeFrame s1 = client.scrapeFrame(baseUrl, collectors, FAMILIES);
         sleepSilently(cpuSampleMillis);
-        var s2 = client.scrape(baseUrl);
+        SampleIndex idx2;
+        try {
+            idx2 = new SampleIndex(client.scrapeFrame(baseUrl, DELTA_COLLECTORS, DELTA_FAMILIES));
+        } catch (Exception e) {
+            // collector cpu nonaktif / gagal sesaat → snapshot tetap jalan, CPU usage ditandai tidak tersedia
+            idx2 = null;
+        }
 
-        var idx1 = new Index(s1);
-        var idx2 = new Index(s2);
+        var idx1 = new SampleIndex(s1);
+        return buildSnapshot(nameOrHost, Instant.now(), idx1, idx2, idx1, includeNetwork);
+    }
 
+    /**
+     * Snapshot dari ring buffer collector: delta CPU antara dua scrape terbaru, sisanya dari scrape terbaru.
+     * Tanpa network I/O; null kalau belum ada dua scrape (delta CPU belum bisa dihitung) atau datanya sudah basi.
+     */
+    MetricsDTO snapshotFromHistory(String nodeKey, boolean includeNetwork) {
+        ScrapeHistory h = collector.history(nodeKey);
+        ScrapeFrame latest = h.latest();
+        if (latest == null) return null;
+        if (System.currentTimeMillis() - latest.scrapedAtMillis() > collector.staleAfterMillis()) return null;
+        ScrapeFrame previous = h.get(1);
+        // 1 scrape saja → delta CPU akan 0%, anggap belum ada data
+        if (previous == null) return null;
+
+        var cur = new SampleIndex(latest);
+        return buildSnapshot(nodeKey, Instant.ofEpochMilli(latest.scrapedAtMillis()),
+                new SampleIndex(previous), cur, cur, includeNetwork);
+    }
+
+    /**
+     * @param prev scrape baseline delta CPU
+     * @param cur  scrape setelahnya (cukup node_cpu_seconds_total); null = delta CPU tidak tersedia
+     * @param info scrape penuh untuk memory/disk/network/uname/load
+     */
+    private MetricsDTO buildSnapshot(String nameOrHost, Instant timestamp,
+                                     SampleIndex prev, SampleIndex cur, SampleIndex info,
+                                     boolean includeNetwork) {
         // Waktu & uptime
-        double nowEpoch = idx2.firstValue("time").orElse(System.currentTimeMillis() / 1000.0);
-        double boot = idx2.firstValue("node_boot_time_seconds").orElse(nowEpoch);
+        double nowEpoch = info.firstValue("time").orElse(timestamp.toEpochMilli() / 1000.0);
+        double boot = info.firstValue("node_boot_time_seconds").orElse(nowEpoch);
         long uptimeSec = Math.max(0, Math.round(nowEpoch - boot));
 
         // Hostname & OS
-        String hostname = idx2.firstLabel("node_uname_info", "nodename").orElse(nameOrHost);
-        String os = buildOs(idx2);
+        String hostname = info.firstLabel("node_uname_info", "nodename").orElse(nameOrHost);
+        String os = buildOs(info);
 
         // CPU via delta counter
-        CpuCalc cpu = computeCpu(idx1, idx2);
+        CpuCalc cpu = computeCpu(prev, cur, info);
 
         // Memory
-        long memTotal = optToLong(idx2.firstValue("node_memory_MemTotal_bytes"));
-        long memAvail = optToLong(idx2.firstValue("node_memory_MemAvailable_bytes"));
+        long memTotal = optToLong(info.firstValue("node_memory_MemTotal_bytes"));
+        long memAvail = optToLong(info.firstValue("node_memory_MemAvailable_bytes"));
         long memUsed = Math.max(0, memTotal - memAvail);
         double memPct = memTotal == 0 ? 0 : (memUsed * 100.0 / memTotal);
 
         // Swap
-        long swapTotal = optToLong(idx2.firstValue("node_memory_SwapTotal_bytes"));
-        long swapFree = optToLong(idx2.firstValue("node_memory_SwapFree_bytes"));
+        long swapTotal = optToLong(info.firstValue("node_memory_SwapTotal_bytes"));
+        long swapFree = optToLong(info.firstValue("node_memory_SwapFree_bytes"));
         long swapUsed = Math.max(0, swapTotal - swapFree);
         double swapPct = swapTotal == 0 ? 0 : (swapUsed * 100.0 / swapTotal);
 
-        // Disks & Networks (pakai toggle dari props)
-        List<StorageDTO> disks = buildDisks(idx2, props.isIncludeSpecialFilesystems());
-        List<NetworkDTO> nets = includeNetwork ? buildNetworks(idx2, props.isIncludeVirtualIfaces()) : List.of();
+        // Disks & Networks (filter include/exclude per node, sudah di-compile)
+        NodeFilters.Compiled filter = filters.forNode(nameOrHost);
+        List<StorageDTO> disks = buildDisks(info, filter);
+        List<NetworkDTO> nets = includeNetwork ? buildNetworks(info, filter) : List.of();
 
         return new MetricsDTO(
-                Instant.now(),
+                timestamp,
                 hostname,
                 os,
                 uptimeSec,
                 new CpuDTO(
                         // node_exporter tidak expose "model" portable; pakai machine sebagai fallback
-                        idx2.firstLabel("node_uname_info", "machine").orElse(hostname),
+                        info.firstLabel("node_uname_info", "machine").orElse(hostname),
                         cpu.physicalCores,
                         cpu.logicalCores,
                         cpu.load1,
@@ -200,26 +266,81 @@ public class NodeMetricsService {
                 new MemoryDTO(memTotal, memUsed, memAvail, round2(memPct)),
                 new SwapDTO(swapTotal, swapUsed, round2(swapPct)),
                 disks,
-                nets
+                nets,
+                0L
         );
     }
 
     /**
      * Snapshot semua node dari konfigurasi.
+     * Collector aktif → langsung dari memori; nonaktif → scrape live paralel dengan deadline
+     * (node yang telat ditandai "timeout", node lain tetap dikembalikan).
+     * Hanya scrape live yang lewat SnapshotCache (kalau aktif); tiap snapshot membawa ageMillis.
      */
     public Map<String, MetricsDTO> snapshotAll(boolean includeNetwork) {
-        Map<String, MetricsDTO> out = new LinkedHashMap<>();
-        for (var n : props.getNodes()) {
-            String key = (n.getName() != null && !n.getName().isBlank()) ? n.getName() : n.getUrl();
-            try {
-                out.put(key, snapshotFromUrl(key, n.getUrl(), includeNetwork));
-            } catch (Exception e) {
-                out.put(key, errorPlaceholder(key));
+        Map<String, MetricsDTO> out;
+        if (collector.isEnabled()) {
+            out = new LinkedHashMap<>();
+            for (var n : props.getNodes()) {
+                if (!breaker.allowRequest(n.key())) {
+                    out.put(n.key(), errorPlaceholder(n.key(), CIRCUIT_OPEN));
+                    continue;
+                }
+                // history sudah di memori: tanpa SnapshotCache, supaya history yang basi langsung jadi placeholder
+                try {
+                    MetricsDTO m = snapshotFromHistory(n.key(), includeNetwork);
+                    out.put(n.key(), m != null ? m : errorPlaceholder(n.key()));
+                } catch (Exception e) {
+                    out.put(n.key(), errorPlaceholder(n.key()));
+                }
             }
+        } else {
+            out = fanOut.run(props.getNodes(),
+                    n -> {
+                        // circuit OPEN → placeholder langsung, tanpa nunggu connect/read timeout
+                        if (!breaker.allowRequest(n.key())) return errorPlaceholder(n.key(), CIRCUIT_OPEN);
+                        try {
+                            return cached(n, includeNetwork, () -> liveSnapshot(n, includeNetwork));
+                        } catch (InterruptedException ie) {
+                            Thread.currentThread().interrupt();
+                            throw new IllegalStateException(ie);
+                        } catch (ExecutionException ee) {
+                            throw new IllegalStateException(ee.getCause());
+                        }
+                    },
+                    key -> errorPlaceholder(key, "timeout"),
+                    (key, e) -> errorPlaceholder(key));
         }
+
+        long now = System.currentTimeMillis();
+        out.replaceAll((k, m) -> m.withAgeMillis(Math.max(0, now - m.timestamp().toEpochMilli())));
         return out;
     }
 
+    private MetricsDTO cached(MonitoringProps.Node n, boolean includeNetwork, Supplier<MetricsDTO> loader)
+            throws InterruptedException, ExecutionException {
+        if (!snapshotCache.isEnabled()) {
+            try {
+                return loader.get();
+            } catch (RuntimeException e) {
+                throw new ExecutionException(e);
+            }
+        }
+        return snapshotCache.get(n.key(), includeNetwork, loader);
+    }
+
+    // scrape live + catat hasil ke breaker (sekali per scrape, bukan per request yang menunggu)
+    private MetricsDTO liveSnapshot(MonitoringProps.Node n, boolean includeNetwork) {
+        try {
+            MetricsDTO m = snapshotFromUrl(n.key(), n.getUrl(), n.getCollectors(), includeNetwork);
+            breaker.recordSuccess(n.key());
+            return m;
+        } catch (RuntimeException e) {
+            breaker.recordFailure(n.key(), e.getMessage());
+            throw e;
+        }
+    }
+
     @Async("commandExecutor")
     public CompletableFuture<Map<String, MetricsDTO>> snapshotAllAsync(boolean includeNetwork) {
         try {
@@ -229,12 +350,22 @@ public class NodeMetricsService {
         }
     }
 
-    private CpuCalc computeCpu(Index a, Index b) {
+    /**
+     * @param a    scrape baseline delta
+     * @param b    scrape setelahnya (cukup node_cpu_seconds_total); null → usage -1 (N/A), jumlah core dari {@code a}
+     * @param info scrape penuh untuk load/suhu
+     */
+    private CpuCalc computeCpu(SampleIndex a, SampleIndex b, SampleIndex info) {
         // load1 & suhu (opsional)
-        double load1 = b.firstValue("node_load1").orElse(-1.0);
-        Double temp = b.maxOf("node_hwmon_temp_celsius")
-                .orElseGet(() -> b.maxOf("node_thermal_zone_temp").orElse(null));
-        if (temp != null) temp = round2(temp);
+        double load1 = info.firstValue("node_load1").orElse(-1.0);
+        OptionalDouble maxTemp = info.maxOf("node_hwmon_temp_celsius");
+        if (maxTemp.isEmpty()) maxTemp = info.maxOf("node_thermal_zone_temp");
+        Double temp = maxTemp.isPresent() ? round2(maxTemp.getAsDouble()) : null;
+
+        if (b == null) {
+            int cores = a.distinctValues("node_cpu_seconds_total", "cpu").size();
+            return new CpuCalc(cores, cores, load1, -1, List.of(), temp);
+        }
 
         // Delta per core
         Map<String, Double> totalDelta = new HashMap<>();
@@ -283,91 +414,4 @@ public class NodeMetricsService {
     private record CpuCalc(int logicalCores, int physicalCores, double load1,
                            double totalUsagePct, List<Double> perCorePct, Double temperatureC) {
     }
-
-    // ========= Index untuk navigasi sample =========
-
-    private static class Index {
-        private final List<NodeExporterClient.Sample> samples;
-
-        Index(List<NodeExporterClient.Sample> samples) {
-            this.samples = samples;
-        }
-
-        private static boolean labelsMatch(Map<String, String> have, Map<String, String> need) {
-            for (var e : need.entrySet()) {
-                if (!e.getValue().equals(have.getOrDefault(e.getKey(), ""))) return false;
-            }
-            return true;
-        }
-
-        Optional<Double> firstValue(String name) {
-            return samples.stream()
-                    .filter(s -> s.name().equals(name))
-                    .map(NodeExporterClient.Sample::value)
-                    .findFirst();
-        }
-
-        Optional<Double> firstValue(String name, Map<String, String> match) {
-            return samples.stream()
-                    .filter(s -> s.name().equals(name) && labelsMatch(s.labels(), match))
-                    .map(NodeExporterClient.Sample::value)
-                    .findFirst();
-        }
-
-        Optional<Double> maxOf(String name) {
-            return samples.stream()
-                    .filter(s -> s.name().equals(name))
-                    .map(NodeExporterClient.Sample::value)
-                    .max(Double::compare);
-        }
-
-        Optional<String> firstLabel(String metric, String label) {
-            return samples.stream()
-                    .filter(s -> s.name().equals(metric))
-                    .map(s -> s.labels().get(label))
-                    .filter(Objects::nonNull)
-                    .findFirst();
-        }
-
-        Set<String> distinctValues(String metric, String label) {
-            return samples.stream()
-                    .filter(s -> s.name().equals(metric))
-                    .map(s -> s.labels().getOrDefault(label, ""))
-                    .filter(v -> !v.isBlank())
-                    .collect(Collectors.toCollection(TreeSet::new));
-        }
-
-        Map<Key, Long> mapFirstValues(String metric, Map<String, String> mustMatch,
-                                      String labelDevice, String labelMount, String labelFs,
-                                      java.util.function.Predicate<Map<String, String>> labelFilter) {
-            Map<Key, Long> out = new HashMap<>();
-            for (var s : samples) {
-                if (!s.name().equals(metric)) continue;
-                if (!labelsMatch(s.labels(), mustMatch)) continue;
-                if (!labelFilter.test(s.labels())) continue;
-                Key k = new Key(
-                        s.labels().getOrDefault(labelDevice, ""),
-                        s.labels().getOrDefault(labelMount, ""),
-                        s.labels().getOrDefault(labelFs, "")
-                );
-                // pakai nilai pertama yang terlihat
-                out.putIfAbsent(k, (long) (double) s.value());
-            }
-            return out;
-        }
-
-        Map<String, Long> mapFirstValuesByDevice(String metric, java.util.function.Predicate<String> allowDevice) {
-            Map<String, Long> out = new HashMap<>();
-            for (var s : samples) {
-                if (!s.name().equals(metric)) continue;
-                String dev = s.labels().getOrDefault("device", "");
-                if (!allowDevice.test(dev)) continue;
-                out.putIfAbsent(dev, (long) (double) s.value());
-            }
-            return out;
-        }
-
-        record Key(String device, String mountpoint, String fstype) {
-        }
-    }
 }
@@ -0,0 +1,99 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.client.NodeExporterClient;
+import id.my.agungdh.discordbotservermonitoring.client.ScrapeFrame;
+import id.my.agungdh.discordbotservermonitoring.config.MonitoringProps;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Scrape semua node di background dan simpan N scrape terakhir per node (ring buffer).
+ * NodeMetricsService menghitung delta CPU dari dua entry terbaru → request path tanpa network I/O.
+ */
+@Component
+public class NodeScrapeCollector {
+
+    private static final Logger log = LoggerFactory.getLogger(NodeScrapeCollector.class);
+
+    private final NodeExporterClient client;
+    private final MonitoringProps props;
+    private final NodeFanOut fanOut;
+    private final NodeCircuitBreaker breaker;
+    private final Map<String, ScrapeHistory> histories = new ConcurrentHashMap<>();
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public NodeScrapeCollector(NodeExporterClient client, MonitoringProps props,
+                               NodeFanOut fanOut, NodeCircuitBreaker breaker) {
+        this.client = client;
+        this.props = props;
+        this.fanOut = fanOut;
+        this.breaker = breaker;
+    }
+
+    public boolean isEnabled() {
+        return props.getCollector().isEnabled();
+    }
+
+    /**
+     * Fan-out memblok sampai deadline → jalan di virtual thread sendiri, bukan di scheduler bawaan (2 thread)
+     * yang juga dipakai alert tick. Tick yang datang saat putaran sebelumnya belum selesai dilewati.
+     */
+    @Scheduled(fixedDelayString = "${monitoring.collector.intervalMillis:5000}")
+    public void collect() {
+        if (!isEnabled() || !running.compareAndSet(false, true)) return;
+        Thread.ofVirtual().name("node-collector").start(() -> {
+            try {
+                collectAll();
+            } finally {
+                running.set(false);
+            }
+        });
+    }
+
+    private void collectAll() {
+        // semua node paralel; node yang lewat deadline dicatat gagal, yang lain tetap masuk
+        fanOut.run(props.getNodes(),
+                n -> {
+                    collectNode(n);
+                    return Boolean.TRUE;
+                },
+                key -> {
+                    history(key).failed("timeout", System.currentTimeMillis());
+                    breaker.recordFailure(key, "timeout");
+                    return Boolean.FALSE;
+                },
+                (key, e) -> Boolean.FALSE);
+    }
+
+    void collectNode(MonitoringProps.Node n) {
+        ScrapeHistory h = history(n.key());
+        // circuit OPEN → skip; breaker yang probe node ini di background
+        if (!breaker.allowRequest(n.key())) return;
+        try {
+            ScrapeFrame frame = client.scrapeFrame(n.getUrl(), n.getCollectors(), NodeMetricsService.FAMILIES);
+            h.add(frame);
+            breaker.recordSuccess(n.key());
+        } catch (Exception e) {
+            h.failed(e.getMessage(), System.currentTimeMillis());
+            breaker.recordFailure(n.key(), e.getMessage());
+            log.debug("Scrape {} gagal: {}", n.key(), e.getMessage());
+        }
+    }
+
+    ScrapeHistory history(String nodeKey) {
+        return histories.computeIfAbsent(nodeKey, k -> new ScrapeHistory(props.getCollector().getHistory()));
+    }
+
+    /**
+     * Scrape dianggap basi kalau lebih tua dari 3x interval (node mati / collector macet).
+     */
+    long staleAfterMillis() {
+        return 3 * props.getCollector().getIntervalMillis();
+    }
+}
@@ -0,0 +1,84 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import java.util.Arrays;
+
+/**
+ * Sliding window hasil probe satu target: 1 slot per detik epoch di bitset melingkar berukuran tetap
+ * ({@code windowSeconds} bit untuk "ada sample" + sama untuk "gagal"). Slot detik t dipakai ulang oleh detik
+ * t + window, jadi maju ke detik baru = kosongkan slot yang kedaluwarsa; jumlah sample & gagal di
+ * (now - window, now] dijaga sebagai counter → O(1) per sample (amortized per detik yang lewat).
+ * <p>
+ * Setara {@code count_over_time(probe_success[window]) - sum_over_time(probe_success[window])} selama
+ * probe paling sering 1x per detik; dua sample di detik yang sama digabung (gagal menang).
+ * Tidak thread-safe; sinkronisasi di pemilik (LocalProbeEvaluator).
+ */
+final class ProbeWindow {
+
+    private final int window;
+    private final long[] seen;
+    private final long[] failed;
+    private long lastSecond = Long.MIN_VALUE;
+    private int seenCount;
+    private int failCount;
+
+    ProbeWindow(int windowSeconds) {
+        this.window = windowSeconds;
+        this.seen = new long[(windowSeconds + 63) / 64];
+        this.failed = new long[seen.length];
+    }
+
+    /**
+     * Catat hasil probe di detik epoch {@code second}. Sample yang sudah keluar window diabaikan.
+     */
+    void record(long second, boolean success) {
+        advance(second);
+        if (second <= lastSecond - window) return;
+        int slot = (int) Math.floorMod(second, (long) window);
+        int w = slot >>> 6;
+        long bit = 1L << (slot & 63);
+        if ((seen[w] & bit) == 0) {
+            seen[w] |= bit;
+            seenCount++;
+        }
+        if (!success && (failed[w] & bit) == 0) {
+            failed[w] |= bit;
+            failCount++;
+        }
+    }
+
+    /**
+     * Geser window sampai detik {@code second} (slot detik yang sudah lewat window dikosongkan).
+     */
+    void advance(long second) {
+        if (second <= lastSecond) return;
+        if (lastSecond == Long.MIN_VALUE || second - lastSecond >= window) {
+            Arrays.fill(seen, 0);
+            Arrays.fill(failed, 0);
+            seenCount = 0;
+            failCount = 0;
+        } else {
+            for (long s = lastSecond + 1; s <= second; s++) {
+                int slot = (int) Math.floorMod(s, (long) window);
+                int w = slot >>> 6;
+                long bit = 1L << (slot & 63);
+                if ((seen[w] & bit) != 0) {
+                    seen[w] &= ~bit;
+                    seenCount--;
+                }
+                if ((failed[w] & bit) != 0) {
+                    failed[w] &= ~bit;
+                    failCount--;
+                }
+            }
+        }
+        lastSecond = second;
+    }
+
+    int failCount() {
+        return failCount;
+    }
+
+    int sampleCount() {
+        return seenCount;
+    }
+}
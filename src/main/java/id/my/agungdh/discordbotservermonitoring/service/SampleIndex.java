@@ -0,0 +1,185 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.client.ScrapeFrame;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Index sample hasil satu scrape (ScrapeFrame): baris dikelompokkan per id nama metric sekali di awal,
+ * lookup by label di-hash per (metric, himpunan label) — dibangun lazy saat pertama dipakai.
+ * Nilai dibaca langsung dari {@code double[]} frame (OptionalDouble, tanpa boxing).
+ * <p>
+ * Semantik sama dengan scan linear: label yang tidak ada dianggap "", nilai pertama yang menang.
+ */
+class SampleIndex {
+    private static final int[] NO_ROWS = new int[0];
+    // id tuple untuk "label tidak ada" ATAU label bernilai "" (dianggap sama oleh labelsMatch lama)
+    private static final int EMPTY = -1;
+
+    private final ScrapeFrame frame;
+    private final int[][] rowsByName;
+    private final int emptyId;
+    private final Map<LookupKey, Map<IdTuple, Integer>> lookups = new HashMap<>();
+
+    SampleIndex(ScrapeFrame frame) {
+        this.frame = frame;
+        this.emptyId = frame.id("");
+
+        int[] counts = new int[frame.dictSize()];
+        for (int r = 0; r < frame.size(); r++) counts[frame.nameId(r)]++;
+        int[][] rows = new int[frame.dictSize()][];
+        for (int id = 0; id < rows.length; id++) rows[id] = counts[id] == 0 ? NO_ROWS : new int[counts[id]];
+        Arrays.fill(counts, 0);
+        for (int r = 0; r < frame.size(); r++) {
+            int id = frame.nameId(r);
+            rows[id][counts[id]++] = r;
+        }
+        this.rowsByName = rows;
+    }
+
+    private int[] family(String name) {
+        int id = frame.id(name);
+        return id == ScrapeFrame.ABSENT ? NO_ROWS : rowsByName[id];
+    }
+
+    // id nilai label, dinormalisasi: tidak ada / "" → EMPTY
+    private int normalizedValueId(int row, int keyId) {
+        int v = frame.labelValueIdOf(row, keyId);
+        return (v == ScrapeFrame.ABSENT || v == emptyId) ? EMPTY : v;
+    }
+
+    private String labelOrEmpty(int row, int keyId) {
+        int v = frame.labelValueIdOf(row, keyId);
+        return v == ScrapeFrame.ABSENT ? "" : frame.string(v);
+    }
+
+    OptionalDouble firstValue(String name) {
+        int[] fam = family(name);
+        return fam.length == 0 ? OptionalDouble.empty() : OptionalDouble.of(frame.value(fam[0]));
+    }
+
+    OptionalDouble firstValue(String name, Map<String, String> match) {
+        if (match.isEmpty()) return firstValue(name);
+        List<String> labelNames = new ArrayList<>(match.keySet());
+        Collections.sort(labelNames);
+
+        int[] want = new int[labelNames.size()];
+        for (int j = 0; j < want.length; j++) {
+            String v = match.get(labelNames.get(j));
+            if (v.isEmpty()) {
+                want[j] = EMPTY;
+            } else {
+                want[j] = frame.id(v);
+                if (want[j] == ScrapeFrame.ABSENT) return OptionalDouble.empty(); // nilai tidak pernah muncul
+            }
+        }
+        var table = lookups.computeIfAbsent(new LookupKey(name, labelNames), this::buildLookup);
+        Integer row = table.get(new IdTuple(want));
+        return row == null ? OptionalDouble.empty() : OptionalDouble.of(frame.value(row));
+    }
+
+    private Map<IdTuple, Integer> buildLookup(LookupKey key) {
+        int[] fam = family(key.metric());
+        int[] keyIds = new int[key.labelNames().size()];
+        for (int j = 0; j < keyIds.length; j++) keyIds[j] = frame.id(key.labelNames().get(j));
+
+        Map<IdTuple, Integer> table = new HashMap<>(fam.length * 2);
+        for (int row : fam) {
+            int[] tuple = new int[keyIds.length];
+            for (int j = 0; j < keyIds.length; j++) tuple[j] = normalizedValueId(row, keyIds[j]);
+            table.putIfAbsent(new IdTuple(tuple), row);
+        }
+        return table;
+    }
+
+    OptionalDouble maxOf(String name) {
+        int[] fam = family(name);
+        if (fam.length == 0) return OptionalDouble.empty();
+        double max = frame.value(fam[0]);
+        for (int i = 1; i < fam.length; i++) {
+            double v = frame.value(fam[i]);
+            if (Double.compare(v, max) > 0) max = v;
+        }
+        return OptionalDouble.of(max);
+    }
+
+    Optional<String> firstLabel(String metric, String label) {
+        int keyId = frame.id(label);
+        for (int row : family(metric)) {
+            int v = frame.labelValueIdOf(row, keyId);
+            if (v != ScrapeFrame.ABSENT) return Optional.of(frame.string(v));
+        }
+        return Optional.empty();
+    }
+
+    Set<String> distinctValues(String metric, String label) {
+        int keyId = frame.id(label);
+        Set<String> out = new TreeSet<>();
+        for (int row : family(metric)) {
+            String v = labelOrEmpty(row, keyId);
+            if (!v.isBlank()) out.add(v);
+        }
+        return out;
+    }
+
+    /**
+     * Predicate dievaluasi sekali per nilai label unik (per id dictionary), bukan per sample —
+     * ribuan sample veth/overlay dengan nilai yang sama cukup satu kali match.
+     */
+    Map<Key, Long> mapFirstValues(String metric, String labelDevice, String labelMount, String labelFs,
+                                  Predicate<String> allowFsType, Predicate<String> allowMount) {
+        int devId = frame.id(labelDevice), mountId = frame.id(labelMount), fsId = frame.id(labelFs);
+        byte[] fsMemo = new byte[frame.dictSize() + 1];
+        byte[] mountMemo = new byte[frame.dictSize() + 1];
+        Map<Key, Long> out = new HashMap<>();
+        for (int row : family(metric)) {
+            if (!allowed(frame.labelValueIdOf(row, fsId), allowFsType, fsMemo)) continue;
+            if (!allowed(frame.labelValueIdOf(row, mountId), allowMount, mountMemo)) continue;
+            Key k = new Key(labelOrEmpty(row, devId), labelOrEmpty(row, mountId), labelOrEmpty(row, fsId));
+            // pakai nilai pertama yang terlihat
+            out.putIfAbsent(k, (long) frame.value(row));
+        }
+        return out;
+    }
+
+    Map<String, Long> mapFirstValuesByDevice(String metric, Predicate<String> allowDevice) {
+        int devId = frame.id("device");
+        byte[] memo = new byte[frame.dictSize() + 1];
+        Map<String, Long> out = new HashMap<>();
+        for (int row : family(metric)) {
+            int v = frame.labelValueIdOf(row, devId);
+            if (!allowed(v, allowDevice, memo)) continue;
+            out.putIfAbsent(v == ScrapeFrame.ABSENT ? "" : frame.string(v), (long) frame.value(row));
+        }
+        return out;
+    }
+
+    // memo: 0 = belum dicek, 1 = lolos, 2 = ditolak; slot 0 untuk label yang tidak ada ("")
+    private boolean allowed(int valueId, Predicate<String> filter, byte[] memo) {
+        int slot = valueId + 1;
+        if (memo[slot] == 0) {
+            String v = valueId == ScrapeFrame.ABSENT ? "" : frame.string(valueId);
+            memo[slot] = filter.test(v) ? (byte) 1 : (byte) 2;
+        }
+        return memo[slot] == 1;
+    }
+
+    private record LookupKey(String metric, List<String> labelNames) {
+    }
+
+    private record IdTuple(int[] ids) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdTuple t && Arrays.equals(ids, t.ids);
+        }
+
+        @Override
+        public int hashCode() {
+            return Arrays.hashCode(ids);
+        }
+    }
+
+    record Key(String device, String mountpoint, String fstype) {
+    }
+}
@@ -0,0 +1,67 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.client.ScrapeFrame;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Ring buffer N scrape terakhir untuk satu node (yang terbaru menimpa yang paling lama).
+ */
+class ScrapeHistory {
+    private final ScrapeFrame[] ring;
+    private int head; // slot yang akan ditulis berikutnya
+    private int count;
+    private volatile String lastError;
+    private volatile long lastAttemptMillis;
+
+    ScrapeHistory(int capacity) {
+        this.ring = new ScrapeFrame[Math.max(2, capacity)];
+    }
+
+    synchronized void add(ScrapeFrame frame) {
+        ring[head] = frame;
+        head = (head + 1) % ring.length;
+        if (count < ring.length) count++;
+        lastError = null;
+        lastAttemptMillis = frame.scrapedAtMillis();
+    }
+
+    void failed(String error, long atMillis) {
+        lastError = error;
+        lastAttemptMillis = atMillis;
+    }
+
+    /**
+     * @param back 0 = terbaru, 1 = sebelumnya, dst.; null kalau belum ada
+     */
+    synchronized ScrapeFrame get(int back) {
+        if (back < 0 || back >= count) return null;
+        return ring[Math.floorMod(head - 1 - back, ring.length)];
+    }
+
+    ScrapeFrame latest() {
+        return get(0);
+    }
+
+    synchronized int size() {
+        return count;
+    }
+
+    /**
+     * Salinan isi buffer, dari yang paling lama ke yang terbaru.
+     */
+    synchronized List<ScrapeFrame> frames() {
+        List<ScrapeFrame> out = new ArrayList<>(count);
+        for (int back = count - 1; back >= 0; back--) out.add(get(back));
+        return out;
+    }
+
+    String lastError() {
+        return lastError;
+    }
+
+    long lastAttemptMillis() {
+        return lastAttemptMillis;
+    }
+}
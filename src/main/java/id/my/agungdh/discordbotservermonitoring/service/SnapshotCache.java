@@ -0,0 +1,99 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.DTO.monitoring.MetricsDTO;
+import id.my.agungdh.discordbotservermonitoring.config.MonitoringProps;
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+/**
+ * Cache snapshot per (node, includeNetwork) dengan pola stale-while-revalidate.
+ * <ul>
+ *     <li>umur ≤ ttl: langsung dari cache</li>
+ *     <li>ttl &lt; umur ≤ ttl + stale: data lama langsung dikirim, refresh jalan di background</li>
+ *     <li>lebih tua / belum ada: tunggu refresh</li>
+ * </ul>
+ * Request yang datang bersamaan menunggu refresh yang sama (satu scrape per node, bukan satu per request).
+ * Refresh yang gagal tidak menimpa isi cache.
+ */
+@Component
+public class SnapshotCache {
+
+    private final MonitoringProps props;
+    private final ExecutorService refresher = Executors.newVirtualThreadPerTaskExecutor();
+    private final Map<CacheKey, Entry> entries = new ConcurrentHashMap<>();
+
+    public SnapshotCache(MonitoringProps props) {
+        this.props = props;
+    }
+
+    public boolean isEnabled() {
+        return props.getCache().isEnabled();
+    }
+
+    /**
+     * @param loader dipanggil di virtual thread milik cache, dibatasi nodeTimeoutMillis
+     */
+    MetricsDTO get(String nodeKey, boolean includeNetwork, Supplier<MetricsDTO> loader)
+            throws InterruptedException, ExecutionException {
+        Entry e = entries.computeIfAbsent(new CacheKey(nodeKey, includeNetwork), k -> new Entry());
+        var cfg = props.getCache();
+        CompletableFuture<MetricsDTO> pending;
+        synchronized (e) {
+            if (e.value != null) {
+                long age = System.currentTimeMillis() - e.loadedAt;
+                if (age <= cfg.getTtlMillis()) return e.value;
+                if (age <= cfg.getTtlMillis() + cfg.getStaleMillis()) {
+                    refresh(e, loader);
+                    return e.value;
+                }
+            }
+            pending = refresh(e, loader);
+        }
+        return pending.get();
+    }
+
+    // dipanggil di dalam synchronized(e); refresh yang sedang jalan dipakai bersama
+    private CompletableFuture<MetricsDTO> refresh(Entry e, Supplier<MetricsDTO> loader) {
+        if (e.inFlight != null) return e.inFlight;
+
+        CompletableFuture<MetricsDTO> f = new CompletableFuture<>();
+        Future<?> task = refresher.submit(() -> {
+            try {
+                f.complete(loader.get());
+            } catch (Throwable t) {
+                f.completeExceptionally(t);
+            }
+        });
+        e.inFlight = f;
+        f.orTimeout(props.getNodeTimeoutMillis(), TimeUnit.MILLISECONDS)
+                .whenComplete((v, err) -> {
+                    if (err instanceof TimeoutException) task.cancel(true);
+                    synchronized (e) {
+                        if (err == null) {
+                            e.value = v;
+                            e.loadedAt = System.currentTimeMillis();
+                        }
+                        e.inFlight = null;
+                    }
+                });
+        return f;
+    }
+
+    @PreDestroy
+    void shutdown() {
+        refresher.shutdownNow();
+    }
+
+    private record CacheKey(String nodeKey, boolean includeNetwork) {
+    }
+
+    private static final class Entry {
+        MetricsDTO value;
+        long loadedAt;
+        CompletableFuture<MetricsDTO> inFlight;
+    }
+}
@@ -3,6 +3,8 @@ package id.my.agungdh.discordbotservermonitoring.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import id.my.agungdh.discordbotservermonitoring.DTO.waha.SendTextResponse;
+import id.my.agungdh.discordbotservermonitoring.client.HttpTransport;
+import id.my.agungdh.discordbotservermonitoring.config.HttpTransportProps;
 import id.my.agungdh.discordbotservermonitoring.DTO.waha.WahaSendTextPayload;
 import id.my.agungdh.discordbotservermonitoring.util.ChatIdUtils;
 import org.springframework.beans.factory.annotation.Value;
@@ -21,6 +23,8 @@ import java.util.concurrent.TimeUnit;
 public class WahaService {
 
     private final HttpClient httpClient;
+    private final HttpTransport transport;
+    private final Duration readTimeout;
     private final ObjectMapper om = new ObjectMapper();
     private final String baseUrl;
     private final String defaultSession;
@@ -28,15 +32,17 @@ public class WahaService {
 
     public WahaService(@Value("${waha.base-url}") String baseUrl,
                        @Value("${waha.session:default}") String defaultSession,
-                       @Value("${waha.api-key}") String apiKey) {
+                       @Value("${waha.api-key}") String apiKey,
+                       HttpTransport transport,
+                       HttpTransportProps httpProps) {
         this.baseUrl = baseUrl;
         this.defaultSession = defaultSession;
         this.apiKey = apiKey;
 
-        this.httpClient = HttpClient.newBuilder()
-                .version(HttpClient.Version.HTTP_1_1)
-                .connectTimeout(Duration.ofSeconds(5))
-                .build();
+        // HttpClient bersama (pool + keep-alive); WAHA tetap HTTP/1.1 per request
+        this.transport = transport;
+        this.httpClient = transport.client();
+        this.readTimeout = Duration.ofMillis(httpProps.getWaha().getReadTimeoutMillis());
     }
 
     /**
@@ -97,9 +103,11 @@ public class WahaService {
     private CompletableFuture<Map<String, Object>> postJsonAsync(String path, Object bodyObj) {
         try {
             String json = om.writeValueAsString(bodyObj);
+            URI uri = URI.create(baseUrl + path);
             HttpRequest req = HttpRequest.newBuilder()
-                    .uri(URI.create(baseUrl + path))
-                    .timeout(Duration.ofSeconds(30))
+                    .uri(uri)
+                    .version(HttpClient.Version.HTTP_1_1)
+                    .timeout(readTimeout)
                     .header("Content-Type", "application/json")
                     .header("Accept", "application/json")
                     .header("X-API-KEY", apiKey)
@@ -107,7 +115,9 @@ public class WahaService {
                     .POST(HttpRequest.BodyPublishers.ofString(json)) // Content-Length, bukan chunked
                     .build();
 
+            HttpTransport.Ticket ticket = transport.begin(uri);
             return httpClient.sendAsync(req, HttpResponse.BodyHandlers.ofString())
+                    .whenComplete((resp, err) -> ticket.end(resp == null ? -1 : resp.statusCode(), err))
                     .thenApply(resp -> {
                         if (resp.statusCode() >= 200 && resp.statusCode() < 300) {
                             String body = resp.body();
@@ -0,0 +1,110 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import id.my.agungdh.discordbotservermonitoring.config.HttpTransportProps;
+import id.my.agungdh.discordbotservermonitoring.config.PrometheusBulkheadProps;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestClient;
+import org.springframework.web.client.RestClientException;
+
+import java.time.Instant;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Remote-read end-to-end lawan stand-in lokal: chunk XOR streaming dan fallback SAMPLES harus memberi sample
+ * yang sama persis dengan data asli (terpotong ke [start, end], tanpa stale marker).
+ */
+class PromRemoteReadClientTest {
+
+    private static final long T0 = 1_760_000_000_000L;
+    private static final double STALE_NAN = Double.longBitsToDouble(XorChunkDecoder.STALE_NAN_BITS);
+
+    private PromRemoteReadStandIn standIn;
+    private PromRemoteReadClient client;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        standIn = new PromRemoteReadStandIn();
+        Random r = new Random(42);
+        for (String instance : List.of("a.example", "b.example", "c.example")) {
+            int n = 1000;
+            long[] ts = new long[n];
+            double[] vs = new double[n];
+            long t = T0;
+            for (int i = 0; i < n; i++) {
+                // interval scrape ~15 s dengan jitter, kadang bolong panjang
+                t += 15_000 + r.nextInt(200) - 100 + (r.nextInt(200) == 0 ? 600_000 : 0);
+                ts[i] = t;
+                vs[i] = switch (r.nextInt(10)) {
+                    case 0 -> 0;
+                    case 1 -> r.nextDouble() * 3;
+                    default -> 1;
+                };
+            }
+            vs[500] = STALE_NAN;
+            standIn.add(Map.of("__name__", "probe_success", "job", "blackbox_ping", "instance", instance), ts, vs);
+        }
+        standIn.add(Map.of("__name__", "probe_success", "job", "blackbox_http", "instance", "x"),
+                new long[]{T0 + 1000}, new double[]{1});
+
+        client = new PromRemoteReadClient(standIn.baseUrl(), RestClient.builder(),
+                new HttpTransport(new HttpTransportProps()), new HttpTransportProps(),
+                new PromBulkhead(new PrometheusBulkheadProps()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        standIn.close();
+    }
+
+    @Test
+    void streamedChunksDecodeToOriginalSamples() {
+        assertReadMatches();
+    }
+
+    @Test
+    void samplesFallbackDecodesToOriginalSamples() {
+        standIn.samplesOnly = true;
+        assertReadMatches();
+    }
+
+    @Test
+    void corruptFrameIsRejected() {
+        standIn.corruptCrc = true;
+        assertThrows(RestClientException.class, this::readPing);
+    }
+
+    private List<PrometheusClient.Series> readPing() {
+        return client.probe("blackbox_ping", "probe_success",
+                Instant.ofEpochMilli(T0 + 3_000_000), Instant.ofEpochMilli(T0 + 12_000_000));
+    }
+
+    private void assertReadMatches() {
+        List<PrometheusClient.Series> got = readPing();
+        assertEquals(3, got.size());
+        for (PrometheusClient.Series s : got) {
+            assertEquals("blackbox_ping", s.metric().get("job"));
+            PromRemoteReadStandIn.StoredSeries orig = stored(s.metric());
+            long[] allTs = orig.ts();
+            double[] allVs = orig.values();
+            List<Long> ts = new ArrayList<>();
+            List<Double> vs = new ArrayList<>();
+            for (int i = 0; i < allTs.length; i++) {
+                if (allTs[i] < T0 + 3_000_000 || allTs[i] > T0 + 12_000_000) continue;
+                if (Double.doubleToRawLongBits(allVs[i]) == XorChunkDecoder.STALE_NAN_BITS) continue;
+                ts.add(allTs[i]);
+                vs.add(allVs[i]);
+            }
+            assertTrue(ts.size() > 100);
+            assertArrayEquals(ts.stream().mapToLong(Long::longValue).toArray(), s.timestampsMillis());
+            assertArrayEquals(vs.stream().mapToDouble(Double::doubleValue).toArray(), s.values());
+        }
+    }
+
+    private PromRemoteReadStandIn.StoredSeries stored(Map<String, String> labels) {
+        return standIn.series().stream().filter(s -> s.labels().equals(labels)).findFirst().orElseThrow();
+    }
+}
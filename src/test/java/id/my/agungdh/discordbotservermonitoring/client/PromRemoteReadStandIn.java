@@ -0,0 +1,268 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.zip.CRC32C;
+
+/**
+ * Stand-in /api/v1/read untuk test: parse ReadRequest (snappy + protobuf), filter series by matcher EQ,
+ * jawab STREAMED_XOR_CHUNKS (chunk XOR asli, beberapa frame per series) atau SAMPLES kalau dipaksa.
+ */
+final class PromRemoteReadStandIn implements AutoCloseable {
+
+    record StoredSeries(Map<String, String> labels, long[] ts, double[] values) {
+    }
+
+    private final HttpServer server;
+    private final List<StoredSeries> series = new ArrayList<>();
+    volatile boolean samplesOnly;
+    volatile boolean corruptCrc;
+    // sample per chunk (Prometheus: 120) — kecil supaya satu series jadi banyak chunk & frame
+    volatile int samplesPerChunk = 50;
+    volatile int chunksPerFrame = 2;
+
+    PromRemoteReadStandIn() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/api/v1/read", this::handle);
+        server.start();
+    }
+
+    String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    List<StoredSeries> series() {
+        return series;
+    }
+
+    void add(Map<String, String> labels, long[] ts, double[] values) {
+        series.add(new StoredSeries(labels, ts, values));
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            byte[] req = Snappy.uncompress(ex.getRequestBody().readAllBytes());
+            Query q = parseRequest(req);
+            List<StoredSeries> matched = series.stream().filter(s -> q.matches(s.labels())).toList();
+
+            if (q.streamed && !samplesOnly) {
+                ex.getResponseHeaders().set("Content-Type",
+                        "application/x-streamed-protobuf; proto=prometheus.ChunkedReadResponse");
+                ex.sendResponseHeaders(200, 0);
+                try (OutputStream out = ex.getResponseBody()) {
+                    for (StoredSeries s : matched) writeStreamed(out, s, q);
+                }
+            } else {
+                byte[] body = Snappy.compress(samplesResponse(matched, q));
+                ex.getResponseHeaders().set("Content-Type", "application/x-protobuf");
+                ex.sendResponseHeaders(200, body.length);
+                ex.getResponseBody().write(body);
+            }
+        }
+    }
+
+    // ===== request =====
+
+    private static final class Query {
+        long start, end;
+        boolean streamed;
+        final Map<String, String> eq = new HashMap<>();
+
+        boolean matches(Map<String, String> labels) {
+            return eq.entrySet().stream().allMatch(e -> e.getValue().equals(labels.get(e.getKey())));
+        }
+    }
+
+    private static Query parseRequest(byte[] req) throws IOException {
+        Query q = new Query();
+        Proto.Reader r = new Proto.Reader(req, 0, req.length);
+        for (int tag; (tag = r.nextTag()) != 0; ) {
+            if (tag >>> 3 == 1) {
+                Proto.Reader query = r.message();
+                for (int t; (t = query.nextTag()) != 0; ) {
+                    switch (t >>> 3) {
+                        case 1 -> q.start = query.varint();
+                        case 2 -> q.end = query.varint();
+                        case 3 -> {
+                            Proto.Reader m = query.message();
+                            long type = 0;
+                            String name = "", value = "";
+                            for (int mt; (mt = m.nextTag()) != 0; ) {
+                                switch (mt >>> 3) {
+                                    case 1 -> type = m.varint();
+                                    case 2 -> name = m.string();
+                                    case 3 -> value = m.string();
+                                    default -> m.skip(mt & 7);
+                                }
+                            }
+                            if (type != 0) throw new IOException("stand-in hanya mendukung matcher EQ");
+                            q.eq.put(name, value);
+                        }
+                        default -> query.skip(t & 7);
+                    }
+                }
+            } else if (tag >>> 3 == 2) {
+                Proto.Reader packed = r.message();
+                while (packed.remaining() > 0) {
+                    if (packed.varint() == PromRemoteReadCodec.RESPONSE_STREAMED_XOR_CHUNKS) q.streamed = true;
+                }
+            } else {
+                r.skip(tag & 7);
+            }
+        }
+        return q;
+    }
+
+    // ===== STREAMED_XOR_CHUNKS =====
+
+    private void writeStreamed(OutputStream out, StoredSeries s, Query q) throws IOException {
+        // seperti Prometheus: chunk dikirim utuh (boleh melewati [start, end]), client yang memotong
+        List<Proto.Writer> chunks = new ArrayList<>();
+        for (int from = 0; from < s.ts().length; from += samplesPerChunk) {
+            int to = Math.min(s.ts().length, from + samplesPerChunk);
+            if (s.ts()[to - 1] < q.start || s.ts()[from] > q.end) continue;
+            chunks.add(new Proto.Writer()
+                    .int64(1, s.ts()[from])
+                    .int64(2, s.ts()[to - 1])
+                    .int64(3, 1) // XOR
+                    .bytes(4, xorChunk(s.ts(), s.values(), from, to)));
+        }
+        for (int i = 0; i < chunks.size(); i += chunksPerFrame) {
+            Proto.Writer cs = new Proto.Writer();
+            s.labels().forEach((k, v) -> cs.message(1, new Proto.Writer().string(1, k).string(2, v)));
+            for (int j = i; j < Math.min(chunks.size(), i + chunksPerFrame); j++) cs.message(2, chunks.get(j));
+            writeFrame(out, new Proto.Writer().message(1, cs).int64(2, 0).toByteArray());
+        }
+    }
+
+    private void writeFrame(OutputStream out, byte[] frame) throws IOException {
+        CRC32C crc = new CRC32C();
+        crc.update(frame);
+        int c = (int) crc.getValue();
+        if (corruptCrc) c ^= 1;
+        long len = frame.length;
+        while ((len & ~0x7FL) != 0) {
+            out.write((int) ((len & 0x7F) | 0x80));
+            len >>>= 7;
+        }
+        out.write((int) len);
+        out.write(new byte[]{(byte) (c >>> 24), (byte) (c >>> 16), (byte) (c >>> 8), (byte) c});
+        out.write(frame);
+    }
+
+    // encoder chunk XOR, mengikuti tsdb/chunkenc/xor.go
+    static byte[] xorChunk(long[] ts, double[] values, int from, int to) {
+        BitWriter w = new BitWriter();
+        int n = to - from;
+        w.bits(n, 16);
+        long t = 0, tDelta = 0, vbits = 0;
+        int leading = 0xFF, trailing = 0;
+        for (int i = 0; i < n; i++) {
+            long nt = ts[from + i];
+            long nv = Double.doubleToRawLongBits(values[from + i]);
+            if (i == 0) {
+                w.uvarint((nt << 1) ^ (nt >> 63));
+                w.bits(nv, 64);
+            } else {
+                long d = nt - t;
+                if (i == 1) {
+                    w.uvarint(d);
+                } else {
+                    long dod = d - tDelta;
+                    if (dod == 0) w.bit(0);
+                    else if (bitRange(dod, 14)) w.bits(0b10, 2).bits(dod, 14);
+                    else if (bitRange(dod, 17)) w.bits(0b110, 3).bits(dod, 17);
+                    else if (bitRange(dod, 20)) w.bits(0b1110, 4).bits(dod, 20);
+                    else w.bits(0b1111, 4).bits(dod, 64);
+                }
+                tDelta = d;
+
+                long delta = nv ^ vbits;
+                if (delta == 0) {
+                    w.bit(0);
+                } else {
+                    w.bit(1);
+                    int nl = Math.min(31, Long.numberOfLeadingZeros(delta));
+                    int nt0 = Long.numberOfTrailingZeros(delta);
+                    if (leading != 0xFF && nl >= leading && nt0 >= trailing) {
+                        w.bit(0).bits(delta >>> trailing, 64 - leading - trailing);
+                    } else {
+                        leading = nl;
+                        trailing = nt0;
+                        int sig = 64 - leading - trailing;
+                        w.bit(1).bits(leading, 5).bits(sig & 63, 6).bits(delta >>> trailing, sig);
+                    }
+                }
+            }
+            t = nt;
+            vbits = nv;
+        }
+        return w.toByteArray();
+    }
+
+    private static boolean bitRange(long x, int nbits) {
+        return -((1L << (nbits - 1)) - 1) <= x && x <= 1L << (nbits - 1);
+    }
+
+    private static final class BitWriter {
+        private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        private int cur, count;
+
+        BitWriter bit(int b) {
+            cur = (cur << 1) | (b & 1);
+            if (++count == 8) {
+                out.write(cur);
+                cur = 0;
+                count = 0;
+            }
+            return this;
+        }
+
+        BitWriter bits(long v, int n) {
+            for (int i = n - 1; i >= 0; i--) bit((int) (v >>> i));
+            return this;
+        }
+
+        void uvarint(long v) {
+            while ((v & ~0x7FL) != 0) {
+                bits((v & 0x7F) | 0x80, 8);
+                v >>>= 7;
+            }
+            bits(v, 8);
+        }
+
+        byte[] toByteArray() {
+            if (count > 0) out.write(cur << (8 - count));
+            return out.toByteArray();
+        }
+    }
+
+    // ===== SAMPLES =====
+
+    private static byte[] samplesResponse(List<StoredSeries> matched, Query q) {
+        Proto.Writer result = new Proto.Writer();
+        for (StoredSeries s : matched) {
+            Proto.Writer ts = new Proto.Writer();
+            s.labels().forEach((k, v) -> ts.message(1, new Proto.Writer().string(1, k).string(2, v)));
+            for (int i = 0; i < s.ts().length; i++) {
+                if (s.ts()[i] < q.start || s.ts()[i] > q.end) continue;
+                ts.message(2, new Proto.Writer()
+                        .fixed64(1, Double.doubleToRawLongBits(s.values()[i]))
+                        .int64(2, s.ts()[i]));
+            }
+            result.message(1, ts);
+        }
+        return new Proto.Writer().message(1, result).toByteArray();
+    }
+}
@@ -0,0 +1,201 @@
+package id.my.agungdh.discordbotservermonitoring.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Regression: TextFormatParser (byte per byte, streaming) harus memberi sample yang sama dengan parser regex lama
+ * untuk exposition text acak — escape, NaN/±Inf, timestamp, komentar, label kosong, baris rusak.
+ */
+class TextFormatParserTest {
+
+    private static final String[] NAMES = {
+            "node_cpu_seconds_total", "node_load1", "node_memory_MemTotal_bytes", "time", "up",
+            "ns:rule:rate5m", "_private", "node_hwmon_temp_celsius", "a", "x1_2"
+    };
+    private static final String[] BAD_NAMES = {"1abc", "-x", "é_metric", "", " node_load1"};
+    private static final String[] KEYS = {"cpu", "mode", "device", "mountpoint", "le", "__name__", " spaced "};
+    private static final String[] VALUES = {
+            "", "0", "idle", "/", "eth0", "a b", "é", "日本", "with\\\"quote", "back\\\\slash", "new\\nline",
+            "tab\\tx", "odd\\x", "brace}inside", "{", "=", ",", "trailing\\"
+    };
+    private static final String[] NUMBERS = {
+            "0", "1", "-1", "+3", "42", "3.14", "-0.5", ".5", "1.", "1e3", "1E-3", "2.5e+10", "1.5e", "7e",
+            "NaN", "+Inf", "-Inf", "Inf", "abc", "", "0x1F", "12abc", "00012", "-.25", "1.2.3"
+    };
+
+    private static String randomText(Random r) {
+        StringBuilder sb = new StringBuilder();
+        int lines = r.nextInt(400);
+        for (int l = 0; l < lines; l++) {
+            switch (r.nextInt(12)) {
+                case 0 -> sb.append("# HELP ").append(pick(r, NAMES)).append(" some help text");
+                case 1 -> sb.append("# TYPE ").append(pick(r, NAMES)).append(" gauge");
+                case 2 -> sb.append(r.nextBoolean() ? "" : "   ");
+                default -> sampleLine(r, sb);
+            }
+            sb.append(r.nextInt(8) == 0 ? "\r\n" : "\n");
+        }
+        // kadang baris terakhir tanpa newline
+        if (r.nextBoolean()) sampleLine(r, sb);
+        return sb.toString();
+    }
+
+    private static void sampleLine(Random r, StringBuilder sb) {
+        sb.append(r.nextInt(20) == 0 ? pick(r, BAD_NAMES) : pick(r, NAMES));
+        switch (r.nextInt(5)) {
+            case 0 -> {
+            }
+            case 1 -> sb.append("{}");
+            default -> {
+                sb.append('{');
+                int k = 1 + r.nextInt(4);
+                for (int j = 0; j < k; j++) {
+                    if (j > 0) sb.append(r.nextInt(4) == 0 ? " , " : ",");
+                    sb.append(pick(r, KEYS)).append("=\"");
+                    // kadang value panjang → buffer baris / scratch harus tumbuh
+                    sb.append(r.nextInt(30) == 0 ? "v".repeat(100 + r.nextInt(400)) : pick(r, VALUES));
+                    sb.append('"');
+                }
+                if (r.nextInt(6) == 0) sb.append(',');
+                if (r.nextInt(30) != 0) sb.append('}'); // kadang '}' hilang → baris ditolak
+            }
+        }
+        sb.append(switch (r.nextInt(8)) {
+            case 0 -> "\t";
+            case 1 -> "  ";
+            case 2 -> r.nextInt(4) == 0 ? "" : " ";
+            default -> " ";
+        });
+        sb.append(pick(r, NUMBERS));
+        if (r.nextInt(4) == 0) sb.append(' ').append(1_700_000_000_000L + r.nextInt(1_000_000));
+    }
+
+    private static String pick(Random r, String[] arr) {
+        return arr[r.nextInt(arr.length)];
+    }
+
+    private static List<S> parseNew(byte[] body, Set<String> families, Random r) throws IOException {
+        List<S> out = new ArrayList<>();
+        TextFormatParser.parse(new ChoppyInputStream(body, r), families,
+                (name, labels, value) -> out.add(S.of(name, labels, value)));
+        return out;
+    }
+
+    @Test
+    void matchesRegexParser() throws IOException {
+        Random r = new Random(20240701L);
+        for (int round = 0; round < 500; round++) {
+            String text = randomText(r);
+            byte[] body = text.getBytes(StandardCharsets.UTF_8);
+            List<S> ref = RegexParser.parse(text);
+
+            assertEquals(ref, parseNew(body, null, r), "round " + round);
+
+            // mode selektif = hasil penuh yang difilter nama
+            Set<String> families = new HashSet<>();
+            for (String n : NAMES) if (r.nextInt(3) == 0) families.add(n);
+            List<S> filtered = ref.stream().filter(s -> families.contains(s.name())).toList();
+            assertEquals(filtered, parseNew(body, families, r), "round " + round + " " + families);
+        }
+    }
+
+    /**
+     * Sample + urutan key label (parser lama pakai LinkedHashMap; urutan ikut dibandingkan).
+     */
+    private record S(String name, Map<String, String> labels, List<String> keyOrder, double value) {
+        static S of(String name, Map<String, String> labels, double value) {
+            return new S(name, labels, List.copyOf(labels.keySet()), value);
+        }
+    }
+
+    /**
+     * read() dengan panjang acak supaya nama/baris sering terpotong di batas buffer parser.
+     */
+    private static final class ChoppyInputStream extends FilterInputStream {
+        private final Random r;
+
+        ChoppyInputStream(byte[] body, Random r) {
+            super(new ByteArrayInputStream(body));
+            this.r = r;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            return super.read(b, off, Math.min(len, 1 + r.nextInt(r.nextBoolean() ? 16 : 4096)));
+        }
+    }
+
+    /**
+     * Implementasi lama NodeExporterClient.parseTextFormat (regex, atas String) sebagai referensi.
+     */
+    private static final class RegexParser {
+        private static final Pattern LINE = Pattern.compile(
+                "^([a-zA-Z_:][a-zA-Z0-9_:]*)(\\{([^}]*)})?\\s+([-+]?[0-9]*\\.?[0-9]+([eE][-+]?[0-9]+)?)"
+        );
+
+        static List<S> parse(String text) {
+            List<S> out = new ArrayList<>();
+            for (String raw : text.split("\\r?\\n")) {
+                if (raw.isEmpty() || raw.charAt(0) == '#') continue;
+                Matcher m = LINE.matcher(raw);
+                if (!m.find()) continue;
+                String name = m.group(1);
+                String lbls = m.group(3);
+                String valStr = m.group(4);
+                double value;
+                try {
+                    value = Double.parseDouble(valStr);
+                } catch (Exception e) {
+                    continue;
+                }
+                Map<String, String> labels = (lbls == null) ? Map.of() : parseLabels(lbls);
+                out.add(S.of(name, labels, value));
+            }
+            return out;
+        }
+
+        private static Map<String, String> parseLabels(String s) {
+            Map<String, String> map = new LinkedHashMap<>();
+            int i = 0, n = s.length();
+            while (i < n) {
+                int startKey = i;
+                while (i < n && s.charAt(i) != '=') i++;
+                if (i >= n) break;
+                String key = s.substring(startKey, i).trim();
+                i++; // '='
+                if (i >= n || s.charAt(i) != '"') break;
+                i++; // opening "
+                StringBuilder val = new StringBuilder();
+                while (i < n) {
+                    char c = s.charAt(i++);
+                    if (c == '\\' && i < n) {
+                        char esc = s.charAt(i++);
+                        val.append(switch (esc) {
+                            case 'n' -> '\n';
+                            case 't' -> '\t';
+                            case '\\' -> '\\';
+                            case '"' -> '"';
+                            default -> esc;
+                        });
+                    } else if (c == '"') break;
+                    else val.append(c);
+                }
+                map.put(key, val.toString());
+                while (i < n && s.charAt(i) == ' ') i++;
+                if (i < n && s.charAt(i) == ',') i++;
+                while (i < n && s.charAt(i) == ' ') i++;
+            }
+            return map;
+        }
+    }
+}
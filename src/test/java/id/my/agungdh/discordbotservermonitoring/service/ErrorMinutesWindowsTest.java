@@ -0,0 +1,320 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.DiscordBotServerMonitoringApplication;
+import id.my.agungdh.discordbotservermonitoring.client.PrometheusClient;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.*;
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Regression: batas window (start, end] — batch (prefix + rollup harian + potongan per span), overDays
+ * (rollup + segment live mulai 00:00:01) dan bitmap — harus sama dengan jumlah brute force per menit untuk
+ * semua window /errors. Prometheus palsu menjawab dari data per menit yang sama, dengan range selector
+ * left-open (3.x) atau left-closed (2.x).
+ */
+class ErrorMinutesWindowsTest {
+
+    private static final ZoneId ZONE = DiscordBotServerMonitoringApplication.ZONE;
+    private static final String[][] TARGETS = {{"1.1.1.1", "cloudflare"}, {"8.8.8.8", "google"}, {"10.0.0.1", ""},
+            {"10.0.0.2", "nas"}};
+    private static final Pattern WINDOW = Pattern.compile("\\[(\\d+)s:1m] @ (\\d+)");
+    // batas titik per series range query di Prometheus
+    private static final int MAX_POINTS = 11_000;
+
+    @TempDir
+    Path dir;
+
+    /**
+     * Data per menit: indeks m = menit epoch, titik evaluasinya (m+1)*60 (data (m*60, (m+1)*60]).
+     */
+    private static final class Minutes {
+        final long base;
+        final boolean leftClosed;
+        final boolean[][] seen;
+        final boolean[][] down;
+
+        Minutes(Random r, long base, int span, boolean leftClosed) {
+            this.base = base;
+            this.leftClosed = leftClosed;
+            seen = new boolean[TARGETS.length][span];
+            down = new boolean[TARGETS.length][span];
+            for (int t = 0; t < TARGETS.length; t++) {
+                boolean present = true;
+                boolean failing = false;
+                for (int i = 0; i < span; i++) {
+                    // target kadang hilang berjam-jam/berhari-hari, down datang dalam burst
+                    if (r.nextInt(present ? 3000 : 300) == 0) present = !present;
+                    if (r.nextInt(failing ? 20 : 400) == 0) failing = !failing;
+                    seen[t][i] = present && r.nextInt(50) != 0;
+                    down[t][i] = seen[t][i] && (failing || r.nextInt(500) == 0);
+                    // menit yang berakhir tepat 00:00 selalu down → titik sambungan hari yang terhitung dua kali
+                    // pasti mengubah hasil
+                    long point = (base + i + 1) * 60;
+                    if (LocalTime.ofInstant(Instant.ofEpochSecond(point), ZONE).equals(LocalTime.MIDNIGHT)) {
+                        seen[t][i] = down[t][i] = true;
+                    }
+                }
+            }
+        }
+
+        boolean seen(int t, long m) {
+            long i = m - base;
+            return i >= 0 && i < seen[t].length && seen[t][(int) i];
+        }
+
+        boolean down(int t, long m) {
+            long i = m - base;
+            return i >= 0 && i < down[t].length && down[t][(int) i];
+        }
+
+        // titik menit t dengan lo < t ≤ hi (detik epoch, lo boleh tidak pas menit)
+        Map<List<String>, Double> perTarget(long lo, long hi) {
+            Map<List<String>, Double> out = new HashMap<>();
+            for (int t = 0; t < TARGETS.length; t++) {
+                long n = 0;
+                boolean any = false;
+                for (long m = Math.floorDiv(lo, 60); (m + 1) * 60 <= hi; m++) {
+                    if ((m + 1) * 60 <= lo) continue;
+                    any |= seen(t, m);
+                    if (down(t, m)) n++;
+                }
+                if (any) out.put(List.of(TARGETS[t][0], TARGETS[t][1]), (double) n);
+            }
+            return out;
+        }
+
+        long anyDown(long lo, long hi) {
+            long n = 0;
+            for (long m = Math.floorDiv(lo, 60); (m + 1) * 60 <= hi; m++) {
+                if ((m + 1) * 60 <= lo) continue;
+                for (int t = 0; t < TARGETS.length; t++) {
+                    if (down(t, m)) {
+                        n++;
+                        break;
+                    }
+                }
+            }
+            return n;
+        }
+
+        // jawaban Prometheus untuk instant query [Rs:1m] @ E: titik (E - R, E], 2.x juga titik E - R
+        List<PrometheusClient.ResultPoint> instant(String promql) {
+            Matcher w = WINDOW.matcher(promql);
+            assertTrue(w.find(), promql);
+            long end = Long.parseLong(w.group(2));
+            long lo = end - Long.parseLong(w.group(1)) - (leftClosed ? 1 : 0);
+            if (promql.contains("max by ()")) {
+                return List.of(new PrometheusClient.ResultPoint("", "", anyDown(lo, end)));
+            }
+            List<PrometheusClient.ResultPoint> out = new ArrayList<>();
+            perTarget(lo, end).forEach((k, v) -> out.add(new PrometheusClient.ResultPoint(k.get(0), k.get(1), v)));
+            return out;
+        }
+
+        // range query step 1m: titik start, start+60, ..., end; nilai = indikator menit yang berakhir di titik tsb
+        Map<Map<String, String>, PrometheusClient.Series> range(Instant start, Instant end) {
+            assertTrue(start.getEpochSecond() % 60 == 0 && end.getEpochSecond() % 60 == 0, start + " → " + end);
+            assertTrue((end.getEpochSecond() - start.getEpochSecond()) / 60 + 1 <= MAX_POINTS, start + " → " + end);
+            Map<Map<String, String>, PrometheusClient.Series> out = new LinkedHashMap<>();
+            for (int t = 0; t < TARGETS.length; t++) {
+                List<Long> ts = new ArrayList<>();
+                List<Double> vs = new ArrayList<>();
+                for (long p = start.getEpochSecond(); p <= end.getEpochSecond(); p += 60) {
+                    long m = p / 60 - 1;
+                    if (!seen(t, m)) continue;
+                    ts.add(p * 1000);
+                    vs.add(down(t, m) ? 1.0 : 0.0);
+                }
+                if (ts.isEmpty()) continue;
+                Map<String, String> metric = Map.of("instance", TARGETS[t][0], "alias", TARGETS[t][1]);
+                out.put(metric, new PrometheusClient.Series(metric,
+                        ts.stream().mapToLong(Long::longValue).toArray(),
+                        vs.stream().mapToDouble(Double::doubleValue).toArray()));
+            }
+            return out;
+        }
+    }
+
+    private static PrometheusClient prometheus(Minutes data) {
+        PrometheusClient prom = mock(PrometheusClient.class);
+        when(prom.instantQuery(anyString())).thenAnswer(inv -> data.instant(inv.getArgument(0)));
+        when(prom.rangeQueryAll(anyString(), any(), any(), any()))
+                .thenAnswer(inv -> data.range(inv.getArgument(1), inv.getArgument(2)));
+        return prom;
+    }
+
+    private static Map<List<String>, Double> asMap(List<PrometheusClient.ResultPoint> points) {
+        Map<List<String>, Double> out = new HashMap<>();
+        for (var p : points) out.merge(List.of(p.instance(), p.alias()), p.value(), Double::sum);
+        return out;
+    }
+
+    private static Instant startOfDay(LocalDate day) {
+        return day.atStartOfDay(ZONE).toInstant();
+    }
+
+    /**
+     * Window /errors (ErrorsCommand) + window acak: hari penuh / sejak hari tertentu, dan potongan menit
+     * setelah detailFrom (hanya itu yang boleh tidak mulai di batas hari di mode batch).
+     */
+    private static List<Instant[]> windows(Random r, Instant end, Instant detailFrom) {
+        LocalDate today = LocalDate.ofInstant(end, ZONE);
+        List<Instant[]> out = new ArrayList<>();
+        for (int h : new int[]{1, 2, 3, 6}) out.add(new Instant[]{end.minus(Duration.ofHours(h)), end});
+        out.add(new Instant[]{startOfDay(today), end});
+        out.add(new Instant[]{startOfDay(today.minusDays(1)), startOfDay(today)});
+        out.add(new Instant[]{startOfDay(today.minusDays(2)), startOfDay(today.minusDays(1))});
+        out.add(new Instant[]{startOfDay(today.minusDays(7)), end});
+        out.add(new Instant[]{startOfDay(today.minusDays(14)), end});
+        for (int i = 0; i < 20; i++) {
+            int a = r.nextInt(15);
+            int b = r.nextInt(a + 1);
+            out.add(new Instant[]{startOfDay(today.minusDays(a)), b == 0 ? end : startOfDay(today.minusDays(b))});
+            long from = detailFrom.getEpochSecond() / 60 + r.nextInt(6 * 60);
+            long to = Math.min(end.getEpochSecond() / 60, from + r.nextInt(6 * 60));
+            out.add(new Instant[]{Instant.ofEpochSecond(from * 60), Instant.ofEpochSecond(to * 60)});
+        }
+        return out;
+    }
+
+    /**
+     * @param leftClosed Prometheus 2.x: instant query ikut menghitung titik di awal range. Window tunggal lalu
+     *                   mencakup [start, end]; yang dicek hanya bahwa sambungan segment live/rollup tidak
+     *                   menghitung titik mana pun dua kali (hasil = (start, end] atau [start, end]).
+     */
+    private void check(long seed, boolean withBitmap, boolean leftClosed) throws InterruptedException {
+        Random r = new Random(seed);
+        Instant now = Instant.now();
+        // ujung window = menit terakhir yang sudah final (sama dengan align internal) → tidak tergantung detik jalan
+        Instant end = ErrorMinutesService.alignToStep(now, now);
+        LocalDate today = LocalDate.ofInstant(end, ZONE);
+        long base = end.getEpochSecond() / 60 - 16L * 24 * 60;
+        Minutes data = new Minutes(r, base, 16 * 24 * 60 + 10, leftClosed);
+        PrometheusClient prom = prometheus(data);
+
+        DailyRollupStore rollups = new DailyRollupStore();
+        ReflectionTestUtils.setField(rollups, "enabled", true);
+        ReflectionTestUtils.setField(rollups, "file", dir.resolve("rollups-" + seed + ".bin").toString());
+        // sebagian hari tanpa rollup → overDays / batch harus kembali ke query live di hari tsb;
+        // 2 hari pertama window 2 minggu selalu punya rollup supaya batch pasti mulai dari rantai rollup
+        int chain = 0;
+        for (int d = 15; d >= 1; d--) {
+            if (d < 13 && r.nextInt(4) == 0) {
+                if (chain == 0) chain = 14 - d;
+                continue;
+            }
+            LocalDate day = today.minusDays(d);
+            long s = startOfDay(day).getEpochSecond(), e = startOfDay(day.plusDays(1)).getEpochSecond();
+            List<PrometheusClient.ResultPoint> points = new ArrayList<>();
+            data.perTarget(s, e).forEach((k, v) -> points.add(new PrometheusClient.ResultPoint(k.get(0), k.get(1), v)));
+            rollups.put(new DailyRollupStore.DayRollup(day, data.anyDown(s, e), points));
+        }
+
+        DowntimeBitmapStore bitmaps = new DowntimeBitmapStore(prom);
+        ReflectionTestUtils.setField(bitmaps, "blackboxJob", "blackbox_ping");
+        ReflectionTestUtils.setField(bitmaps, "enabled", withBitmap);
+        ReflectionTestUtils.setField(bitmaps, "file", dir.resolve("bitmaps-" + seed + ".bin").toString());
+        ReflectionTestUtils.setField(bitmaps, "backfillDays", 15);
+        ReflectionTestUtils.setField(bitmaps, "chunkMinutes", 1440);
+        Instant w2 = startOfDay(today.minusDays(14));
+        if (withBitmap) {
+            bitmaps.fill();
+            for (int i = 0; i < 500 && !bitmaps.covers(w2, end); i++) Thread.sleep(10);
+            assertTrue(bitmaps.covers(w2, end), "bitmap belum ter-isi");
+        }
+
+        ErrorMinutesPlanner planner = new ErrorMinutesPlanner(prom);
+        // selalu resolusi asli: Prometheus palsu tidak mensimulasikan resolusi kasar
+        ReflectionTestUtils.setField(planner, "exactMaxPoints", Long.MAX_VALUE);
+        ErrorMinutesService svc = new ErrorMinutesService(prom, bitmaps, rollups, planner);
+        ReflectionTestUtils.setField(svc, "blackboxJob", "blackbox_ping");
+        ReflectionTestUtils.setField(svc, "ruleEnabled", false);
+
+        if (leftClosed) {
+            List<Instant[]> ws = windows(r, end, end.minus(Duration.ofHours(6)));
+            // start di tengah hari: titik awal window (2.x) tidak bisa tertukar dengan titik sambungan 00:00
+            for (int i = 0; i < 30; i++) {
+                long from = (startOfDay(today.minusDays(14)).getEpochSecond() / 60 + 1 + r.nextInt(14 * 24 * 60 - 1)) * 60;
+                if (LocalTime.ofInstant(Instant.ofEpochSecond(from), ZONE).equals(LocalTime.MIDNIGHT)) continue;
+                int b = r.nextInt(3);
+                ws.add(new Instant[]{Instant.ofEpochSecond(from), b == 0 ? end
+                        : startOfDay(LocalDate.ofInstant(Instant.ofEpochSecond(from), ZONE).plusDays(b))});
+            }
+            for (Instant[] w : ws) {
+                long s = w[0].getEpochSecond(), e = w[1].getEpochSecond();
+                if (e <= s) continue;
+                String ctx = "seed " + seed + " 2.x " + w[0] + " → " + w[1];
+                Map<List<String>, Double> got = asMap(svc.errorMinutes(w[0], w[1]));
+                Map<List<String>, Double> open = data.perTarget(s, e), closed = data.perTarget(s - 1, e);
+                assertTrue(got.equals(open) || got.equals(closed), ctx + ": " + got + " vs " + open + " / " + closed);
+                long any = svc.errorMinutesAnyDown(w[0], w[1]);
+                assertTrue(any == data.anyDown(s, e) || any == data.anyDown(s - 1, e), ctx + " anyDown " + any);
+            }
+            return;
+        }
+
+        if (chain == 0) chain = 14;
+        // 6 jam (ErrorsCommand) + detailFrom di tengah rantai rollup → rollup hari itu tidak boleh dipakai batch
+        for (Instant detailFrom : List.of(end.minus(Duration.ofHours(6)), end.minus(Duration.ofHours(30)),
+                startOfDay(today.minusDays(14 - r.nextInt(chain))).plus(Duration.ofHours(7))
+                        .plusSeconds(60L * r.nextInt(60)))) {
+            ErrorMinutesBatch batch = svc.errorMinutesBatch(w2, detailFrom);
+            for (Instant[] w : windows(r, end, detailFrom)) {
+                long s = w[0].getEpochSecond(), e = w[1].getEpochSecond();
+                String ctx = "seed " + seed + (withBitmap ? " bitmap " : " ") + w[0] + " → " + w[1]
+                        + " detailFrom " + detailFrom;
+                Map<List<String>, Double> expected = e > s ? data.perTarget(s, e) : Map.of();
+                long expectedAny = e > s ? data.anyDown(s, e) : 0;
+
+                assertEquals(expected, asMap(batch.errorMinutes(w[0], w[1])), ctx + " batch");
+                assertEquals(expectedAny, batch.anyDown(w[0], w[1]), ctx + " batch anyDown");
+                assertEquals(expected, asMap(svc.errorMinutes(w[0], w[1])), ctx + " overDays");
+                assertEquals(expectedAny, svc.errorMinutesAnyDown(w[0], w[1]), ctx + " overDays anyDown");
+                if (withBitmap && e > s) {
+                    assertEquals(expected, asMap(bitmaps.errorMinutes(w[0], w[1])), ctx + " bitmap");
+                    assertEquals(expectedAny, bitmaps.anyDown(w[0], w[1]), ctx + " bitmap anyDown");
+                }
+            }
+        }
+    }
+
+    @Test
+    void windowsMatchBruteForce() throws InterruptedException {
+        for (long seed = 1; seed <= 5; seed++) check(seed, false, false);
+    }
+
+    @Test
+    void windowsMatchBruteForceWithBitmap() throws InterruptedException {
+        for (long seed = 11; seed <= 13; seed++) check(seed, true, false);
+    }
+
+    @Test
+    void segmentsNeverCountAPointTwiceWithLeftClosedRanges() throws InterruptedException {
+        for (long seed = 21; seed <= 25; seed++) check(seed, false, true);
+    }
+
+    @Test
+    void alignDropsUnsettledMinute() {
+        Random r = new Random(7);
+        for (int i = 0; i < 10_000; i++) {
+            long now = 1_760_000_000L + r.nextInt(1_000_000);
+            long t = now - r.nextInt(300);
+            long expected = t % 60 == 0 ? t : Math.floorDiv(Math.min(t, now - 15), 60) * 60;
+            assertEquals(expected, ErrorMinutesService.alignToStep(Instant.ofEpochSecond(t), Instant.ofEpochSecond(now))
+                    .getEpochSecond(), t + " @ " + now);
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Regression: MinuteBitmap (chunk per hari, popcount per word) harus sama dengan boolean[] per menit.
+ */
+class MinuteBitmapTest {
+
+    private static final int DAY = MinuteBitmap.MINUTES_PER_CHUNK;
+    // 6 hari mulai dari hari epoch 20000; indeks 0 = menit BASE
+    private static final long BASE = 20_000L * DAY;
+    private static final int SPAN = 6 * DAY;
+
+    private static void randomize(Random r, MinuteBitmap m, boolean[] ref) {
+        int ops = r.nextInt(400);
+        for (int i = 0; i < ops; i++) {
+            switch (r.nextInt(6)) {
+                // satu hari penuh → chunk FULL saat serialisasi
+                case 0 -> {
+                    int day = r.nextInt(SPAN / DAY);
+                    for (int j = day * DAY; j < (day + 1) * DAY; j++) set(m, ref, j);
+                }
+                // run di sekitar batas word / chunk
+                case 1 -> {
+                    int from = edge(r);
+                    int to = Math.min(SPAN, from + r.nextInt(130));
+                    for (int j = from; j < to; j++) set(m, ref, j);
+                }
+                case 2 -> {
+                    int from = edge(r);
+                    int to = Math.min(SPAN, from + r.nextInt(130));
+                    for (int j = from; j < to; j++) {
+                        m.clear(BASE + j);
+                        ref[j] = false;
+                    }
+                }
+                case 3 -> {
+                    int j = r.nextInt(SPAN);
+                    m.clear(BASE + j);
+                    ref[j] = false;
+                }
+                default -> set(m, ref, r.nextInt(SPAN));
+            }
+        }
+    }
+
+    private static void set(MinuteBitmap m, boolean[] ref, int i) {
+        m.set(BASE + i);
+        ref[i] = true;
+    }
+
+    // posisi yang sering jatuh tepat di / di sebelah batas word (64) dan chunk (1440)
+    private static int edge(Random r) {
+        int p = switch (r.nextInt(3)) {
+            case 0 -> r.nextInt(SPAN / 64 + 1) * 64;
+            case 1 -> r.nextInt(SPAN / DAY + 1) * DAY;
+            default -> r.nextInt(SPAN + 1);
+        };
+        return Math.max(0, Math.min(SPAN, p + r.nextInt(3) - 1));
+    }
+
+    private static long refCount(boolean[] ref, int from, int to) {
+        long n = 0;
+        for (int i = Math.max(0, from); i < Math.min(SPAN, to); i++) if (ref[i]) n++;
+        return n;
+    }
+
+    private static long refUnion(List<boolean[]> refs, int from, int to) {
+        long n = 0;
+        for (int i = Math.max(0, from); i < Math.min(SPAN, to); i++) {
+            for (boolean[] ref : refs) {
+                if (ref[i]) {
+                    n++;
+                    break;
+                }
+            }
+        }
+        return n;
+    }
+
+    private static long refLastSet(boolean[] ref) {
+        for (int i = SPAN - 1; i >= 0; i--) if (ref[i]) return BASE + i;
+        return Long.MIN_VALUE;
+    }
+
+    private static MinuteBitmap roundTrip(MinuteBitmap m) throws IOException {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(buf)) {
+            m.write(out);
+        }
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(buf.toByteArray()))) {
+            return MinuteBitmap.read(in);
+        }
+    }
+
+    private static void assertSame(MinuteBitmap m, boolean[] ref, Random r, String ctx) {
+        for (int i = 0; i < SPAN; i++) assertEquals(ref[i], m.get(BASE + i), ctx + " get " + i);
+        assertEquals(refLastSet(ref), m.lastSet(), ctx + " lastSet");
+        assertEquals(refCount(ref, 0, SPAN), m.count(BASE, BASE + SPAN), ctx + " count all");
+        for (int q = 0; q < 200; q++) {
+            int a = edge(r), b = edge(r);
+            if (r.nextInt(8) == 0) b = a + r.nextInt(2);
+            assertEquals(refCount(ref, a, b), m.count(BASE + a, BASE + b), ctx + " count [" + a + "," + b + ")");
+        }
+        // di luar span selalu 0
+        assertEquals(0L, m.count(BASE - 3L * DAY, BASE), ctx);
+        assertEquals(0L, m.count(BASE + SPAN, BASE + SPAN + DAY), ctx);
+    }
+
+    @Test
+    void matchesBooleanArray() throws IOException {
+        Random r = new Random(20240612L);
+        for (int round = 0; round < 300; round++) {
+            MinuteBitmap m = new MinuteBitmap();
+            boolean[] ref = new boolean[SPAN];
+            randomize(r, m, ref);
+            assertSame(m, ref, r, "round " + round);
+
+            // FULL/RAW harus kembali persis sama
+            MinuteBitmap copy = roundTrip(m);
+            assertSame(copy, ref, r, "round " + round + " read");
+
+            // dropBefore: menit sebelum hari tsb hilang, sisanya utuh
+            int keepFromDay = r.nextInt(SPAN / DAY + 1);
+            copy.dropBefore(BASE / DAY + keepFromDay);
+            for (int i = 0; i < keepFromDay * DAY; i++) ref[i] = false;
+            assertSame(copy, ref, r, "round " + round + " dropBefore " + keepFromDay);
+        }
+    }
+
+    @Test
+    void countUnionMatchesOr() {
+        Random r = new Random(20240613L);
+        for (int round = 0; round < 300; round++) {
+            int n = r.nextInt(4);
+            List<MinuteBitmap> maps = new ArrayList<>();
+            List<boolean[]> refs = new ArrayList<>();
+            for (int k = 0; k < n; k++) {
+                MinuteBitmap m = new MinuteBitmap();
+                boolean[] ref = new boolean[SPAN];
+                randomize(r, m, ref);
+                maps.add(m);
+                refs.add(ref);
+            }
+            for (int q = 0; q < 200; q++) {
+                int a = edge(r), b = edge(r);
+                assertEquals(refUnion(refs, a, b), MinuteBitmap.countUnion(maps, BASE + a, BASE + b),
+                        "round " + round + " union [" + a + "," + b + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Regression: ProbeWindow (bitset melingkar + counter) harus sama dengan daftar sample naif yang dihitung ulang
+ * di (now - window, now] setiap kali.
+ */
+class ProbeWindowTest {
+
+    private record Sample(long second, boolean success) {
+    }
+
+    // referensi: semua sample apa adanya; detik sama digabung (gagal menang) saat dihitung
+    private static final class Naive {
+        final int window;
+        final List<Sample> samples = new ArrayList<>();
+        long now = Long.MIN_VALUE;
+
+        Naive(int window) {
+            this.window = window;
+        }
+
+        void record(long second, boolean success) {
+            advance(second);
+            samples.add(new Sample(second, success));
+        }
+
+        // now tidak pernah mundur → sample yang sudah keluar window boleh dibuang
+        void advance(long second) {
+            now = Math.max(now, second);
+            samples.removeIf(s -> s.second() <= now - window);
+        }
+
+        int sampleCount() {
+            Set<Long> seen = new HashSet<>();
+            for (Sample s : samples) if (inWindow(s)) seen.add(s.second());
+            return seen.size();
+        }
+
+        int failCount() {
+            Set<Long> failed = new HashSet<>();
+            for (Sample s : samples) if (inWindow(s) && !s.success()) failed.add(s.second());
+            return failed.size();
+        }
+
+        private boolean inWindow(Sample s) {
+            return s.second() > now - window && s.second() <= now;
+        }
+    }
+
+    private static void check(long seed, int window) {
+        Random r = new Random(seed);
+        ProbeWindow w = new ProbeWindow(window);
+        Naive ref = new Naive(window);
+        long clock = 1_700_000_000L + r.nextInt(1_000_000);
+        for (int i = 0; i < 3000; i++) {
+            String ctx = "seed " + seed + " window " + window + " op " + i;
+            switch (r.nextInt(10)) {
+                // detik yang sama lagi: hasil beda digabung, gagal menang
+                case 0 -> {
+                    long s = ref.now == Long.MIN_VALUE ? clock : ref.now;
+                    boolean ok = r.nextBoolean();
+                    w.record(s, ok);
+                    ref.record(s, ok);
+                }
+                // sample telat: sebagian masih di window, sebagian tepat / jauh di luar window
+                case 1 -> {
+                    long s = clock - r.nextInt(window + 3);
+                    boolean ok = r.nextInt(3) != 0;
+                    w.record(s, ok);
+                    ref.record(s, ok);
+                }
+                // celah panjang: tepat window, sekitar window, atau jauh lebih dari window
+                case 2 -> {
+                    clock += switch (r.nextInt(4)) {
+                        case 0 -> window;
+                        case 1 -> window - 1;
+                        case 2 -> window + 1;
+                        default -> window + r.nextInt(10 * window);
+                    };
+                    if (r.nextBoolean()) {
+                        w.advance(clock);
+                        ref.advance(clock);
+                    } else {
+                        w.record(clock, false);
+                        ref.record(clock, false);
+                    }
+                }
+                // advance saja (slot kedaluwarsa tanpa sample baru), kadang mundur → diabaikan
+                case 3 -> {
+                    long s = clock + r.nextInt(window + 1) - (r.nextInt(4) == 0 ? window : 0);
+                    clock = Math.max(clock, s);
+                    w.advance(s);
+                    ref.advance(s);
+                }
+                default -> {
+                    clock += r.nextInt(3);
+                    boolean ok = r.nextInt(4) != 0;
+                    w.record(clock, ok);
+                    ref.record(clock, ok);
+                }
+            }
+            assertEquals(ref.sampleCount(), w.sampleCount(), ctx + " samples");
+            assertEquals(ref.failCount(), w.failCount(), ctx + " failed");
+        }
+    }
+
+    @Test
+    void matchesNaiveSampleList() {
+        // 1 dan kelipatan / sekitar 64 → batas word bitset
+        int[] windows = {1, 2, 60, 63, 64, 65, 128, 300};
+        for (int window : windows) {
+            for (long seed = 1; seed <= 5; seed++) check(seed * 31 + window, window);
+        }
+    }
+
+    @Test
+    void emptyWindowCountsNothing() {
+        ProbeWindow w = new ProbeWindow(60);
+        assertEquals(0, w.sampleCount());
+        assertEquals(0, w.failCount());
+        w.record(1_000, false);
+        w.advance(1_059);
+        assertEquals(1, w.failCount());
+        w.advance(1_060);
+        assertEquals(0, w.sampleCount());
+        assertEquals(0, w.failCount());
+    }
+}
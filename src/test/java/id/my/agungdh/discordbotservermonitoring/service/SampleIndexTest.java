@@ -0,0 +1,182 @@
+package id.my.agungdh.discordbotservermonitoring.service;
+
+import id.my.agungdh.discordbotservermonitoring.client.NodeExporterClient;
+import id.my.agungdh.discordbotservermonitoring.client.ScrapeFrame;
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Regression: SampleIndex (hash, di atas ScrapeFrame) harus memberi hasil yang sama dengan scan linear versi lama.
+ */
+class SampleIndexTest {
+
+    private static final String[] NAMES = {
+            "node_cpu_seconds_total", "node_filesystem_size_bytes", "node_network_receive_bytes_total",
+            "node_uname_info", "node_load1", "node_hwmon_temp_celsius", "time", "missing_metric"
+    };
+    private static final String[] LABELS = {"cpu", "mode", "device", "mountpoint", "fstype", "nodename"};
+    private static final String[] VALUES = {"", "0", "1", "2", "idle", "user", "eth0", "veth1", "/", "tmpfs", " "};
+
+    private static List<NodeExporterClient.Sample> randomSamples(Random r) {
+        List<NodeExporterClient.Sample> out = new ArrayList<>();
+        int n = r.nextInt(300);
+        for (int i = 0; i < n; i++) {
+            Map<String, String> labels = new LinkedHashMap<>();
+            int k = r.nextInt(4);
+            for (int j = 0; j < k; j++) {
+                labels.put(LABELS[r.nextInt(LABELS.length)], VALUES[r.nextInt(VALUES.length)]);
+            }
+            double v = switch (r.nextInt(10)) {
+                case 0 -> Double.NaN;
+                case 1 -> -r.nextInt(100);
+                default -> r.nextInt(1000) / 7.0;
+            };
+            out.add(new NodeExporterClient.Sample(NAMES[r.nextInt(NAMES.length - 1)], labels, v));
+        }
+        return out;
+    }
+
+    private static Map<String, String> randomMatch(Random r) {
+        Map<String, String> m = new HashMap<>();
+        int k = r.nextInt(3);
+        for (int j = 0; j < k; j++) {
+            m.put(LABELS[r.nextInt(LABELS.length)], VALUES[r.nextInt(VALUES.length)]);
+        }
+        return m;
+    }
+
+    private static ScrapeFrame frameOf(List<NodeExporterClient.Sample> samples) {
+        ScrapeFrame.Builder b = ScrapeFrame.builder();
+        for (var s : samples) b.accept(s.name(), s.labels(), s.value());
+        return b.build();
+    }
+
+    private static Optional<Double> boxed(OptionalDouble d) {
+        return d.isPresent() ? Optional.of(d.getAsDouble()) : Optional.empty();
+    }
+
+    @Test
+    void matchesLinearScan() {
+        Random r = new Random(20240501L);
+        Predicate<String> notTmpfsType = fs -> !"tmpfs".equals(fs);
+        Predicate<String> notRoot = mount -> !"/".equals(mount);
+        Predicate<Map<String, String>> notTmpfsOrRoot = lab -> notTmpfsType.test(lab.getOrDefault("fstype", ""))
+                && notRoot.test(lab.getOrDefault("mountpoint", ""));
+        Predicate<String> notVeth = dev -> !dev.startsWith("veth");
+
+        for (int round = 0; round < 500; round++) {
+            var samples = randomSamples(r);
+            var idx = new SampleIndex(frameOf(samples));
+            var ref = new LinearIndex(samples);
+
+            for (String name : NAMES) {
+                assertEquals(ref.firstValue(name), boxed(idx.firstValue(name)), name);
+                assertEquals(ref.maxOf(name), boxed(idx.maxOf(name)), name);
+                for (String label : LABELS) {
+                    assertEquals(ref.firstLabel(name, label), idx.firstLabel(name, label), name + "/" + label);
+                    assertEquals(ref.distinctValues(name, label), idx.distinctValues(name, label), name + "/" + label);
+                }
+                for (int q = 0; q < 20; q++) {
+                    var match = randomMatch(r);
+                    assertEquals(ref.firstValue(name, match), boxed(idx.firstValue(name, match)), name + " " + match);
+                }
+
+                var refDisks = ref.mapFirstValues(name, Map.of(), "device", "mountpoint", "fstype", notTmpfsOrRoot);
+                var idxDisks = idx.mapFirstValues(name, "device", "mountpoint", "fstype", notTmpfsType, notRoot);
+                assertEquals(refDisks, idxDisks.entrySet().stream().collect(Collectors.toMap(
+                        e -> List.of(e.getKey().device(), e.getKey().mountpoint(), e.getKey().fstype()),
+                        Map.Entry::getValue)));
+                assertEquals(ref.mapFirstValuesByDevice(name, notVeth), idx.mapFirstValuesByDevice(name, notVeth));
+            }
+        }
+    }
+
+    /**
+     * Implementasi lama NodeMetricsService.Index (scan linear) sebagai referensi.
+     */
+    private static final class LinearIndex {
+        private final List<NodeExporterClient.Sample> samples;
+
+        LinearIndex(List<NodeExporterClient.Sample> samples) {
+            this.samples = samples;
+        }
+
+        private static boolean labelsMatch(Map<String, String> have, Map<String, String> need) {
+            for (var e : need.entrySet()) {
+                if (!e.getValue().equals(have.getOrDefault(e.getKey(), ""))) return false;
+            }
+            return true;
+        }
+
+        Optional<Double> firstValue(String name) {
+            return samples.stream()
+                    .filter(s -> s.name().equals(name))
+                    .map(NodeExporterClient.Sample::value)
+                    .findFirst();
+        }
+
+        Optional<Double> firstValue(String name, Map<String, String> match) {
+            return samples.stream()
+                    .filter(s -> s.name().equals(name) && labelsMatch(s.labels(), match))
+                    .map(NodeExporterClient.Sample::value)
+                    .findFirst();
+        }
+
+        Optional<Double> maxOf(String name) {
+            return samples.stream()
+                    .filter(s -> s.name().equals(name))
+                    .map(NodeExporterClient.Sample::value)
+                    .max(Double::compare);
+        }
+
+        Optional<String> firstLabel(String metric, String label) {
+            return samples.stream()
+                    .filter(s -> s.name().equals(metric))
+                    .map(s -> s.labels().get(label))
+                    .filter(Objects::nonNull)
+                    .findFirst();
+        }
+
+        Set<String> distinctValues(String metric, String label) {
+            return samples.stream()
+                    .filter(s -> s.name().equals(metric))
+                    .map(s -> s.labels().getOrDefault(label, ""))
+                    .filter(v -> !v.isBlank())
+                    .collect(Collectors.toCollection(TreeSet::new));
+        }
+
+        Map<List<String>, Long> mapFirstValues(String metric, Map<String, String> mustMatch,
+                                               String labelDevice, String labelMount, String labelFs,
+                                               Predicate<Map<String, String>> labelFilter) {
+            Map<List<String>, Long> out = new HashMap<>();
+            for (var s : samples) {
+                if (!s.name().equals(metric)) continue;
+                if (!labelsMatch(s.labels(), mustMatch)) continue;
+                if (!labelFilter.test(s.labels())) continue;
+                List<String> k = List.of(
+                        s.labels().getOrDefault(labelDevice, ""),
+                        s.labels().getOrDefault(labelMount, ""),
+                        s.labels().getOrDefault(labelFs, "")
+                );
+                out.putIfAbsent(k, (long) (double) s.value());
+            }
+            return out;
+        }
+
+        Map<String, Long> mapFirstValuesByDevice(String metric, Predicate<String> allowDevice) {
+            Map<String, Long> out = new HashMap<>();
+            for (var s : samples) {
+                if (!s.name().equals(metric)) continue;
+                String dev = s.labels().getOrDefault("device", "");
+                if (!allowDevice.test(dev)) continue;
+                out.putIfAbsent(dev, (long) (double) s.value());
+            }
+            return out;
+        }
+    }
+}